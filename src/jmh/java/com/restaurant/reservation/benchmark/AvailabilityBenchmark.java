@@ -0,0 +1,60 @@
+package com.restaurant.reservation.benchmark;
+
+import com.restaurant.reservation.model.Table;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verfügbarkeitsprüfung eines ganzen Tages, wie sie die Tischauswahl für
+ * jeden Zeitslot durchführt.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class AvailabilityBenchmark {
+
+    /** Freie Tische für alle 25 Zeitslots eines zufälligen Tages per Datenbankabfrage. */
+    @Benchmark
+    public void findFreeTablesForDay(SeededDatabase db, Blackhole bh) throws Exception {
+        String day = db.randomDay();
+        for (int slot = 0; slot < 25; slot++) {
+            List<Table> free = db.service.findFreeTables(day, BenchmarkDatabase.slotTime(slot), 2);
+            bh.consume(free);
+        }
+    }
+
+    /** Alle Tisch-/Slot-Kombinationen eines zufälligen Tages über den Belegungsindex. */
+    @Benchmark
+    public void isTableReservedForDay(SeededDatabase db, Blackhole bh) throws Exception {
+        String day = db.randomDay();
+        for (int slot = 0; slot < 25; slot++) {
+            String time = BenchmarkDatabase.slotTime(slot);
+            for (int table = 1; table <= BenchmarkDatabase.TABLES; table++) {
+                bh.consume(db.service.isTableReserved(day, time, table));
+            }
+        }
+    }
+
+    /** Dieselbe Prüfung mit einer Einzelabfrage pro Kombination, ohne Index im Speicher. */
+    @Benchmark
+    public void existsReservationForDay(SeededDatabase db, Blackhole bh) throws Exception {
+        String day = db.randomDay();
+        for (int slot = 0; slot < 25; slot++) {
+            String time = BenchmarkDatabase.slotTime(slot);
+            for (int table = 1; table <= BenchmarkDatabase.TABLES; table++) {
+                bh.consume(db.dao.existsReservation(day, time, table));
+            }
+        }
+    }
+}
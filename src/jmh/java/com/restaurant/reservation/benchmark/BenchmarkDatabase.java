@@ -0,0 +1,121 @@
+package com.restaurant.reservation.benchmark;
+
+import com.restaurant.reservation.dao.Database;
+import com.restaurant.reservation.dao.ReservationDAO;
+import com.restaurant.reservation.dao.TableDAO;
+import com.restaurant.reservation.model.Reservation;
+import com.restaurant.reservation.service.AvailabilityIndex;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+
+/**
+ * Stellt für Benchmarks eine temporäre Datenbank mit einer festen Anzahl
+ * Reservierungen bereit.
+ * <p>
+ * Die Reservierungen füllen Tag für Tag alle 15 Tische in allen 25 Zeitslots
+ * (10:00–22:00) ab dem 01.01.2000; jede belegt ihren Tisch genau einen Slot
+ * lang, sodass sich keine Sitzzeiten überschneiden. Jede Größe wird nur einmal unter
+ * {@code target/benchmark-db} erzeugt und danach für jeden Lauf in eine
+ * temporäre Datei kopiert, damit schreibende Benchmarks die Vorlage nicht
+ * verändern.
+ */
+final class BenchmarkDatabase {
+    static final LocalDate FIRST_DAY = LocalDate.of(2000, 1, 1);
+    static final int TABLES = 15;
+    static final int ROWS_PER_DAY = TABLES * Reservation.SLOTS_PER_DAY;
+
+    private static final Path TEMPLATE_DIR = Paths.get("target", "benchmark-db");
+
+    private BenchmarkDatabase() {
+    }
+
+    /**
+     * Richtet eine Kopie der Vorlage mit {@code rows} Reservierungen ein und
+     * stellt {@link Database} darauf um.
+     * @return Pfad der temporären Datenbank, für {@link #close(Path)}
+     */
+    static Path open(int rows) throws IOException, SQLException {
+        Path template = TEMPLATE_DIR.resolve("reservations-" + rows + ".db");
+        if (!Files.exists(template)) {
+            createTemplate(template, rows);
+        }
+        Path copy = Files.createTempFile("reservation-bench-", ".db");
+        Files.copy(template, copy, StandardCopyOption.REPLACE_EXISTING);
+        Database.configure("jdbc:sqlite:" + copy);
+        ReservationDAO.createTable();
+        TableDAO.createTable();
+        AvailabilityIndex.shared().invalidate();
+        return copy;
+    }
+
+    /** Schließt die Datenbank und löscht die temporären Dateien. */
+    static void close(Path copy) throws IOException {
+        Database.shutdown();
+        Files.deleteIfExists(copy);
+        Files.deleteIfExists(Paths.get(copy + "-wal"));
+        Files.deleteIfExists(Paths.get(copy + "-shm"));
+    }
+
+    /** Anzahl der Tage, über die sich {@code rows} Reservierungen verteilen. */
+    static int days(int rows) {
+        return Math.max(1, (rows + ROWS_PER_DAY - 1) / ROWS_PER_DAY);
+    }
+
+    /** Uhrzeit eines Zeitslots (HH:MM). */
+    static String slotTime(int slot) {
+        int minute = Reservation.FIRST_SLOT_MINUTE + slot * Reservation.SLOT_MINUTES;
+        return String.format("%02d:%02d", minute / 60, minute % 60);
+    }
+
+    /**
+     * Füllt die Vorlage mit einer einzigen INSERT ... SELECT-Anweisung. Der
+     * Statistik-Trigger wird dafür entfernt und die Kennzahlen anschließend
+     * einmalig neu berechnet; {@link ReservationDAO#createTable()} legt den
+     * Trigger danach wieder an.
+     */
+    private static void createTemplate(Path template, int rows) throws IOException, SQLException {
+        Files.createDirectories(TEMPLATE_DIR);
+        Path part = TEMPLATE_DIR.resolve(template.getFileName() + ".part");
+        Files.deleteIfExists(part);
+        Files.deleteIfExists(Paths.get(part + "-wal"));
+        Files.deleteIfExists(Paths.get(part + "-shm"));
+        System.out.println("Erzeuge Benchmark-Datenbank mit " + rows + " Reservierungen ...");
+        Database.configure("jdbc:sqlite:" + part);
+        ReservationDAO.createTable();
+        TableDAO.createTable();
+        long firstMinute = FIRST_DAY.toEpochDay() * 24 * 60;
+        try (Connection conn = Database.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DROP TRIGGER IF EXISTS stats_reservation_insert");
+            conn.setAutoCommit(false);
+            stmt.executeUpdate("WITH RECURSIVE seq(i) AS (SELECT 0 UNION ALL SELECT i + 1 FROM seq WHERE i < " + (rows - 1) + "), " +
+                    "slots AS (SELECT i, i / " + ROWS_PER_DAY + " AS day, (i % " + ROWS_PER_DAY + ") / " + TABLES + " AS slot FROM seq) " +
+                    "INSERT INTO reservations(name, date, time, persons, table_number, status, created_at, confirmed_at, " +
+                    "start_min, created_ts, confirmed_ts, duration_min) " +
+                    "SELECT 'Gast ' || i, date('" + FIRST_DAY + "', '+' || day || ' days'), " +
+                    "printf('%02d:%02d', (" + Reservation.FIRST_SLOT_MINUTE + " + slot * " + Reservation.SLOT_MINUTES + ") / 60, " +
+                    "(slot * " + Reservation.SLOT_MINUTES + ") % 60), " +
+                    "2 + i % 5, 1 + i % " + TABLES + ", " +
+                    "CASE i % 10 WHEN 0 THEN 2 WHEN 1 THEN 1 ELSE 0 END, " +
+                    "datetime(start - 7 * 86400, 'unixepoch'), " +
+                    "CASE WHEN i % 10 < 2 THEN datetime(start - 7 * 86400 + 3600, 'unixepoch') END, " +
+                    "start / 60, start - 7 * 86400, CASE WHEN i % 10 < 2 THEN start - 7 * 86400 + 3600 END, " +
+                    Reservation.SLOT_MINUTES + " " +
+                    "FROM (SELECT i, day, slot, (" + firstMinute + " + day * 1440 + " + Reservation.FIRST_SLOT_MINUTE +
+                    " + slot * " + Reservation.SLOT_MINUTES + ") * 60 AS start FROM slots)");
+            conn.commit();
+        }
+        ReservationDAO.rebuildStatistics();
+        ReservationDAO.createTable();
+        Database.shutdown();
+        Files.move(part, template, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
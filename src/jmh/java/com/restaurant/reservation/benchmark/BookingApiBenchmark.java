@@ -0,0 +1,125 @@
+package com.restaurant.reservation.benchmark;
+
+import com.restaurant.reservation.api.BookingServer;
+import com.restaurant.reservation.dao.Database;
+import com.restaurant.reservation.service.ReservationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lasttest der HTTP-Buchungsschnittstelle: 64 Clients buchen gleichzeitig
+ * zufällige Tische und Zeitslots an 30 Tagen, sodass viele Anfragen um
+ * dieselben Tische konkurrieren. Nach dem Lauf wird geprüft, dass sich keine
+ * gespeicherten Sitzzeiten überschneiden; andernfalls schlägt der Benchmark
+ * fehl.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+@Threads(64)
+public class BookingApiBenchmark {
+    private static final LocalDate FIRST_BOOKING_DAY = LocalDate.of(2099, 1, 1);
+    private static final int BOOKING_DAYS = 30;
+
+    @State(Scope.Benchmark)
+    public static class Server {
+        BookingServer server;
+        HttpClient client;
+        String base;
+        final AtomicInteger created = new AtomicInteger();
+        final AtomicInteger conflicts = new AtomicInteger();
+        private Path file;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            file = BenchmarkDatabase.open(10000);
+            server = new BookingServer(new ReservationService(), new InetSocketAddress("127.0.0.1", 0));
+            server.start();
+            client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            base = "http://127.0.0.1:" + server.getPort() + "/api/";
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws Exception {
+            server.stop();
+            System.out.println("\nAngelegt: " + created + ", abgelehnt (belegt): " + conflicts);
+            String overlaps = "SELECT COUNT(*) FROM reservations a JOIN reservations b " +
+                    "ON a.table_number = b.table_number AND a.id < b.id " +
+                    "AND a.start_min < b.start_min + b.duration_min AND b.start_min < a.start_min + a.duration_min " +
+                    "WHERE a.date >= '" + FIRST_BOOKING_DAY + "'";
+            try (Connection conn = Database.getConnection();
+                 Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(overlaps)) {
+                rs.next();
+                if (rs.getInt(1) > 0) {
+                    throw new IllegalStateException(rs.getInt(1) + " überschneidende Buchungen");
+                }
+            } finally {
+                BenchmarkDatabase.close(file);
+            }
+        }
+    }
+
+    /** Bucht einen zufälligen Tisch; 201 und 409 sind beide gültige Antworten. */
+    @Benchmark
+    public int book(Server s) throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String form = "name=Gast&date=" + FIRST_BOOKING_DAY.plusDays(random.nextInt(BOOKING_DAYS)) +
+                "&time=" + BenchmarkDatabase.slotTime(random.nextInt(25)) +
+                "&persons=2&table=" + (1 + random.nextInt(BenchmarkDatabase.TABLES));
+        HttpResponse<Void> response = s.client.send(HttpRequest.newBuilder(URI.create(s.base + "reservations"))
+                        .header("Content-Type", "application/x-www-form-urlencoded")
+                        .POST(HttpRequest.BodyPublishers.ofString(form))
+                        .build(),
+                HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() == 201) {
+            s.created.incrementAndGet();
+        } else if (response.statusCode() == 409) {
+            s.conflicts.incrementAndGet();
+        } else {
+            throw new IllegalStateException("Unerwarteter Status " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+
+    /** Freie Tische und Vorschlag für einen zufälligen Zeitslot. */
+    @Benchmark
+    public int availability(Server s) throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String query = "availability?date=" + FIRST_BOOKING_DAY.plusDays(random.nextInt(BOOKING_DAYS)) +
+                "&time=" + BenchmarkDatabase.slotTime(random.nextInt(25)) + "&persons=" + (1 + random.nextInt(6));
+        HttpResponse<byte[]> response = s.client.send(HttpRequest.newBuilder(URI.create(s.base + query)).build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Unerwarteter Status " + response.statusCode());
+        }
+        return response.body().length;
+    }
+}
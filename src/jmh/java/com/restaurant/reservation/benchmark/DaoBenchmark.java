@@ -0,0 +1,64 @@
+package com.restaurant.reservation.benchmark;
+
+import com.restaurant.reservation.model.Reservation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** Einzelzugriffe von {@link com.restaurant.reservation.dao.ReservationDAO}. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class DaoBenchmark {
+    /** Neue Buchungen landen hinter den befüllten Daten, damit sie nie kollidieren. */
+    private static final LocalDate INSERT_START = LocalDate.of(2200, 1, 1);
+    private static final AtomicInteger INSERTED = new AtomicInteger();
+
+    @Benchmark
+    public boolean addReservation(SeededDatabase db) throws Exception {
+        int n = INSERTED.getAndIncrement();
+        String date = INSERT_START.plusDays(n / BenchmarkDatabase.ROWS_PER_DAY).toString();
+        int inDay = n % BenchmarkDatabase.ROWS_PER_DAY;
+        Reservation reservation = new Reservation("Bench", date,
+                BenchmarkDatabase.slotTime(inDay / BenchmarkDatabase.TABLES), 2,
+                1 + inDay % BenchmarkDatabase.TABLES);
+        reservation.setDurationMinutes(Reservation.SLOT_MINUTES);
+        return db.dao.addReservation(reservation);
+    }
+
+    @Benchmark
+    public boolean existsReservation(SeededDatabase db) throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return db.dao.existsReservation(db.randomDay(),
+                BenchmarkDatabase.slotTime(random.nextInt(25)), 1 + random.nextInt(BenchmarkDatabase.TABLES));
+    }
+
+    @Benchmark
+    public List<Reservation> getReservationsForTable(SeededDatabase db) throws Exception {
+        return db.dao.getReservationsForTable(1 + ThreadLocalRandom.current().nextInt(BenchmarkDatabase.TABLES));
+    }
+
+    @Benchmark
+    public List<Reservation> getReservationsForDate(SeededDatabase db) throws Exception {
+        return db.dao.getReservationsForDate(db.randomDay());
+    }
+
+    /** Eine Seite der Reservierungsliste ab einer zufälligen Stelle. */
+    @Benchmark
+    public List<Reservation> getReservationPage(SeededDatabase db) throws Exception {
+        Reservation after = new Reservation(0, null, db.randomDay(), "10:00", 0, 0);
+        return db.dao.getReservationPage(after, 200);
+    }
+}
@@ -0,0 +1,63 @@
+package com.restaurant.reservation.benchmark;
+
+import com.restaurant.reservation.dao.ReservationDAO;
+import com.restaurant.reservation.model.Reservation;
+import com.restaurant.reservation.service.ReservationStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Laden der kompletten Reservierungsliste. Bei 10 Mio. Zeilen passt das
+ * Ergebnis nicht sinnvoll in den Heap, deshalb ist der Standard hier auf
+ * 1 Mio. begrenzt (mit "-p rows=10000000" erzwingbar). Zum Vergleich wird
+ * derselbe Bestand in den spaltenorientierten {@link ReservationStore} geladen.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+@State(Scope.Benchmark)
+public class FullListBenchmark {
+    @Param({"10000", "1000000"})
+    public int rows;
+
+    private ReservationDAO dao;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        file = BenchmarkDatabase.open(rows);
+        dao = new ReservationDAO();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        BenchmarkDatabase.close(file);
+    }
+
+    @Benchmark
+    public List<Reservation> getAllReservations() throws Exception {
+        return dao.getAllReservations();
+    }
+
+    @Benchmark
+    public int loadReservationStore() throws Exception {
+        return new ReservationStore(dao).size();
+    }
+}
@@ -0,0 +1,42 @@
+package com.restaurant.reservation.benchmark;
+
+import com.restaurant.reservation.dao.ReservationDAO;
+import com.restaurant.reservation.service.ReservationService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+
+/** Benchmark-Zustand mit einer befüllten Datenbank in drei Größen. */
+@State(Scope.Benchmark)
+public class SeededDatabase {
+    @Param({"10000", "1000000", "10000000"})
+    public int rows;
+
+    ReservationDAO dao;
+    ReservationService service;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        file = BenchmarkDatabase.open(rows);
+        dao = new ReservationDAO();
+        service = new ReservationService();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        BenchmarkDatabase.close(file);
+    }
+
+    /** Zufälliger Tag innerhalb der befüllten Daten (YYYY-MM-DD). */
+    String randomDay() {
+        int day = ThreadLocalRandom.current().nextInt(BenchmarkDatabase.days(rows));
+        return BenchmarkDatabase.FIRST_DAY.plusDays(day).toString();
+    }
+}
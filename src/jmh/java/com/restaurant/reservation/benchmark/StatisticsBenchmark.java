@@ -0,0 +1,47 @@
+package com.restaurant.reservation.benchmark;
+
+import com.restaurant.reservation.model.StatisticsSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Kennzahlen des Statistikfensters, einzeln und als gemeinsamer Snapshot. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class StatisticsBenchmark {
+
+    @Benchmark
+    public StatisticsSnapshot loadStatistics(SeededDatabase db) throws Exception {
+        return db.service.getStatistics(5);
+    }
+
+    @Benchmark
+    public int countReservations(SeededDatabase db) throws Exception {
+        return db.dao.countReservations();
+    }
+
+    @Benchmark
+    public double averageOccupancy(SeededDatabase db) throws Exception {
+        return db.dao.averageOccupancy();
+    }
+
+    @Benchmark
+    public double averageLeadTimeHours(SeededDatabase db) throws Exception {
+        return db.dao.averageLeadTimeHours();
+    }
+
+    @Benchmark
+    public List<String> findPopularTimes(SeededDatabase db) throws Exception {
+        return db.dao.findPopularTimes(5);
+    }
+}
@@ -0,0 +1,403 @@
+package com.restaurant.reservation.api;
+
+import com.restaurant.reservation.dao.Database;
+import com.restaurant.reservation.dao.ReservationDAO;
+import com.restaurant.reservation.dao.WriteResult;
+import com.restaurant.reservation.model.Reservation;
+import com.restaurant.reservation.model.ReservationStatus;
+import com.restaurant.reservation.model.StatisticsSnapshot;
+import com.restaurant.reservation.model.Table;
+import com.restaurant.reservation.service.ReservationService;
+import com.restaurant.reservation.service.SlotTakenException;
+import com.restaurant.reservation.service.TableService;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Buchungsschnittstelle über HTTP ohne Oberfläche, z.B. für Online-Buchungen
+ * und Telefonagenten. Baut auf dem HTTP-Server des JDK auf und ruft die
+ * Methoden von {@link ReservationService} auf; Doppelbuchungen verhindert
+ * wie in der Oberfläche die atomare Prüfung beim Speichern.
+ * <p>
+ * Endpunkte (Parameter als Query-String oder im Body als
+ * {@code application/x-www-form-urlencoded}, Antworten als JSON):
+ * <ul>
+ *   <li>{@code GET /api/availability?date=&time=&persons=} – freie Tische und Vorschlag</li>
+ *   <li>{@code POST /api/reservations} mit {@code name, date, time, persons}, optional
+ *       {@code table} und {@code duration} – 201, 409 bei belegtem Tisch</li>
+ *   <li>{@code GET /api/reservations/{id}}</li>
+ *   <li>{@code DELETE /api/reservations/{id}} – 204, 404 falls unbekannt</li>
+ *   <li>{@code PUT /api/reservations/{id}/status} mit {@code status}</li>
+ *   <li>{@code GET /api/statistics}</li>
+ * </ul>
+ * Stornieren und Statusänderungen akzeptieren optional {@code version} aus
+ * einer zuvor gelesenen Reservierung; ist sie veraltet, antwortet der Server
+ * mit 409 und dem aktuellen Stand unter {@code current}.
+ * <p>
+ * Jede Anfrage läuft in einem eigenen Thread – ab Java 21 einem virtuellen,
+ * sonst aus einem Pool. Da SQLite Schreibzugriffe ohnehin nacheinander
+ * ausführt, begrenzt ein Semaphor die gleichzeitigen Service-Aufrufe auf die
+ * Größe des Verbindungspools; so warten Anfragen im Speicher statt
+ * zusätzliche Verbindungen zu öffnen.
+ */
+public class BookingServer {
+    public static final int DEFAULT_PORT = 8080;
+    /** Gleichzeitige Service-Aufrufe: je eine gepoolte Verbindung. */
+    private static final int MAX_CONCURRENT_CALLS = Database.getPoolSize();
+    /** Threads je Prozessor, falls keine virtuellen Threads verfügbar sind. */
+    private static final int THREADS_PER_CPU = 8;
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+    private static final String JSON = "application/json; charset=utf-8";
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private final ReservationService service;
+    private final TableService tableService = new TableService();
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Semaphore calls = new Semaphore(MAX_CONCURRENT_CALLS, true);
+
+    /**
+     * Richtet den Server ein; gestartet wird er mit {@link #start()}.
+     * @param address Adresse und Port, Port 0 wählt einen freien
+     */
+    public BookingServer(ReservationService service, InetSocketAddress address) throws IOException {
+        this.service = service;
+        this.server = HttpServer.create(address, 1024);
+        this.executor = newRequestExecutor();
+        server.setExecutor(executor);
+        server.createContext("/api/", this::handle);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /** Beendet den Server; laufende Anfragen erhalten bis zu zwei Sekunden. */
+    public void stop() {
+        server.stop(2);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Tatsächlicher Port, z.B. nach Start mit Port 0. */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Ein virtueller Thread je Anfrage, wenn die Laufzeitumgebung sie bietet
+     * (Java 21); das Projekt wird für Java 17 übersetzt, daher per Reflection.
+     * Sonst ein fester Pool von Daemon-Threads.
+     */
+    static ExecutorService newRequestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            int threads = THREADS_PER_CPU * Runtime.getRuntime().availableProcessors();
+            return Executors.newFixedThreadPool(threads, r -> {
+                Thread t = new Thread(r, "booking-http-" + THREAD_COUNTER.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    private void handle(HttpExchange exchange) {
+        try {
+            String method = exchange.getRequestMethod();
+            String[] path = exchange.getRequestURI().getRawPath().substring("/api/".length()).split("/");
+            Map<String, String> params = parameters(exchange);
+            calls.acquireUninterruptibly();
+            try {
+                route(exchange, method, path, params);
+            } finally {
+                calls.release();
+            }
+        } catch (BadRequest e) {
+            sendError(exchange, e.status, e.getMessage());
+        } catch (SlotTakenException e) {
+            sendError(exchange, 409, e.getMessage());
+        } catch (RuntimeException | IOException e) {
+            // Programmfehler bzw. Ein-/Ausgabefehler: Details nur ins Log, nicht an den Client
+            e.printStackTrace();
+            sendError(exchange, 500, "Interner Fehler");
+        } catch (Exception e) {
+            // Der Dienst meldet ungültige Eingaben als geprüfte Exception mit Meldung für den Benutzer
+            if (isDatabaseError(e)) {
+                // Details nur ins Log, nicht an den Client
+                e.printStackTrace();
+                sendError(exchange, 500, "Interner Datenbankfehler");
+            } else {
+                sendError(exchange, 400, e.getMessage());
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void route(HttpExchange exchange, String method, String[] path, Map<String, String> params)
+            throws Exception {
+        if (path.length == 1 && path[0].equals("availability")) {
+            requireMethod(method, "GET");
+            availability(exchange, params);
+        } else if (path.length == 1 && path[0].equals("statistics")) {
+            requireMethod(method, "GET");
+            statistics(exchange);
+        } else if (path.length == 1 && path[0].equals("reservations")) {
+            requireMethod(method, "POST");
+            create(exchange, params);
+        } else if (path.length == 2 && path[0].equals("reservations")) {
+            int id = intParam(path[1], "id");
+            if (method.equals("GET")) {
+                Reservation reservation = service.getReservation(id);
+                if (reservation == null) {
+                    throw new BadRequest(404, "Reservierung nicht gefunden");
+                }
+                send(exchange, 200, reservation(new JsonWriter(), reservation));
+            } else {
+                requireMethod(method, "DELETE");
+                WriteResult result = service.deleteReservation(id, version(params));
+                if (result.isApplied()) {
+                    exchange.sendResponseHeaders(204, -1);
+                } else {
+                    sendNotApplied(exchange, result);
+                }
+            }
+        } else if (path.length == 3 && path[0].equals("reservations") && path[2].equals("status")) {
+            requireMethod(method, "PUT");
+            ReservationStatus status;
+            try {
+                status = ReservationStatus.parse(required(params, "status"));
+            } catch (IllegalArgumentException e) {
+                throw new BadRequest(400, e.getMessage());
+            }
+            WriteResult result = service.setStatus(intParam(path[1], "id"), status, version(params));
+            if (result.isApplied()) {
+                send(exchange, 200, reservation(new JsonWriter(), result.getReservation()));
+            } else {
+                sendNotApplied(exchange, result);
+            }
+        } else {
+            throw new BadRequest(404, "Unbekannter Pfad");
+        }
+    }
+
+    private void availability(HttpExchange exchange, Map<String, String> params) throws Exception {
+        String date = required(params, "date");
+        String time = required(params, "time");
+        int persons = intParam(required(params, "persons"), "persons");
+        List<Table> free = service.findFreeTables(date, time, persons);
+        Table suggested = service.suggestTable(date, time, persons);
+        JsonWriter json = new JsonWriter(64 + free.size() * 20);
+        json.beginObject()
+            .name("date").value(date)
+            .name("time").value(time)
+            .name("persons").value(persons)
+            .name("suggested");
+        if (suggested == null) {
+            json.nullValue();
+        } else {
+            table(json, suggested);
+        }
+        json.name("tables").beginArray();
+        for (Table table : free) {
+            table(json, table);
+        }
+        json.endArray().endObject();
+        send(exchange, 200, json);
+    }
+
+    /** Legt eine Reservierung an; ohne Tisch wird der vorgeschlagene genommen. */
+    private void create(HttpExchange exchange, Map<String, String> params) throws Exception {
+        String name = required(params, "name");
+        String date = required(params, "date");
+        String time = required(params, "time");
+        int persons = intParam(required(params, "persons"), "persons");
+        String tableParam = params.get("table");
+        int table;
+        if (tableParam != null) {
+            table = intParam(tableParam, "table");
+        } else {
+            Table suggested = service.suggestTable(date, time, persons);
+            if (suggested == null) {
+                throw new BadRequest(409, "Kein passender Tisch frei");
+            }
+            table = suggested.getId();
+        }
+        Table chosen = tableService.getTableById(table);
+        if (chosen == null) {
+            throw new BadRequest(400, "Unbekannter Tisch: " + table);
+        }
+        if (persons > chosen.getSeats()) {
+            throw new BadRequest(400, "Gewählter Tisch hat nicht genug Sitzplätze.");
+        }
+        String duration = params.get("duration");
+        Reservation created = duration == null
+                ? service.addReservation(name, date, time, persons, table)
+                : service.addReservation(name, date, time, persons, table, intParam(duration, "duration"));
+        send(exchange, 201, reservation(new JsonWriter(), created));
+    }
+
+    private void statistics(HttpExchange exchange) throws Exception {
+        StatisticsSnapshot stats = service.getStatistics(5);
+        JsonWriter json = new JsonWriter();
+        json.beginObject()
+            .name("reservations").value(stats.getReservationCount())
+            .name("cancellations").value(stats.getCancellationCount())
+            .name("noShows").value(stats.getNoShowCount())
+            .name("attended").value(stats.getAttendedCount())
+            .name("noShowRate").value(stats.getNoShowRate())
+            .name("averageReservationsPerDay").value(stats.getAverageReservationsPerDay())
+            .name("averageOccupancy").value(stats.getAverageOccupancy())
+            .name("averageLeadTimeHours").value(stats.getAverageLeadTimeHours())
+            .name("averageProcessingTimeHours").value(stats.getAverageProcessingTimeHours())
+            .name("popularTimes").beginArray();
+        for (String time : stats.getPopularTimes()) {
+            json.value(time);
+        }
+        json.endArray().endObject();
+        send(exchange, 200, json);
+    }
+
+    private static JsonWriter reservation(JsonWriter json, Reservation r) {
+        return json.beginObject()
+                .name("id").value(r.getId())
+                .name("name").value(r.getName())
+                .name("date").value(r.getDate())
+                .name("time").value(r.getTime())
+                .name("persons").value(r.getPersons())
+                .name("table").value(r.getTableNumber())
+                .name("status").value(r.getStatus().name())
+                .name("duration").value(r.getDurationMinutes())
+                .name("version").value(r.getVersion())
+                .endObject();
+    }
+
+    /** 404, oder 409 mit dem aktuellen Stand bei veralteter Version. */
+    private static void sendNotApplied(HttpExchange exchange, WriteResult result) throws IOException {
+        if (!result.isConflict()) {
+            throw new BadRequest(404, "Reservierung nicht gefunden");
+        }
+        JsonWriter json = new JsonWriter().beginObject()
+                .name("error").value("Reservierung wurde zwischenzeitlich geändert")
+                .name("current");
+        send(exchange, 409, reservation(json, result.getReservation()).endObject());
+    }
+
+    private static void table(JsonWriter json, Table table) {
+        json.beginObject().name("id").value(table.getId()).name("seats").value(table.getSeats()).endObject();
+    }
+
+    private static void send(HttpExchange exchange, int status, JsonWriter json) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", JSON);
+        exchange.sendResponseHeaders(status, json.size());
+        try (OutputStream out = exchange.getResponseBody()) {
+            json.writeTo(out);
+        }
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) {
+        try {
+            send(exchange, status, new JsonWriter(64).beginObject().name("error").value(message).endObject());
+        } catch (IOException e) {
+            // Client hat die Verbindung bereits geschlossen
+        }
+    }
+
+    /** Query-String und ggf. formularkodierter Body. */
+    private static Map<String, String> parameters(HttpExchange exchange) throws IOException {
+        Map<String, String> params = new HashMap<>();
+        parse(exchange.getRequestURI().getRawQuery(), params);
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        if (contentType != null && contentType.startsWith("application/x-www-form-urlencoded")) {
+            try (InputStream in = exchange.getRequestBody()) {
+                byte[] body = in.readNBytes(MAX_BODY_BYTES + 1);
+                if (body.length > MAX_BODY_BYTES) {
+                    throw new BadRequest(413, "Anfrage zu groß");
+                }
+                parse(new String(body, StandardCharsets.UTF_8), params);
+            }
+        }
+        return params;
+    }
+
+    private static void parse(String encoded, Map<String, String> params) {
+        if (encoded == null || encoded.isEmpty()) {
+            return;
+        }
+        for (String pair : encoded.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                           URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    private static String required(Map<String, String> params, String name) {
+        String value = params.get(name);
+        if (value == null || value.isBlank()) {
+            throw new BadRequest(400, "Parameter fehlt: " + name);
+        }
+        return value;
+    }
+
+    private static int intParam(String value, String name) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new BadRequest(400, "Ungültiger Parameter: " + name);
+        }
+    }
+
+    private static int version(Map<String, String> params) {
+        String version = params.get("version");
+        return version == null ? ReservationDAO.ANY_VERSION : intParam(version, "version");
+    }
+
+    private static void requireMethod(String method, String expected) {
+        if (!method.equals(expected)) {
+            throw new BadRequest(405, "Methode nicht erlaubt");
+        }
+    }
+
+    private static boolean isDatabaseError(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Fehler in der Anfrage mit passendem HTTP-Status. */
+    private static final class BadRequest extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        final int status;
+
+        BadRequest(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+}
@@ -1,16 +1,53 @@
 package com.restaurant.reservation.dao;
 
+import com.restaurant.reservation.metrics.ReservationMetrics;
+import org.sqlite.SQLiteConfig;
+
+import java.io.File;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
-import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.io.File;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 /**
  * Hilfsklasse für die Verwaltung der Datenbankverbindung zur SQLite-DB.
+ * <p>
+ * Verbindungen werden nicht mehr bei jedem Zugriff neu geöffnet, sondern in
+ * einem kleinen Pool warm gehalten. Jede physische Verbindung läuft im
+ * WAL-Modus und merkt sich ihre vorbereiteten Statements, sodass wiederholte
+ * DAO-Aufrufe weder die Datei öffnen noch das SQL erneut parsen müssen.
+ * {@link Connection#close()} gibt die Verbindung lediglich an den Pool zurück.
+ * <p>
+ * Ist das {@link SlowQueryLog} eingeschaltet, messen vorbereitete Statements
+ * zudem ihre Ausführungszeit einschließlich des Weiterschaltens im
+ * ResultSet; langsame Anweisungen landen dort. Sonst werden Statements und
+ * ResultSets nicht zusätzlich umhüllt.
  */
 public class Database {
     /** Pfad zur SQLite-Datenbank. */
-    private static final String DB_URL = "jdbc:sqlite:db/restaurant.db";
+    private static final String DEFAULT_DB_URL = "jdbc:sqlite:db/restaurant.db";
+    /** Anzahl der Verbindungen, die dauerhaft offen gehalten werden. */
+    private static final int POOL_SIZE = 4;
+    /** Maximale Anzahl gecachter Statements je Verbindung. */
+    private static final int STATEMENT_CACHE_SIZE = 64;
+
+    /** Wird von {@link #configure} gewechselt und von allen DAO-Threads gelesen. */
+    private static volatile String dbUrl = DEFAULT_DB_URL;
+    private static final BlockingQueue<PooledConnection> idle = new ArrayBlockingQueue<>(POOL_SIZE);
+    private static boolean directoryChecked;
 
     static {
         try {
@@ -20,11 +57,417 @@ public class Database {
         }
     }
 
+    /**
+     * Liefert eine Verbindung aus dem Pool. Ist keine freie Verbindung
+     * vorhanden, wird eine zusätzliche geöffnet, damit verschachtelte Zugriffe
+     * nie auf sich selbst warten.
+     */
     public static Connection getConnection() throws SQLException {
-        File dir = new File("db");
-        if (!dir.exists()) {
-            dir.mkdirs();
+        return getConnection(null);
+    }
+
+    /**
+     * Wie {@link #getConnection()}, misst aber zusätzlich, wie lange die
+     * Verbindung für die angegebene Operation gehalten wird. Die Laufzeit wird
+     * beim Schließen als "dao.&lt;operation&gt;" in {@link ReservationMetrics}
+     * verbucht, fehlgeschlagene Datenbankaufrufe als Fehler.
+     * @param operation Name der DAO-Methode oder {@code null}
+     */
+    public static Connection getConnection(String operation) throws SQLException {
+        long start = System.nanoTime();
+        String url = dbUrl;
+        PooledConnection pooled = idle.poll();
+        while (pooled != null && !pooled.url.equals(url)) {
+            // während configure() zurückgegeben
+            pooled.closePhysical();
+            pooled = idle.poll();
+        }
+        if (pooled == null) {
+            pooled = new PooledConnection(openPhysical(url), url);
+        }
+        ReservationMetrics.record("db.getConnection", start);
+        return pooled.lease(operation == null ? null : "dao." + operation, start);
+    }
+
+    /**
+     * Stellt auf eine andere Datenbankdatei um (z.B. für Tests oder Benchmarks)
+     * und schließt alle bisher gepoolten Verbindungen.
+     * @param url JDBC-URL, z.B. {@code jdbc:sqlite:/tmp/bench.db}
+     */
+    public static synchronized void configure(String url) {
+        shutdown();
+        dbUrl = url;
+        directoryChecked = false;
+    }
+
+    /**
+     * Anzahl der Verbindungen, die der Pool offen hält. Mehr gleichzeitige
+     * Nutzer öffnen zusätzliche, ungepoolte Verbindungen.
+     */
+    public static int getPoolSize() {
+        return POOL_SIZE;
+    }
+
+    /** Liefert die aktuell verwendete JDBC-URL. */
+    public static String getUrl() {
+        return dbUrl;
+    }
+
+    /** Schließt alle freien Verbindungen im Pool. */
+    public static synchronized void shutdown() {
+        List<PooledConnection> drained = new ArrayList<>();
+        idle.drainTo(drained);
+        for (PooledConnection c : drained) {
+            c.closePhysical();
+        }
+    }
+
+    private static Connection openPhysical(String url) throws SQLException {
+        ensureDirectory(url);
+        SQLiteConfig config = new SQLiteConfig();
+        config.setJournalMode(SQLiteConfig.JournalMode.WAL);
+        config.setSynchronous(SQLiteConfig.SynchronousMode.NORMAL);
+        config.setCacheSize(-16000); // 16 MB Seiten-Cache
+        config.setPragma(SQLiteConfig.Pragma.MMAP_SIZE, String.valueOf(256L * 1024 * 1024));
+        config.setBusyTimeout(5000);
+        return config.createConnection(url);
+    }
+
+    /** Legt das Verzeichnis der DB-Datei einmalig an. */
+    private static synchronized void ensureDirectory(String url) {
+        if (directoryChecked && url.equals(dbUrl)) {
+            return;
+        }
+        String path = url.substring("jdbc:sqlite:".length());
+        File parent = new File(path).getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+        directoryChecked = url.equals(dbUrl);
+    }
+
+    /**
+     * Gibt eine Verbindung in den Pool zurück; Verbindungen zu einer vorher
+     * konfigurierten Datei werden geschlossen.
+     */
+    private static void release(PooledConnection pooled) {
+        if (!pooled.url.equals(dbUrl) || !idle.offer(pooled)) {
+            pooled.closePhysical();
+        }
+    }
+
+    /**
+     * Physische Verbindung samt Statement-Cache. Wird immer nur von einem
+     * Thread gleichzeitig benutzt und braucht daher keine Synchronisation.
+     */
+    private static final class PooledConnection {
+        private final Connection physical;
+        /** Datei, für die die Verbindung geöffnet wurde. */
+        private final String url;
+        private final Map<String, CachedStatement> statements =
+                new LinkedHashMap<>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                        if (size() > STATEMENT_CACHE_SIZE && !eldest.getValue().inUse) {
+                            eldest.getValue().closeQuietly();
+                            return true;
+                        }
+                        return false;
+                    }
+                };
+
+        PooledConnection(Connection physical, String url) {
+            this.physical = physical;
+            this.url = url;
+        }
+
+        Connection lease(String operation, long start) {
+            return (Connection) Proxy.newProxyInstance(Database.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, new LeaseHandler(this, operation, start));
+        }
+
+        PreparedStatement prepare(String sql, LeaseHandler lease) throws SQLException {
+            CachedStatement cached = statements.get(sql);
+            if (cached == null) {
+                cached = new CachedStatement(physical.prepareStatement(sql));
+                statements.put(sql, cached);
+            } else if (cached.inUse) {
+                // dasselbe SQL ist auf dieser Verbindung noch offen
+                return track(physical.prepareStatement(sql), sql, lease, null);
+            }
+            cached.inUse = true;
+            return track(cached.statement, sql, lease, cached);
+        }
+
+        /**
+         * Umhüllt ein Statement nur, soweit nötig: zur Messung, wenn das
+         * Slow-Query-Log eingeschaltet ist, sonst nur gecachte Statements, damit
+         * {@code close()} sie im Cache lässt. Alle anderen werden direkt
+         * zurückgegeben.
+         */
+        PreparedStatement track(PreparedStatement statement, String sql, LeaseHandler lease, CachedStatement cached) {
+            if (SlowQueryLog.isEnabled()) {
+                return (PreparedStatement) Proxy.newProxyInstance(Database.class.getClassLoader(),
+                        new Class<?>[]{PreparedStatement.class},
+                        new StatementHandler(statement, sql, lease, cached));
+            }
+            return cached != null ? cached.handle(lease) : statement;
+        }
+
+        /** Setzt die Verbindung für den nächsten Nutzer zurück. */
+        void reset() throws SQLException {
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+        }
+
+        void closePhysical() {
+            for (Iterator<CachedStatement> it = statements.values().iterator(); it.hasNext(); ) {
+                it.next().closeQuietly();
+                it.remove();
+            }
+            try {
+                physical.close();
+            } catch (SQLException e) {
+                System.err.println("Fehler beim Schließen der Datenbankverbindung: " + e.getMessage());
+            }
+        }
+    }
+
+    /** Vorbereitetes Statement, das beim Schließen im Cache verbleibt. */
+    private static final class CachedStatement {
+        private final PreparedStatement statement;
+        private boolean inUse;
+
+        CachedStatement(PreparedStatement statement) {
+            this.statement = statement;
+        }
+
+        /** Hülle ohne Messung; Fehler werden der Leihgabe angerechnet. */
+        PreparedStatement handle(LeaseHandler lease) {
+            return (PreparedStatement) Proxy.newProxyInstance(Database.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+                        String name = method.getName();
+                        if ("close".equals(name)) {
+                            if (inUse) {
+                                statement.clearParameters();
+                                statement.clearBatch();
+                                inUse = false;
+                            }
+                            return null;
+                        }
+                        if ("isClosed".equals(name)) {
+                            return !inUse || statement.isClosed();
+                        }
+                        try {
+                            return invoke(statement, method, args);
+                        } catch (SQLException e) {
+                            lease.failed = true;
+                            throw e;
+                        }
+                    });
+        }
+
+        void closeQuietly() {
+            try {
+                statement.close();
+            } catch (SQLException ignored) {
+                // Statement wird ohnehin verworfen
+            }
+        }
+    }
+
+    /**
+     * Statement-Hülle für die Dauer einer Leihgabe. Merkt sich die gebundenen
+     * Parameter und summiert die Zeit in execute* und {@code ResultSet.next()};
+     * ist die Ausführung abgeschlossen und die Summe über der Schwelle, wird
+     * sie an das {@link SlowQueryLog} gemeldet. Wird nur bei eingeschaltetem
+     * Log verwendet.
+     */
+    private static final class StatementHandler implements InvocationHandler {
+        private final PreparedStatement statement;
+        private final String sql;
+        private final LeaseHandler lease;
+        private final CachedStatement cached;
+        private SortedMap<Integer, Object> params;
+        private int batchSize;
+        /** Bisherige Dauer der laufenden Ausführung, -1 wenn keine läuft. */
+        private long elapsed = -1;
+        private boolean closed;
+
+        StatementHandler(PreparedStatement statement, String sql, LeaseHandler lease, CachedStatement cached) {
+            this.statement = statement;
+            this.sql = sql;
+            this.lease = lease;
+            this.cached = cached;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if ("close".equals(name)) {
+                if (!closed) {
+                    closed = true;
+                    finish();
+                    if (cached != null) {
+                        statement.clearParameters();
+                        statement.clearBatch();
+                        cached.inUse = false;
+                    } else {
+                        statement.close();
+                    }
+                }
+                return null;
+            }
+            if ("isClosed".equals(name)) {
+                return closed || statement.isClosed();
+            }
+            if (closed) {
+                throw new SQLException("Statement wurde bereits geschlossen");
+            }
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                if (params == null) {
+                    params = new TreeMap<>();
+                }
+                params.put((Integer) args[0], "setNull".equals(name) ? null : args[1]);
+            } else if ("clearParameters".equals(name) && params != null) {
+                params.clear();
+            } else if ("addBatch".equals(name)) {
+                batchSize++;
+            } else if (name.startsWith("execute")) {
+                finish();
+                long start = System.nanoTime();
+                Object result = call(method, args);
+                elapsed = System.nanoTime() - start;
+                if (result instanceof ResultSet) {
+                    return trackResults((ResultSet) result);
+                }
+                finish();
+                return result;
+            }
+            return call(method, args);
+        }
+
+        private Object call(Method method, Object[] args) throws Throwable {
+            try {
+                return Database.invoke(statement, method, args);
+            } catch (SQLException e) {
+                lease.failed = true;
+                elapsed = -1;
+                throw e;
+            }
+        }
+
+        /** Zählt die Zeit in {@code next()} zur Ausführung und meldet am Ende. */
+        private ResultSet trackResults(ResultSet rs) {
+            return (ResultSet) Proxy.newProxyInstance(Database.class.getClassLoader(),
+                    new Class<?>[]{ResultSet.class}, (proxy, method, args) -> {
+                        String name = method.getName();
+                        if ("next".equals(name)) {
+                            long start = System.nanoTime();
+                            boolean more = (Boolean) call(method, args, rs);
+                            if (elapsed >= 0) {
+                                elapsed += System.nanoTime() - start;
+                                if (!more) {
+                                    finish();
+                                }
+                            }
+                            return more;
+                        }
+                        if ("close".equals(name)) {
+                            finish();
+                        }
+                        return call(method, args, rs);
+                    });
+        }
+
+        private Object call(Method method, Object[] args, ResultSet rs) throws Throwable {
+            try {
+                return Database.invoke(rs, method, args);
+            } catch (SQLException e) {
+                lease.failed = true;
+                elapsed = -1;
+                throw e;
+            }
+        }
+
+        /** Schließt die laufende Messung ab. */
+        private void finish() {
+            long nanos = elapsed;
+            elapsed = -1;
+            if (nanos >= 0 && SlowQueryLog.isSlow(nanos)) {
+                SlowQueryLog.report(lease.pooled.physical, lease.operation, sql,
+                        params != null ? new TreeMap<>(params) : new TreeMap<>(), batchSize, nanos);
+            }
+            batchSize = 0;
+        }
+    }
+
+    /** Leihgabe einer gepoolten Verbindung; {@code close()} gibt sie zurück. */
+    private static final class LeaseHandler implements InvocationHandler {
+        private final PooledConnection pooled;
+        private final String operation;
+        private final long start;
+        private boolean closed;
+        private boolean failed;
+
+        LeaseHandler(PooledConnection pooled, String operation, long start) {
+            this.pooled = pooled;
+            this.operation = operation;
+            this.start = start;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if ("close".equals(name)) {
+                if (!closed) {
+                    closed = true;
+                    if (operation != null) {
+                        if (failed) {
+                            ReservationMetrics.recordError(operation, start);
+                        } else {
+                            ReservationMetrics.record(operation, start);
+                        }
+                    }
+                    try {
+                        pooled.reset();
+                        release(pooled);
+                    } catch (SQLException e) {
+                        pooled.closePhysical();
+                    }
+                }
+                return null;
+            }
+            if ("isClosed".equals(name)) {
+                return closed || pooled.physical.isClosed();
+            }
+            if (closed) {
+                throw new SQLException("Verbindung wurde bereits geschlossen");
+            }
+            try {
+                if ("prepareStatement".equals(name) && args.length == 1) {
+                    return pooled.prepare((String) args[0], this);
+                }
+                Object result = Database.invoke(pooled.physical, method, args);
+                if (result instanceof PreparedStatement && args[0] instanceof String) {
+                    // Varianten mit Cursor-Optionen werden nicht gecacht, aber gemessen
+                    return pooled.track((PreparedStatement) result, (String) args[0], this, null);
+                }
+                return result;
+            } catch (SQLException e) {
+                failed = true;
+                throw e;
+            }
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
         }
-        return DriverManager.getConnection(DB_URL);
     }
 }
@@ -1,20 +1,46 @@
 package com.restaurant.reservation.dao;
 
 import com.restaurant.reservation.model.Reservation;
+import com.restaurant.reservation.model.ReservationStatus;
+import com.restaurant.reservation.model.StatisticsSnapshot;
+import com.restaurant.reservation.model.WaitlistEntry;
+import org.sqlite.SQLiteErrorCode;
+import org.sqlite.SQLiteException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.Statement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Savepoint;
 import java.util.ArrayList;
 import java.util.List;
-import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
 
 /**
  * DAO-Klasse für den Zugriff auf Reservierungsdaten (SQLite-Datenbank).
  * Enthält CRUD-Methoden für die Tabelle "reservations".
  */
 public class ReservationDAO {
+    /** Erwartete Version, mit der Änderungen ohne Versionsprüfung ausgeführt werden. */
+    public static final int ANY_VERSION = -1;
+
+    /** Spalten, die {@link #mapReservation(ResultSet)} liest. */
+    private static final String COLUMNS = "id, name, date, time, persons, table_number, status, duration_min, version";
+
+    /**
+     * Setzt Status und beim ersten Abschluss den Bestätigungszeitpunkt und
+     * erhöht die Zeilenversion. Parameter: dreimal der Statuscode, dann die
+     * Bedingungen der WHERE-Klausel.
+     */
+    private static final String UPDATE_STATUS = "UPDATE reservations SET status = ?, " +
+            "confirmed_at = CASE WHEN confirmed_at IS NULL AND ? <> " + ReservationStatus.PENDING.getCode() +
+            " THEN datetime('now') ELSE confirmed_at END, " +
+            "confirmed_ts = CASE WHEN confirmed_ts IS NULL AND ? <> " + ReservationStatus.PENDING.getCode() +
+            " THEN CAST(strftime('%s', 'now') AS INTEGER) ELSE confirmed_ts END, " +
+            "version = version + 1 ";
 
     /**
      * Legt die Tabelle "reservations" in der Datenbank an, falls sie noch nicht existiert.
@@ -28,29 +54,39 @@ public class ReservationDAO {
                 "time TEXT NOT NULL," +
                 "persons INTEGER NOT NULL," +
                 "table_number INTEGER NOT NULL," +
-                "status TEXT NOT NULL DEFAULT 'PENDING'," +
+                "status INTEGER NOT NULL DEFAULT 0 CHECK (" + ReservationStatus.sqlCheck("status") + ")," +
                 "created_at TEXT NOT NULL DEFAULT (datetime('now'))," +
-                "confirmed_at TEXT)";
+                "confirmed_at TEXT," +
+                "start_min INTEGER," +
+                "created_ts INTEGER," +
+                "confirmed_ts INTEGER," +
+                "duration_min INTEGER," +
+                "version INTEGER NOT NULL DEFAULT 0)";
 
         String cancelsSql = "CREATE TABLE IF NOT EXISTS cancellations (" +
                 "id INTEGER PRIMARY KEY AUTOINCREMENT," +
                 "reservation_id INTEGER NOT NULL," +
                 "cancelled_at TEXT NOT NULL)";
 
-        try (Connection conn = Database.getConnection();
+        try (Connection conn = Database.getConnection("createTable");
              Statement stmt = conn.createStatement()) {
             stmt.executeUpdate(reservationsSql);
             stmt.executeUpdate(cancelsSql);
 
             // Zusätzliche Spalten ergänzen (Kompatibilität mit älteren DB-Versionen)
             boolean hasStatus = false;
+            boolean textStatus = false;
             boolean hasCreated = false;
             boolean hasConfirmed = false;
+            boolean hasEpochs = false;
+            boolean hasDuration = false;
+            boolean hasVersion = false;
             try (ResultSet rs = stmt.executeQuery("PRAGMA table_info(reservations)")) {
                 while (rs.next()) {
                     String name = rs.getString("name");
                     if ("status".equalsIgnoreCase(name)) {
                         hasStatus = true;
+                        textStatus = "TEXT".equalsIgnoreCase(rs.getString("type"));
                     }
                     if ("created_at".equalsIgnoreCase(name)) {
                         hasCreated = true;
@@ -58,10 +94,23 @@ public class ReservationDAO {
                     if ("confirmed_at".equalsIgnoreCase(name)) {
                         hasConfirmed = true;
                     }
+                    if ("start_min".equalsIgnoreCase(name)) {
+                        hasEpochs = true;
+                    }
+                    if ("duration_min".equalsIgnoreCase(name)) {
+                        hasDuration = true;
+                    }
+                    if ("version".equalsIgnoreCase(name)) {
+                        hasVersion = true;
+                    }
                 }
             }
             if (!hasStatus) {
-                stmt.executeUpdate("ALTER TABLE reservations ADD COLUMN status TEXT NOT NULL DEFAULT 'PENDING'");
+                stmt.executeUpdate("ALTER TABLE reservations ADD COLUMN status INTEGER NOT NULL DEFAULT 0 " +
+                        "CHECK (" + ReservationStatus.sqlCheck("status") + ")");
+            }
+            if (textStatus) {
+                migrateStatusCodes(conn);
             }
             if (!hasCreated) {
                 // SQLite erlaubt beim Hinzufügen neuer Spalten keinen Funktion-Ausdruck
@@ -73,27 +122,376 @@ public class ReservationDAO {
             if (!hasConfirmed) {
                 stmt.executeUpdate("ALTER TABLE reservations ADD COLUMN confirmed_at TEXT");
             }
+            if (!hasEpochs) {
+                // Zeitpunkte zusätzlich als Ganzzahlen: Termin in Epoch-Minuten,
+                // Buchung und Bestätigung in Epoch-Sekunden
+                stmt.executeUpdate("ALTER TABLE reservations ADD COLUMN start_min INTEGER");
+                stmt.executeUpdate("ALTER TABLE reservations ADD COLUMN created_ts INTEGER");
+                stmt.executeUpdate("ALTER TABLE reservations ADD COLUMN confirmed_ts INTEGER");
+            }
+            if (!hasDuration) {
+                // Sitzdauer in Minuten; ältere Zeilen erhalten die übliche Dauer für ihre Gruppengröße
+                stmt.executeUpdate("ALTER TABLE reservations ADD COLUMN duration_min INTEGER");
+            }
+            if (!hasVersion) {
+                // Zeilenversion für optimistische Sperren, siehe updateStatus(int, ReservationStatus, int)
+                stmt.executeUpdate("ALTER TABLE reservations ADD COLUMN version INTEGER NOT NULL DEFAULT 0");
+            }
+            // Zeilen, die ohne die Ganzzahl-Spalten oder Sitzdauer eingefügt werden (z.B. per SQL-Import), ergänzen
+            stmt.executeUpdate("DROP TRIGGER IF EXISTS reservations_epoch_insert");
+            stmt.executeUpdate("CREATE TRIGGER reservations_epoch_insert AFTER INSERT ON reservations " +
+                    "WHEN NEW.start_min IS NULL OR NEW.created_ts IS NULL OR NEW.duration_min IS NULL " +
+                    "OR (NEW.confirmed_ts IS NULL AND NEW.confirmed_at IS NOT NULL) BEGIN " +
+                    "UPDATE reservations SET " + EPOCH_BACKFILL + " WHERE id = NEW.id; END");
+            // Änderungsprotokoll für Lesebestände anderer Prozesse: je Reservierung nur die
+            // letzte Änderung von Status, Tisch oder Version, siehe scanChanges
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS reservation_changes (" +
+                    "id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                    "reservation_id INTEGER NOT NULL)");
+            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_reservation_changes_reservation " +
+                    "ON reservation_changes(reservation_id)");
+            stmt.executeUpdate("DROP TRIGGER IF EXISTS reservations_change_update");
+            stmt.executeUpdate("DROP TRIGGER IF EXISTS reservations_change_delete");
+            stmt.executeUpdate("CREATE TRIGGER reservations_change_update " +
+                    "AFTER UPDATE OF status, table_number, version ON reservations BEGIN " +
+                    "DELETE FROM reservation_changes WHERE reservation_id = NEW.id; " +
+                    "INSERT INTO reservation_changes(reservation_id) VALUES (NEW.id); END");
+            stmt.executeUpdate("CREATE TRIGGER reservations_change_delete AFTER DELETE ON reservations BEGIN " +
+                    "DELETE FROM reservation_changes WHERE reservation_id = OLD.id; END");
         } catch (SQLException e) {
             System.err.println("Fehler beim Erstellen der Datenbanktabelle: " + e.getMessage());
             e.printStackTrace();
         }
+        backfillEpochColumns();
+        createSlotIndex();
+        createIndex("DROP INDEX IF EXISTS idx_reservations_date_time");
+        createIndex("CREATE INDEX IF NOT EXISTS idx_reservations_start ON reservations(start_min)");
+        createIndex("CREATE INDEX IF NOT EXISTS idx_reservations_table_start ON reservations(table_number, start_min)");
+        // Nur offene Reservierungen werden nach Status gesucht, und sie sind ein
+        // kleiner Teil des Bestands; Zählungen je Status liefert stats_status
+        createIndex("CREATE INDEX IF NOT EXISTS idx_reservations_pending ON reservations(start_min) " +
+                    "WHERE status = " + ReservationStatus.PENDING.getCode());
+        createStatisticsTables();
+        WaitlistDAO.createTable();
+    }
+
+    /**
+     * Stellt die Statusspalte älterer Datenbanken von Text auf ganzzahlige
+     * Codes um. Unbekannte Werte werden dabei zu PENDING. Die Spalte wird
+     * umbenannt, neu angelegt, befüllt und die alte entfernt; die
+     * Kennzahlentrigger verweisen auf die Spalte und werden vorher entfernt
+     * (sie werden anschließend in {@link #createStatisticsTables()} neu
+     * angelegt). Die Statuszähler werden direkt mit den neuen Codes neu gezählt.
+     */
+    private static void migrateStatusCodes(Connection conn) throws SQLException {
+        conn.setAutoCommit(false);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DROP TRIGGER IF EXISTS stats_reservation_insert");
+            stmt.executeUpdate("DROP TRIGGER IF EXISTS stats_reservation_delete");
+            stmt.executeUpdate("DROP TRIGGER IF EXISTS stats_reservation_update");
+            stmt.executeUpdate("ALTER TABLE reservations RENAME COLUMN status TO status_text");
+            stmt.executeUpdate("ALTER TABLE reservations ADD COLUMN status INTEGER NOT NULL DEFAULT 0 " +
+                    "CHECK (" + ReservationStatus.sqlCheck("status") + ")");
+            stmt.executeUpdate("UPDATE reservations SET status = " + ReservationStatus.sqlCode("status_text"));
+            stmt.executeUpdate("ALTER TABLE reservations DROP COLUMN status_text");
+            stmt.executeUpdate("DROP TABLE IF EXISTS stats_status");
+            stmt.executeUpdate("CREATE TABLE stats_status (status INTEGER PRIMARY KEY, cnt INTEGER NOT NULL)");
+            stmt.executeUpdate("INSERT INTO stats_status(status, cnt) " +
+                    "SELECT status, COUNT(*) FROM reservations GROUP BY status");
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * Berechnet fehlende Ganzzahl-Zeitpunkte aus den Textspalten und setzt
+     * eine fehlende Sitzdauer auf den Standard für die Gruppengröße.
+     */
+    private static final String EPOCH_BACKFILL =
+            "start_min = COALESCE(start_min, CAST(strftime('%s', date || ' ' || time) AS INTEGER) / 60), " +
+            "created_ts = COALESCE(created_ts, CAST(strftime('%s', created_at) AS INTEGER)), " +
+            "confirmed_ts = COALESCE(confirmed_ts, CAST(strftime('%s', confirmed_at) AS INTEGER)), " +
+            "duration_min = COALESCE(duration_min, " + Reservation.sqlDefaultDuration("persons") + ")";
+
+    /** Anzahl Zeilen, die bei der Migration pro Transaktion umgerechnet werden. */
+    private static final int BACKFILL_CHUNK = 10_000;
+
+    /**
+     * Befüllt die Ganzzahl-Spalten und die Sitzdauer älterer Datenbanken. Die Umrechnung läuft in
+     * kleinen Transaktionen, damit andere Verbindungen zwischendurch weiter
+     * lesen und schreiben können.
+     */
+    private static void backfillEpochColumns() {
+        String sql = "UPDATE reservations SET " + EPOCH_BACKFILL + " WHERE id IN (" +
+                     "SELECT id FROM reservations WHERE start_min IS NULL OR created_ts IS NULL OR duration_min IS NULL " +
+                     "OR (confirmed_ts IS NULL AND confirmed_at IS NOT NULL) LIMIT " + BACKFILL_CHUNK + ")";
+        try (Connection conn = Database.getConnection("backfillEpochColumns");
+             Statement stmt = conn.createStatement()) {
+            int updated;
+            do {
+                updated = stmt.executeUpdate(sql);
+            } while (updated == BACKFILL_CHUNK);
+        } catch (SQLException e) {
+            System.err.println("Fehler beim Umrechnen der Zeitpunkte: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Wandelt Datum und Uhrzeit in Epoch-Minuten um (wie {@code strftime('%s')}
+     * ohne Zeitzonenumrechnung).
+     */
+    static long toEpochMinute(String date, String time) {
+        return LocalDateTime.of(LocalDate.parse(date), LocalTime.parse(time)).toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+
+    /** Epoch-Minute des Tagesbeginns. */
+    static long toEpochMinute(String date) {
+        return LocalDate.parse(date).toEpochDay() * 24 * 60;
+    }
+
+    /**
+     * Legt den eindeutigen Index auf (date, time, table_number) an. Er verhindert
+     * Doppelbuchungen zur selben Uhrzeit auf Datenbankebene; gesucht wird über
+     * start_min. Enthält eine ältere
+     * Datenbank bereits Doppelbuchungen, wird der Fehler nur protokolliert.
+     */
+    private static void createSlotIndex() {
+        String sql = "CREATE UNIQUE INDEX IF NOT EXISTS idx_reservations_slot " +
+                     "ON reservations(date, time, table_number)";
+        try (Connection conn = Database.getConnection("createSlotIndex");
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate(sql);
+        } catch (SQLException e) {
+            System.err.println("Fehler beim Anlegen des Buchungsindex (bestehende Doppelbuchungen?): " + e.getMessage());
+        }
+    }
+
+    /** Legt einen zusätzlichen Suchindex an. */
+    private static void createIndex(String sql) {
+        try (Connection conn = Database.getConnection("createIndex");
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate(sql);
+        } catch (SQLException e) {
+            System.err.println("Fehler beim Anlegen eines Index: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Legt die Kennzahlentabellen an, die per Trigger in derselben Transaktion
+     * wie jede Änderung an "reservations" bzw. "cancellations" fortgeschrieben
+     * werden. Die Statistikabfragen lesen dadurch nur noch wenige Zeilen statt
+     * der gesamten Historie. Tage, Termine und Uhrzeiten werden wie alle
+     * anderen Abfragen über start_min gezählt (Epoch-Tag, Epoch-Minute und
+     * Minute des Tages). Fehlt der Summenstand (z.B. nach einem Update) oder
+     * liegen die Tabellen noch mit Textschlüsseln vor, werden sie einmalig aus
+     * dem Bestand befüllt.
+     */
+    private static void createStatisticsTables() {
+        try (Connection conn = Database.getConnection("createStatisticsTables");
+             Statement stmt = conn.createStatement()) {
+            boolean textKeys = false;
+            try (ResultSet rs = stmt.executeQuery("PRAGMA table_info(stats_times)")) {
+                while (rs.next()) {
+                    textKeys |= "time".equalsIgnoreCase(rs.getString("name"));
+                }
+            }
+            if (textKeys) {
+                stmt.executeUpdate("DROP TABLE stats_daily");
+                stmt.executeUpdate("DROP TABLE stats_slots");
+                stmt.executeUpdate("DROP TABLE stats_times");
+                stmt.executeUpdate("DELETE FROM stats_totals");
+            }
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS stats_daily (" +
+                    "day INTEGER PRIMARY KEY, cnt INTEGER NOT NULL)");
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS stats_slots (" +
+                    "start_min INTEGER PRIMARY KEY, cnt INTEGER NOT NULL)");
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS stats_times (" +
+                    "minute INTEGER PRIMARY KEY, cnt INTEGER NOT NULL)");
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS stats_status (" +
+                    "status INTEGER PRIMARY KEY, cnt INTEGER NOT NULL)");
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS stats_totals (" +
+                    "id INTEGER PRIMARY KEY CHECK (id = 1)," +
+                    "reservations INTEGER NOT NULL," +
+                    "days INTEGER NOT NULL," +
+                    "slots INTEGER NOT NULL," +
+                    "cancellations INTEGER NOT NULL," +
+                    "lead_seconds INTEGER NOT NULL," +
+                    "lead_count INTEGER NOT NULL," +
+                    "processing_seconds INTEGER NOT NULL," +
+                    "processing_count INTEGER NOT NULL)");
+
+            // Trigger werden bei jedem Start neu angelegt, damit sie dem aktuellen Schema entsprechen
+            stmt.executeUpdate("DROP TRIGGER IF EXISTS stats_reservation_insert");
+            stmt.executeUpdate("DROP TRIGGER IF EXISTS stats_reservation_delete");
+            stmt.executeUpdate("DROP TRIGGER IF EXISTS stats_reservation_update");
+            stmt.executeUpdate("DROP TRIGGER IF EXISTS stats_cancellation_insert");
+            stmt.executeUpdate("DROP TRIGGER IF EXISTS stats_cancellation_delete");
+            stmt.executeUpdate("CREATE TRIGGER stats_reservation_insert AFTER INSERT ON reservations BEGIN " +
+                    countIn("NEW") + " END");
+            stmt.executeUpdate("CREATE TRIGGER stats_reservation_delete AFTER DELETE ON reservations BEGIN " +
+                    countOut("OLD") + " END");
+            stmt.executeUpdate("CREATE TRIGGER stats_reservation_update " +
+                    "AFTER UPDATE OF date, time, start_min, status, created_at, confirmed_at, confirmed_ts " +
+                    "ON reservations BEGIN " +
+                    countOut("OLD") + countIn("NEW") + " END");
+            stmt.executeUpdate("CREATE TRIGGER stats_cancellation_insert AFTER INSERT ON cancellations BEGIN " +
+                    "UPDATE stats_totals SET cancellations = cancellations + 1 WHERE id = 1; END");
+            stmt.executeUpdate("CREATE TRIGGER stats_cancellation_delete AFTER DELETE ON cancellations BEGIN " +
+                    "UPDATE stats_totals SET cancellations = cancellations - 1 WHERE id = 1; END");
+
+            boolean initialised;
+            try (ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM stats_totals")) {
+                initialised = rs.next() && rs.getInt(1) > 0;
+            }
+            if (!initialised) {
+                rebuildStatistics(conn);
+            }
+        } catch (SQLException e) {
+            System.err.println("Fehler beim Anlegen der Kennzahlentabellen: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Termin einer Zeile in Epoch-Minuten. Solange start_min einer per SQL
+     * importierten Zeile noch nicht befüllt ist, wird er aus den Textspalten
+     * berechnet, damit Ein- und Austragen denselben Schlüssel treffen.
+     */
+    private static String startMinute(String row) {
+        return "COALESCE(" + row + ".start_min, " +
+               "CAST(strftime('%s', " + row + ".date || ' ' || " + row + ".time) AS INTEGER) / 60)";
+    }
+
+    /**
+     * Sekunden zwischen Buchung und Termin einer Zeile (oder NULL). Solange die
+     * Ganzzahl-Spalten einer per SQL importierten Zeile noch nicht befüllt
+     * sind, wird auf die Textspalten zurückgegriffen.
+     */
+    private static String leadSeconds(String row) {
+        return "(COALESCE(" + row + ".start_min * 60, strftime('%s', " + row + ".date || ' ' || " + row + ".time)) " +
+               "- COALESCE(" + row + ".created_ts, strftime('%s', " + row + ".created_at)))";
+    }
+
+    /** Sekunden zwischen Buchung und Bestätigung einer Zeile (oder NULL). */
+    private static String processingSeconds(String row) {
+        return "(COALESCE(" + row + ".confirmed_ts, strftime('%s', " + row + ".confirmed_at)) " +
+               "- COALESCE(" + row + ".created_ts, strftime('%s', " + row + ".created_at)))";
+    }
+
+    /** Trigger-Anweisungen, die eine Zeile in die Kennzahlen aufnehmen. */
+    private static String countIn(String row) {
+        String start = startMinute(row);
+        return "INSERT INTO stats_daily(day, cnt) VALUES (" + start + " / 1440, 1) " +
+                "ON CONFLICT(day) DO UPDATE SET cnt = cnt + 1; " +
+                "INSERT INTO stats_slots(start_min, cnt) VALUES (" + start + ", 1) " +
+                "ON CONFLICT(start_min) DO UPDATE SET cnt = cnt + 1; " +
+                "INSERT INTO stats_times(minute, cnt) VALUES (" + start + " % 1440, 1) " +
+                "ON CONFLICT(minute) DO UPDATE SET cnt = cnt + 1; " +
+                "INSERT INTO stats_status(status, cnt) VALUES (" + row + ".status, 1) " +
+                "ON CONFLICT(status) DO UPDATE SET cnt = cnt + 1; " +
+                "UPDATE stats_totals SET reservations = reservations + 1, " +
+                "days = days + (SELECT cnt = 1 FROM stats_daily WHERE day = " + start + " / 1440), " +
+                "slots = slots + (SELECT cnt = 1 FROM stats_slots WHERE start_min = " + start + "), " +
+                "lead_seconds = lead_seconds + COALESCE(" + leadSeconds(row) + ", 0), " +
+                "lead_count = lead_count + (" + leadSeconds(row) + " IS NOT NULL), " +
+                "processing_seconds = processing_seconds + COALESCE(" + processingSeconds(row) + ", 0), " +
+                "processing_count = processing_count + (" + processingSeconds(row) + " IS NOT NULL) " +
+                "WHERE id = 1;";
+    }
+
+    /** Trigger-Anweisungen, die eine Zeile aus den Kennzahlen entfernen. */
+    private static String countOut(String row) {
+        String start = startMinute(row);
+        return "UPDATE stats_daily SET cnt = cnt - 1 WHERE day = " + start + " / 1440; " +
+                "UPDATE stats_slots SET cnt = cnt - 1 WHERE start_min = " + start + "; " +
+                "UPDATE stats_times SET cnt = cnt - 1 WHERE minute = " + start + " % 1440; " +
+                "UPDATE stats_status SET cnt = cnt - 1 WHERE status = " + row + ".status; " +
+                "UPDATE stats_totals SET reservations = reservations - 1, " +
+                "days = days - COALESCE((SELECT cnt = 0 FROM stats_daily WHERE day = " + start + " / 1440), 0), " +
+                "slots = slots - COALESCE((SELECT cnt = 0 FROM stats_slots WHERE start_min = " + start + "), 0), " +
+                "lead_seconds = lead_seconds - COALESCE(" + leadSeconds(row) + ", 0), " +
+                "lead_count = lead_count - (" + leadSeconds(row) + " IS NOT NULL), " +
+                "processing_seconds = processing_seconds - COALESCE(" + processingSeconds(row) + ", 0), " +
+                "processing_count = processing_count - (" + processingSeconds(row) + " IS NOT NULL) " +
+                "WHERE id = 1; " +
+                "DELETE FROM stats_daily WHERE day = " + start + " / 1440 AND cnt <= 0; " +
+                "DELETE FROM stats_slots WHERE start_min = " + start + " AND cnt <= 0; " +
+                "DELETE FROM stats_times WHERE minute = " + start + " % 1440 AND cnt <= 0; " +
+                "DELETE FROM stats_status WHERE status = " + row + ".status AND cnt <= 0;";
+    }
+
+    /**
+     * Berechnet alle Kennzahlentabellen einmalig aus dem aktuellen Bestand neu,
+     * z.B. nach einem Update oder wenn Daten an den Triggern vorbei geändert wurden.
+     */
+    public static void rebuildStatistics() {
+        try (Connection conn = Database.getConnection("rebuildStatistics")) {
+            rebuildStatistics(conn);
+        } catch (SQLException e) {
+            System.err.println("Fehler beim Neuaufbau der Kennzahlen: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    private static void rebuildStatistics(Connection conn) throws SQLException {
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM stats_daily");
+            stmt.executeUpdate("DELETE FROM stats_slots");
+            stmt.executeUpdate("DELETE FROM stats_times");
+            stmt.executeUpdate("DELETE FROM stats_status");
+            stmt.executeUpdate("DELETE FROM stats_totals");
+            String start = startMinute("reservations");
+            stmt.executeUpdate("INSERT INTO stats_daily(day, cnt) " +
+                    "SELECT " + start + " / 1440 AS day, COUNT(*) FROM reservations GROUP BY day");
+            stmt.executeUpdate("INSERT INTO stats_slots(start_min, cnt) " +
+                    "SELECT " + start + " AS slot, COUNT(*) FROM reservations GROUP BY slot");
+            stmt.executeUpdate("INSERT INTO stats_times(minute, cnt) " +
+                    "SELECT " + start + " % 1440 AS minute, COUNT(*) FROM reservations GROUP BY minute");
+            stmt.executeUpdate("INSERT INTO stats_status(status, cnt) " +
+                    "SELECT status, COUNT(*) FROM reservations GROUP BY status");
+            stmt.executeUpdate("INSERT INTO stats_totals(id, reservations, days, slots, cancellations, " +
+                    "lead_seconds, lead_count, processing_seconds, processing_count) " +
+                    "SELECT 1, COUNT(*), " +
+                    "(SELECT COUNT(*) FROM stats_daily), " +
+                    "(SELECT COUNT(*) FROM stats_slots), " +
+                    "(SELECT COUNT(*) FROM cancellations), " +
+                    "COALESCE(SUM(" + leadSeconds("reservations") + "), 0), " +
+                    "COUNT(" + leadSeconds("reservations") + "), " +
+                    "COALESCE(SUM(" + processingSeconds("reservations") + "), 0), " +
+                    "COUNT(" + processingSeconds("reservations") + ") " +
+                    "FROM reservations");
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
     }
 
     /**
      * Importiert Beispielreservierungen, falls die Tabelle leer ist.
      */
     public static void importSampleDataIfEmpty() {
-        try (Connection conn = Database.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM reservations")) {
-            if (rs.next() && rs.getInt(1) == 0) {
-                try (java.io.InputStream in = ReservationDAO.class.getResourceAsStream("/sql/sample_reservations.sql")) {
-                    if (in != null) {
-                        String sql = new String(in.readAllBytes(), StandardCharsets.UTF_8);
-                        stmt.executeUpdate(sql);
-                    } else {
-                        System.err.println("Beispieldatei sample_reservations.sql nicht gefunden");
-                    }
+        try {
+            if (readTotal("importSampleDataIfEmpty", "reservations") > 0) {
+                return;
+            }
+            try (java.io.InputStream in = ReservationDAO.class.getResourceAsStream("/sql/sample_reservations.sql")) {
+                if (in != null) {
+                    ReservationImporter.ImportResult result =
+                            new ReservationImporter().importStream(in, ReservationImporter.Format.SQL);
+                    System.out.println("Beispielreservierungen: " + result);
+                } else {
+                    System.err.println("Beispieldatei sample_reservations.sql nicht gefunden");
                 }
             }
         } catch (Exception e) {
@@ -105,18 +503,17 @@ public class ReservationDAO {
     /**
      * Importiert die Beispieldaten aus einer Datei und löscht diese anschließend.
      * Damit kann die Datei "sql/sample_reservations.sql" in die bestehende
-     * Datenbank gemerged werden.
-     * @param path Pfad zur SQL-Datei mit den Beispielreservierungen
+     * Datenbank gemerged werden. Bereits belegte Tische werden übersprungen.
+     * @param path Pfad zur SQL- oder CSV-Datei mit den Beispielreservierungen
      */
     public static void mergeSampleDataFromFile(String path) {
         java.nio.file.Path p = java.nio.file.Paths.get(path);
         if (!java.nio.file.Files.exists(p)) {
             return;
         }
-        try (Connection conn = Database.getConnection();
-             Statement stmt = conn.createStatement()) {
-            String sql = java.nio.file.Files.readString(p, java.nio.charset.StandardCharsets.UTF_8);
-            stmt.executeUpdate(sql);
+        try {
+            ReservationImporter.ImportResult result = new ReservationImporter().importFile(p);
+            System.out.println("Beispieldaten gemerged: " + result);
             java.nio.file.Files.delete(p); // Datei nach Import entfernen
         } catch (Exception e) {
             System.err.println("Fehler beim Mergen der Beispieldaten: " + e.getMessage());
@@ -131,20 +528,12 @@ public class ReservationDAO {
      */
     public List<Reservation> getAllReservations() throws SQLException {
         List<Reservation> list = new ArrayList<>();
-        String sql = "SELECT id, name, date, time, persons, table_number, status FROM reservations ORDER BY date, time";
-        try (Connection conn = Database.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+        String sql = "SELECT id, name, date, time, persons, table_number, status, duration_min, version FROM reservations ORDER BY start_min, id";
+        try (Connection conn = Database.getConnection("getAllReservations");
+             PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
             while (rs.next()) {
-                Reservation res = new Reservation(
-                        rs.getInt("id"),
-                        rs.getString("name"),
-                        rs.getString("date"),
-                        rs.getString("time"),
-                        rs.getInt("persons"),
-                        rs.getInt("table_number"),
-                        rs.getString("status")
-                );
+                Reservation res = mapReservation(rs);
                 list.add(res);
             }
         }
@@ -152,46 +541,219 @@ public class ReservationDAO {
     }
 
     /**
-     * Fügt eine neue Reservierung in die Datenbank ein.
-     * @param reservation das Reservation-Objekt mit den zu speichernden Daten (ohne ID)
+     * Fügt eine neue Reservierung in die Datenbank ein, sofern sich ihre
+     * Sitzzeit nicht mit einer anderen Reservierung desselben Tisches
+     * überschneidet. Prüfung und Einfügen sind eine einzige Anweisung und damit
+     * atomar; die Suche nutzt den Index auf (table_number, start_min), da eine
+     * überschneidende Reservierung höchstens {@link Reservation#MAX_DURATION}
+     * Minuten früher beginnt. Der eindeutige Index auf (date, time,
+     * table_number) bleibt als zusätzliche Absicherung bestehen.
+     * @param reservation das Reservation-Objekt mit den zu speichernden Daten (ohne ID);
+     *                    erhält beim Speichern die vergebene ID
+     * @return true, falls gespeichert wurde; false, falls der Tisch zu der Zeit bereits belegt ist
      * @throws SQLException falls ein Fehler beim Einfügen auftritt
      */
-    public void addReservation(Reservation reservation) throws SQLException {
-        String sql = "INSERT INTO reservations(name, date, time, persons, table_number, status, created_at) " +
-                     "VALUES (?, ?, ?, ?, ?, ?, datetime('now'))";
-        try (Connection conn = Database.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
+    public boolean addReservation(Reservation reservation) throws SQLException {
+        try (Connection conn = Database.getConnection("addReservation")) {
+            return insertIfFree(conn, reservation);
+        } catch (SQLiteException e) {
+            if (e.getResultCode() == SQLiteErrorCode.SQLITE_CONSTRAINT_UNIQUE) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    /** Bedingtes Einfügen aus {@link #addReservation(Reservation)} auf einer bestehenden Verbindung. */
+    private static boolean insertIfFree(Connection conn, Reservation reservation) throws SQLException {
+        String sql = "INSERT INTO reservations(name, date, time, persons, table_number, status, created_at, " +
+                     "start_min, created_ts, duration_min) " +
+                     "SELECT ?, ?, ?, ?, ?, ?, datetime('now'), ?, CAST(strftime('%s', 'now') AS INTEGER), ? " +
+                     "WHERE NOT EXISTS (SELECT 1 FROM reservations WHERE table_number = ? " +
+                     "AND start_min > ? AND start_min < ? AND start_min + duration_min > ?) " +
+                     "RETURNING id";
+        long start = toEpochMinute(reservation.getDate(), reservation.getTime());
+        long end = start + reservation.getDurationMinutes();
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, reservation.getName());
             ps.setString(2, reservation.getDate());
             ps.setString(3, reservation.getTime());
             ps.setInt(4, reservation.getPersons());
             ps.setInt(5, reservation.getTableNumber());
-            ps.setString(6, reservation.getStatus());
-            ps.executeUpdate();
+            ps.setInt(6, reservation.getStatus().getCode());
+            ps.setLong(7, start);
+            ps.setInt(8, reservation.getDurationMinutes());
+            ps.setInt(9, reservation.getTableNumber());
+            ps.setLong(10, start - Reservation.MAX_DURATION);
+            ps.setLong(11, end);
+            ps.setLong(12, start);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    return false;
+                }
+                reservation.setId(rs.getInt(1));
+            }
+            return true;
         }
     }
 
     /**
-     * Löscht die Reservierung mit der gegebenen ID aus der Datenbank.
+     * Löscht die Reservierung mit der gegebenen ID aus der Datenbank und
+     * protokolliert die Stornierung. Beides geschieht in einer Transaktion.
      * @param id die ID der zu löschenden Reservierung
+     * @return die gelöschte Reservierung oder {@code null}, falls keine existierte
      * @throws SQLException falls ein Fehler beim Löschen auftritt
      */
-    public void deleteReservation(int id) throws SQLException {
+    public Reservation deleteReservation(int id) throws SQLException {
+        return cancelReservation(id, ANY_VERSION, null).getCancelled();
+    }
+
+    /**
+     * Wählt beim Stornieren einen Nachrücker von der Warteliste. Wird innerhalb
+     * der Stornierungstransaktion aufgerufen und sollte daher nur im Speicher
+     * suchen.
+     */
+    @FunctionalInterface
+    public interface SuccessorSelector {
+        /**
+         * @param cancelled die soeben gelöschte Reservierung
+         * @return der Eintrag, der Tisch und Uhrzeit übernehmen soll, oder {@code null}
+         */
+        WaitlistEntry select(Reservation cancelled) throws SQLException;
+    }
+
+    /** Ergebnis von {@link #cancelReservation(int, SuccessorSelector)}. */
+    public static final class Cancellation {
+        private final Reservation cancelled;
+        private final WaitlistEntry waitlistEntry;
+        private final Reservation promoted;
+
+        private final WriteResult result;
+
+        Cancellation(WriteResult result, WaitlistEntry waitlistEntry, Reservation promoted) {
+            this.cancelled = result.isApplied() ? result.getReservation() : null;
+            this.waitlistEntry = waitlistEntry;
+            this.promoted = promoted;
+            this.result = result;
+        }
+
+        /**
+         * Ergebnis der Versionsprüfung: bei einem Konflikt enthält es den
+         * aktuellen Stand der Reservierung, die dann nicht gelöscht wurde.
+         */
+        public WriteResult getResult() {
+            return result;
+        }
+
+        /** Die gelöschte Reservierung oder {@code null}, falls keine existierte. */
+        public Reservation getCancelled() {
+            return cancelled;
+        }
+
+        /** Der gewählte Warteliste-Eintrag oder {@code null}, falls keiner gewählt wurde. */
+        public WaitlistEntry getWaitlistEntry() {
+            return waitlistEntry;
+        }
+
+        /**
+         * Die Reservierung des Nachrückers oder {@code null}. Ist ein Eintrag
+         * gewählt, aber keine Reservierung angelegt, war der Eintrag nicht mehr
+         * vorhanden oder der Tisch für seine Sitzdauer nicht frei.
+         */
+        public Reservation getPromoted() {
+            return promoted;
+        }
+    }
+
+    /**
+     * Storniert eine Reservierung ohne Versionsprüfung und lässt einen Gast
+     * von der Warteliste nachrücken, siehe
+     * {@link #cancelReservation(int, int, SuccessorSelector)}.
+     */
+    public Cancellation cancelReservation(int id, SuccessorSelector successor) throws SQLException {
+        return cancelReservation(id, ANY_VERSION, successor);
+    }
+
+    /**
+     * Storniert eine Reservierung und lässt einen Gast von der Warteliste
+     * nachrücken. Löschen, Protokollieren, Anlegen der neuen Reservierung auf
+     * demselben Tisch zur selben Uhrzeit und Entfernen des Eintrags aus der
+     * Warteliste geschehen in einer Transaktion. Scheitert das Nachrücken
+     * (Eintrag bereits entfernt oder Tisch für die Sitzdauer des Nachrückers
+     * nicht frei), wird nur dieser Teil zurückgenommen.
+     * <p>
+     * Gelöscht wird nur, wenn die Reservierung noch die erwartete Version hat;
+     * sonst bleibt alles unverändert und das Ergebnis meldet einen Konflikt.
+     * @param id die ID der zu löschenden Reservierung
+     * @param expectedVersion zuletzt gelesene Version oder {@link #ANY_VERSION}
+     * @param successor wählt den Nachrücker; {@code null} für eine Stornierung ohne Nachrücken
+     * @throws SQLException falls ein Fehler beim Löschen auftritt
+     */
+    public Cancellation cancelReservation(int id, int expectedVersion, SuccessorSelector successor)
+            throws SQLException {
         String insertCancel = "INSERT INTO cancellations(reservation_id, cancelled_at) VALUES (?, datetime('now'))";
-        String deleteRes = "DELETE FROM reservations WHERE id = ?";
-        try (Connection conn = Database.getConnection();
-             PreparedStatement ins = conn.prepareStatement(insertCancel);
-             PreparedStatement del = conn.prepareStatement(deleteRes)) {
-            ins.setInt(1, id);
-            ins.executeUpdate();
+        String deleteRes = "DELETE FROM reservations WHERE id = ? AND (? = " + ANY_VERSION + " OR version = ?) " +
+                           "RETURNING " + COLUMNS;
+        try (Connection conn = Database.getConnection("deleteReservation")) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement ins = conn.prepareStatement(insertCancel);
+                 PreparedStatement del = conn.prepareStatement(deleteRes)) {
+                Reservation deleted = null;
+                del.setInt(1, id);
+                del.setInt(2, expectedVersion);
+                del.setInt(3, expectedVersion);
+                try (ResultSet rs = del.executeQuery()) {
+                    if (rs.next()) {
+                        deleted = mapReservation(rs);
+                    }
+                }
+                if (deleted == null) {
+                    // Versionskonflikt oder nicht vorhanden: keine Stornierung protokollieren
+                    WriteResult result = WriteResult.notApplied(findById(conn, id));
+                    conn.rollback();
+                    return new Cancellation(result, null, null);
+                }
+                ins.setInt(1, id);
+                ins.executeUpdate();
+
+                WaitlistEntry entry = successor != null ? successor.select(deleted) : null;
+                Reservation promoted = entry != null ? promote(conn, deleted, entry) : null;
+                conn.commit();
+                return new Cancellation(WriteResult.applied(deleted), entry, promoted);
+            }
+        }
+    }
 
-            del.setInt(1, id);
-            del.executeUpdate();
+    /**
+     * Legt für den Warteliste-Eintrag eine Reservierung auf Tisch und Uhrzeit
+     * der stornierten an und entfernt den Eintrag. Scheitert einer der
+     * Schritte, wird auf den Sicherungspunkt zurückgesetzt.
+     * @return die neue Reservierung oder {@code null}
+     */
+    private static Reservation promote(Connection conn, Reservation cancelled, WaitlistEntry entry)
+            throws SQLException {
+        Reservation promoted = new Reservation(entry.getName(), cancelled.getDate(), cancelled.getTime(),
+                entry.getPersons(), cancelled.getTableNumber());
+        Savepoint savepoint = conn.setSavepoint();
+        try (PreparedStatement ps = conn.prepareStatement("DELETE FROM waitlist WHERE id = ?")) {
+            ps.setInt(1, entry.getId());
+            if (ps.executeUpdate() == 1 && insertIfFree(conn, promoted)) {
+                conn.releaseSavepoint(savepoint);
+                return promoted;
+            }
+        } catch (SQLiteException e) {
+            if (e.getResultCode() != SQLiteErrorCode.SQLITE_CONSTRAINT_UNIQUE) {
+                throw e;
+            }
         }
+        conn.rollback(savepoint);
+        return null;
     }
 
     /**
      * Prüft, ob für eine gegebene Kombination aus Datum, Uhrzeit und Tisch-Nr bereits eine Reservierung existiert.
+     * Es zählt nur eine Reservierung, die genau zu dieser Uhrzeit beginnt; Überschneidungen
+     * mit früher beginnenden Reservierungen prüft {@link #addReservation(Reservation)}.
      * @param date Datum der Reservierung (Format YYYY-MM-DD)
      * @param time Uhrzeit der Reservierung (Format HH:MM)
      * @param tableNumber Tisch-Nummer
@@ -199,36 +761,25 @@ public class ReservationDAO {
      * @throws SQLException bei Datenbankfehlern
      */
     public boolean existsReservation(String date, String time, int tableNumber) throws SQLException {
-        String sql = "SELECT id FROM reservations WHERE date = ? AND time = ? AND table_number = ? LIMIT 1";
-        try (Connection conn = Database.getConnection();
+        String sql = "SELECT id FROM reservations WHERE table_number = ? AND start_min = ? LIMIT 1";
+        try (Connection conn = Database.getConnection("existsReservation");
              PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, date);
-            ps.setString(2, time);
-            ps.setInt(3, tableNumber);
+            ps.setInt(1, tableNumber);
+            ps.setLong(2, toEpochMinute(date) + LocalTime.parse(time).toSecondOfDay() / 60);
             try (ResultSet rs = ps.executeQuery()) {
                 return rs.next();
             }
         }
     }
 
-    /** Zählt alle aktuellen Reservierungen. */
+    /** Zählt alle aktuellen Reservierungen (aus den Kennzahlentabellen). */
     public int countReservations() throws SQLException {
-        String sql = "SELECT COUNT(*) FROM reservations";
-        try (Connection conn = Database.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            return rs.next() ? rs.getInt(1) : 0;
-        }
+        return (int) readTotal("countReservations", "reservations");
     }
 
-    /** Zählt alle stornierten Reservierungen. */
+    /** Zählt alle stornierten Reservierungen (aus den Kennzahlentabellen). */
     public int countCancellations() throws SQLException {
-        String sql = "SELECT COUNT(*) FROM cancellations";
-        try (Connection conn = Database.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            return rs.next() ? rs.getInt(1) : 0;
-        }
+        return (int) readTotal("countCancellations", "cancellations");
     }
 
     /**
@@ -236,21 +787,184 @@ public class ReservationDAO {
      * @param limit maximale Anzahl von Ergebnissen
      */
     public List<String> findPopularTimes(int limit) throws SQLException {
+        try (Connection conn = Database.getConnection("findPopularTimes")) {
+            return findPopularTimes(conn, limit);
+        }
+    }
+
+    private static List<String> findPopularTimes(Connection conn, int limit) throws SQLException {
         List<String> result = new ArrayList<>();
-        String sql = "SELECT time, COUNT(*) as cnt FROM reservations GROUP BY time ORDER BY cnt DESC LIMIT ?";
-        try (Connection conn = Database.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
+        String sql = "SELECT minute, cnt FROM stats_times ORDER BY cnt DESC, minute LIMIT ?";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setInt(1, limit);
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
-                    String time = rs.getString("time");
-                    result.add(time);
+                    int minute = rs.getInt("minute");
+                    result.add(String.format("%02d:%02d", minute / 60, minute % 60));
                 }
             }
         }
         return result;
     }
 
+    /**
+     * Liefert alle Reservierungen eines Tages (Bereichssuche über den Index auf start_min).
+     *
+     * @param date Datum (YYYY-MM-DD)
+     * @return Liste der Reservierungen dieses Tages
+     * @throws SQLException falls ein Datenbankfehler auftritt
+     */
+    public List<Reservation> getReservationsForDate(String date) throws SQLException {
+        List<Reservation> list = new ArrayList<>();
+        String sql = "SELECT id, name, date, time, persons, table_number, status, duration_min, version FROM reservations " +
+                     "WHERE start_min >= ? AND start_min < ? ORDER BY start_min, id";
+        long dayStart = toEpochMinute(date);
+        try (Connection conn = Database.getConnection("getReservationsForDate");
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setLong(1, dayStart);
+            ps.setLong(2, dayStart + 24 * 60);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    list.add(mapReservation(rs));
+                }
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Liefert alle Reservierungen in einem Datumsbereich, sortiert nach Datum
+     * und Uhrzeit. Die Abfrage läuft als Bereichssuche über den Index auf
+     * start_min, die Kosten hängen also nur von der Größe des Ergebnisses ab.
+     *
+     * @param from erstes Datum (YYYY-MM-DD, inklusive)
+     * @param to letztes Datum (YYYY-MM-DD, inklusive)
+     * @return Liste der Reservierungen im Bereich
+     * @throws SQLException falls ein Datenbankfehler auftritt
+     */
+    public List<Reservation> getReservationsBetween(String from, String to) throws SQLException {
+        List<Reservation> list = new ArrayList<>();
+        String sql = "SELECT id, name, date, time, persons, table_number, status, duration_min, version FROM reservations " +
+                     "WHERE start_min >= ? AND start_min < ? ORDER BY start_min, id";
+        try (Connection conn = Database.getConnection("getReservationsBetween");
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setLong(1, toEpochMinute(from));
+            ps.setLong(2, toEpochMinute(to) + 24 * 60);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    list.add(mapReservation(rs));
+                }
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Liefert alle offenen Reservierungen (Status PENDING) bis einschließlich
+     * des angegebenen Tages, z.B. vergangene Termine, deren Status noch nicht
+     * erfasst wurde. Die Abfrage liest nur den Teilindex der offenen Zeilen.
+     *
+     * @param until letztes Datum (YYYY-MM-DD, inklusive)
+     * @return offene Reservierungen, sortiert nach Termin
+     * @throws SQLException falls ein Datenbankfehler auftritt
+     */
+    public List<Reservation> getOpenReservations(String until) throws SQLException {
+        List<Reservation> list = new ArrayList<>();
+        String sql = "SELECT id, name, date, time, persons, table_number, status, duration_min, version FROM reservations " +
+                     "WHERE status = " + ReservationStatus.PENDING.getCode() + " AND start_min < ? " +
+                     "ORDER BY start_min, id";
+        try (Connection conn = Database.getConnection("getOpenReservations");
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setLong(1, toEpochMinute(until) + 24 * 60);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    list.add(mapReservation(rs));
+                }
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Liefert eine Seite von Reservierungen in der Reihenfolge (Termin, id),
+     * beginnend direkt nach dem angegebenen Schlüssel (Keyset-Paginierung).
+     * Dank des Index auf start_min – der die ID implizit enthält – sind die
+     * Kosten unabhängig davon, wie weit hinten die Seite liegt.
+     *
+     * @param after letzte Reservierung der vorherigen Seite oder {@code null} für den Anfang
+     * @param limit maximale Anzahl Zeilen
+     * @return Liste der Reservierungen dieser Seite
+     * @throws SQLException falls ein Datenbankfehler auftritt
+     */
+    public List<Reservation> getReservationPage(Reservation after, int limit) throws SQLException {
+        List<Reservation> list = new ArrayList<>();
+        String sql = after == null
+                ? "SELECT id, name, date, time, persons, table_number, status, duration_min, version FROM reservations " +
+                  "ORDER BY start_min, id LIMIT ?"
+                : "SELECT id, name, date, time, persons, table_number, status, duration_min, version FROM reservations " +
+                  "WHERE (start_min, id) > (?, ?) ORDER BY start_min, id LIMIT ?";
+        try (Connection conn = Database.getConnection("getReservationPage");
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            int i = 1;
+            if (after != null) {
+                ps.setLong(i++, toEpochMinute(after.getDate(), after.getTime()));
+                ps.setInt(i++, after.getId());
+            }
+            ps.setInt(i, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    list.add(mapReservation(rs));
+                }
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Ermittelt den Schlüssel (Termin, id) der Reservierung an einer
+     * bestimmten Position der sortierten Liste. Wird nur benötigt, wenn eine
+     * Seite angesprungen wird, deren Vorgänger noch nicht geladen wurden; die
+     * Abfrage liest dabei nur den Index.
+     *
+     * @param position Position (0-basiert)
+     * @return Reservierung, in der nur ID, Datum und Uhrzeit gesetzt sind, oder {@code null}
+     * @throws SQLException falls ein Datenbankfehler auftritt
+     */
+    public Reservation findKeyAt(int position) throws SQLException {
+        String sql = "SELECT id, date, time FROM reservations ORDER BY start_min, id LIMIT 1 OFFSET ?";
+        try (Connection conn = Database.getConnection("findKeyAt");
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, position);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return new Reservation(rs.getInt("id"), null, rs.getString("date"), rs.getString("time"), 0, 0, null);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Liest eine einzelne Reservierung.
+     * @param id die ID der Reservierung
+     * @return die Reservierung oder {@code null}, falls sie nicht existiert
+     * @throws SQLException falls ein Datenbankfehler auftritt
+     */
+    public Reservation getReservationById(int id) throws SQLException {
+        try (Connection conn = Database.getConnection("getReservationById")) {
+            return findById(conn, id);
+        }
+    }
+
+    private static Reservation findById(Connection conn, int id) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT " + COLUMNS + " FROM reservations WHERE id = ?")) {
+            ps.setInt(1, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? mapReservation(rs) : null;
+            }
+        }
+    }
+
     /**
      * Liefert alle Reservierungen für einen bestimmten Tisch.
      *
@@ -260,22 +974,14 @@ public class ReservationDAO {
      */
     public List<Reservation> getReservationsForTable(int tableNumber) throws SQLException {
         List<Reservation> list = new ArrayList<>();
-        String sql = "SELECT id, name, date, time, persons, table_number, status FROM reservations " +
-                     "WHERE table_number = ? ORDER BY date, time";
-        try (Connection conn = Database.getConnection();
+        String sql = "SELECT id, name, date, time, persons, table_number, status, duration_min, version FROM reservations " +
+                     "WHERE table_number = ? ORDER BY start_min, id";
+        try (Connection conn = Database.getConnection("getReservationsForTable");
              PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setInt(1, tableNumber);
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
-                    Reservation res = new Reservation(
-                            rs.getInt("id"),
-                            rs.getString("name"),
-                            rs.getString("date"),
-                            rs.getString("time"),
-                            rs.getInt("persons"),
-                            rs.getInt("table_number"),
-                            rs.getString("status")
-                    );
+                    Reservation res = mapReservation(rs);
                     list.add(res);
                 }
             }
@@ -283,86 +989,358 @@ public class ReservationDAO {
         return list;
     }
 
-    /** Aktualisiert den Status einer Reservierung. */
-    public void updateStatus(int id, String status) throws SQLException {
-        String sql = "UPDATE reservations SET status = ?, " +
-                     "confirmed_at = CASE WHEN confirmed_at IS NULL AND ? <> 'PENDING' THEN datetime('now') ELSE confirmed_at END " +
-                     "WHERE id = ?";
-        try (Connection conn = Database.getConnection();
+    /** Empfängt die Zeilen aus {@link #scanReservations(int, RowHandler)}. */
+    public interface RowHandler {
+        void row(int id, long startMinute, int durationMinutes, int tableNumber, int persons, String name,
+                 int statusCode, int version);
+    }
+
+    /**
+     * Liest alle Reservierungen mit einer ID größer als {@code afterId} in
+     * ID-Reihenfolge über einen vorwärts gerichteten Cursor, ohne für jede
+     * Zeile ein Objekt anzulegen. Zeilen ohne Termin (start_min) werden
+     * übersprungen.
+     * @param afterId größte bereits bekannte ID, 0 für alle Zeilen
+     * @param handler erhält jede Zeile
+     * @return größte gelesene ID oder {@code afterId}, falls keine neue Zeile existiert
+     * @throws SQLException falls ein Datenbankfehler auftritt
+     */
+    public int scanReservations(int afterId, RowHandler handler) throws SQLException {
+        String sql = "SELECT id, start_min, duration_min, table_number, persons, name, status, version " +
+                     "FROM reservations " +
+                     "WHERE id > ? AND start_min IS NOT NULL ORDER BY id";
+        int maxId = afterId;
+        try (Connection conn = Database.getConnection("scanReservations");
              PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, status);
-            ps.setString(2, status);
-            ps.setInt(3, id);
+            ps.setInt(1, afterId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    maxId = rs.getInt(1);
+                    handler.row(maxId, rs.getLong(2), rs.getInt(3), rs.getInt(4), rs.getInt(5), rs.getString(6),
+                            rs.getInt(7), rs.getInt(8));
+                }
+            }
+        }
+        return maxId;
+    }
+
+    /**
+     * Liefert die Reservierungs-IDs aller Stornierungen nach dem angegebenen
+     * Eintrag im Stornoprotokoll.
+     * @param afterCancellationId größte bereits bekannte ID in "cancellations"
+     * @param reservationIds erhält die IDs der stornierten Reservierungen
+     * @return größte gelesene ID in "cancellations" oder {@code afterCancellationId}
+     * @throws SQLException falls ein Datenbankfehler auftritt
+     */
+    public long scanCancellations(long afterCancellationId, java.util.function.IntConsumer reservationIds)
+            throws SQLException {
+        String sql = "SELECT id, reservation_id FROM cancellations WHERE id > ? ORDER BY id";
+        long maxId = afterCancellationId;
+        try (Connection conn = Database.getConnection("scanCancellations");
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setLong(1, afterCancellationId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    maxId = rs.getLong(1);
+                    reservationIds.accept(rs.getInt(2));
+                }
+            }
+        }
+        return maxId;
+    }
+
+    /** Empfängt die Zeilen aus {@link #scanChanges(long, ChangeHandler)}. */
+    public interface ChangeHandler {
+        void change(int id, int tableNumber, int statusCode, int version);
+    }
+
+    /**
+     * Liefert den aktuellen Tisch, Status und die Version aller Reservierungen,
+     * die nach dem angegebenen Eintrag im Änderungsprotokoll geändert wurden,
+     * auch von anderen Prozessen. Stornierte Reservierungen fehlen; sie stehen
+     * im Stornoprotokoll.
+     * @param afterChangeId größte bereits bekannte ID in "reservation_changes"
+     * @param handler erhält jede geänderte Reservierung
+     * @return größte gelesene ID in "reservation_changes" oder {@code afterChangeId}
+     * @throws SQLException falls ein Datenbankfehler auftritt
+     */
+    public long scanChanges(long afterChangeId, ChangeHandler handler) throws SQLException {
+        String sql = "SELECT c.id, r.id, r.table_number, r.status, r.version " +
+                     "FROM reservation_changes c JOIN reservations r ON r.id = c.reservation_id " +
+                     "WHERE c.id > ? ORDER BY c.id";
+        long maxId = afterChangeId;
+        try (Connection conn = Database.getConnection("scanChanges");
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setLong(1, afterChangeId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    maxId = rs.getLong(1);
+                    handler.change(rs.getInt(2), rs.getInt(3), rs.getInt(4), rs.getInt(5));
+                }
+            }
+        }
+        return maxId;
+    }
+
+    /** Liefert die größte ID im Änderungsprotokoll (0, falls leer). */
+    public long findLastChangeId() throws SQLException {
+        try (Connection conn = Database.getConnection("findLastChangeId");
+             PreparedStatement ps = conn.prepareStatement(
+                     "SELECT COALESCE(MAX(id), 0) FROM reservation_changes");
+             ResultSet rs = ps.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    /** Liefert die größte ID im Stornoprotokoll (0, falls leer). */
+    public long findLastCancellationId() throws SQLException {
+        try (Connection conn = Database.getConnection("findLastCancellationId");
+             PreparedStatement ps = conn.prepareStatement("SELECT COALESCE(MAX(id), 0) FROM cancellations");
+             ResultSet rs = ps.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    /**
+     * Aktualisiert den Status einer Reservierung ohne Versionsprüfung, z.B.
+     * für Abläufe ohne Benutzer. Die Zeilenversion wird trotzdem erhöht.
+     */
+    public void updateStatus(int id, ReservationStatus status) throws SQLException {
+        try (Connection conn = Database.getConnection("updateStatus");
+             PreparedStatement ps = conn.prepareStatement(UPDATE_STATUS + "WHERE id = ?")) {
+            ps.setInt(1, status.getCode());
+            ps.setInt(2, status.getCode());
+            ps.setInt(3, status.getCode());
+            ps.setInt(4, id);
             ps.executeUpdate();
         }
     }
 
+    /**
+     * Aktualisiert den Status einer Reservierung, sofern sie seit dem Lesen
+     * nicht geändert wurde (optimistische Sperre). Prüfung und Änderung sind
+     * eine Anweisung; zwischen Lesen und Schreiben wird keine Sperre gehalten.
+     * @param expectedVersion Version, die der Aufrufer zuletzt gelesen hat,
+     *        oder {@link #ANY_VERSION}
+     * @return angewendet mit der geänderten Zeile, Konflikt mit dem aktuellen
+     *         Stand oder nicht gefunden
+     * @throws SQLException bei Datenbankfehlern
+     */
+    public WriteResult updateStatus(int id, ReservationStatus status, int expectedVersion) throws SQLException {
+        String sql = UPDATE_STATUS + "WHERE id = ? AND (? = " + ANY_VERSION + " OR version = ?) " +
+                     "RETURNING " + COLUMNS;
+        try (Connection conn = Database.getConnection("updateStatusVersioned");
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, status.getCode());
+            ps.setInt(2, status.getCode());
+            ps.setInt(3, status.getCode());
+            ps.setInt(4, id);
+            ps.setInt(5, expectedVersion);
+            ps.setInt(6, expectedVersion);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return WriteResult.applied(mapReservation(rs));
+                }
+            }
+            return WriteResult.notApplied(findById(conn, id));
+        }
+    }
+
+    /**
+     * Setzt mehrere offene Reservierungen in einer Transaktion an andere Tische.
+     * Die Umsetzung wird nur übernommen, wenn jede Reservierung noch offen am
+     * erwarteten Tisch sitzt und sich danach keine Sitzzeiten überschneiden;
+     * sonst bleibt alles unverändert.
+     * <p>
+     * Die Reservierungen werden zuerst an einen negativen Platzhalter-Tisch
+     * gesetzt, damit Tauschaktionen zur gleichen Uhrzeit nicht am eindeutigen
+     * Index scheitern.
+     *
+     * @param moves je Umsetzung {ID, bisheriger Tisch, neuer Tisch}
+     * @return true, falls gespeichert wurde; false, wenn sich der Bestand inzwischen geändert hat
+     * @throws SQLException bei Datenbankfehlern
+     */
+    public boolean reassignTables(List<int[]> moves) throws SQLException {
+        String park = "UPDATE reservations SET table_number = ?, version = version + 1 " +
+                      "WHERE id = ? AND table_number = ? AND status = "
+                + ReservationStatus.PENDING.getCode();
+        String place = "UPDATE reservations SET table_number = ? WHERE id = ? RETURNING start_min, duration_min";
+        String overlap = "SELECT EXISTS (SELECT 1 FROM reservations WHERE table_number = ? AND id <> ? " +
+                         "AND start_min > ? AND start_min < ? AND start_min + duration_min > ?)";
+        try (Connection conn = Database.getConnection("reassignTables")) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement parkStmt = conn.prepareStatement(park);
+                 PreparedStatement placeStmt = conn.prepareStatement(place);
+                 PreparedStatement overlapStmt = conn.prepareStatement(overlap)) {
+                for (int[] move : moves) {
+                    parkStmt.setInt(1, -move[2]);
+                    parkStmt.setInt(2, move[0]);
+                    parkStmt.setInt(3, move[1]);
+                    if (parkStmt.executeUpdate() != 1) {
+                        conn.rollback();
+                        return false;
+                    }
+                }
+                for (int[] move : moves) {
+                    placeStmt.setInt(1, move[2]);
+                    placeStmt.setInt(2, move[0]);
+                    long start;
+                    long end;
+                    try (ResultSet rs = placeStmt.executeQuery()) {
+                        rs.next();
+                        start = rs.getLong(1);
+                        end = start + rs.getInt(2);
+                    }
+                    overlapStmt.setInt(1, move[2]);
+                    overlapStmt.setInt(2, move[0]);
+                    overlapStmt.setLong(3, start - Reservation.MAX_DURATION);
+                    overlapStmt.setLong(4, end);
+                    overlapStmt.setLong(5, start);
+                    try (ResultSet rs = overlapStmt.executeQuery()) {
+                        if (rs.next() && rs.getBoolean(1)) {
+                            conn.rollback();
+                            return false;
+                        }
+                    }
+                }
+                conn.commit();
+                return true;
+            } catch (SQLiteException e) {
+                conn.rollback();
+                if (e.getResultCode() == SQLiteErrorCode.SQLITE_CONSTRAINT_UNIQUE) {
+                    return false;
+                }
+                throw e;
+            }
+        }
+    }
+
     /** Zählt Reservierungen mit Status 'NOSHOW'. */
     public int countNoShows() throws SQLException {
-        String sql = "SELECT COUNT(*) FROM reservations WHERE status = 'NOSHOW'";
-        try (Connection conn = Database.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            return rs.next() ? rs.getInt(1) : 0;
+        try (Connection conn = Database.getConnection("countNoShows")) {
+            return countStatus(conn, ReservationStatus.NOSHOW);
         }
     }
 
     /** Zählt Reservierungen mit Status 'ATTENDED'. */
     public int countAttended() throws SQLException {
-        String sql = "SELECT COUNT(*) FROM reservations WHERE status = 'ATTENDED'";
-        try (Connection conn = Database.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            return rs.next() ? rs.getInt(1) : 0;
+        try (Connection conn = Database.getConnection("countAttended")) {
+            return countStatus(conn, ReservationStatus.ATTENDED);
         }
     }
 
     /** Durchschnittliche Reservierungen pro Tag. */
     public double averageReservationsPerDay() throws SQLException {
-        String sql = "SELECT AVG(cnt) FROM (SELECT date, COUNT(*) AS cnt FROM reservations GROUP BY date)";
-        try (Connection conn = Database.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            return rs.next() ? rs.getDouble(1) : 0.0;
-        }
+        String sql = "SELECT CAST(reservations AS REAL) / days FROM stats_totals WHERE id = 1 AND days > 0";
+        return readDouble("averageReservationsPerDay", sql);
     }
 
     /** Durchschnittliche Auslastung aller Zeitslots in Prozent. */
     public double averageOccupancy() throws SQLException {
-        int tables;
-        String tableSql = "SELECT COUNT(*) FROM tables";
-        try (Connection conn = Database.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(tableSql)) {
-            tables = rs.next() ? rs.getInt(1) : 0;
-        }
-        if (tables == 0) return 0.0;
-        String occSql = "SELECT AVG(cnt) FROM (SELECT date, time, COUNT(*) AS cnt FROM reservations GROUP BY date, time)";
-        try (Connection conn = Database.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(occSql)) {
-            double avg = rs.next() ? rs.getDouble(1) : 0.0;
-            return avg / tables * 100.0;
-        }
+        String sql = "SELECT CAST(reservations AS REAL) / slots / (SELECT COUNT(*) FROM tables) * 100.0 " +
+                     "FROM stats_totals WHERE id = 1 AND slots > 0 AND EXISTS (SELECT 1 FROM tables)";
+        return readDouble("averageOccupancy", sql);
     }
 
     /** Durchschnittliche Zeit in Stunden zwischen Buchung und Termin. */
     public double averageLeadTimeHours() throws SQLException {
-        String sql = "SELECT AVG(strftime('%s', date || ' ' || time) - strftime('%s', created_at)) / 3600.0 FROM reservations";
-        try (Connection conn = Database.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            return rs.next() ? rs.getDouble(1) : 0.0;
-        }
+        String sql = "SELECT CAST(lead_seconds AS REAL) / lead_count / 3600.0 FROM stats_totals WHERE id = 1 AND lead_count > 0";
+        return readDouble("averageLeadTimeHours", sql);
     }
 
     /** Durchschnittliche Zeit in Stunden zwischen Buchung und Bestätigung. */
     public double averageProcessingTimeHours() throws SQLException {
-        String sql = "SELECT AVG(strftime('%s', confirmed_at) - strftime('%s', created_at)) / 3600.0 FROM reservations WHERE confirmed_at IS NOT NULL";
-        try (Connection conn = Database.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+        String sql = "SELECT CAST(processing_seconds AS REAL) / processing_count / 3600.0 " +
+                     "FROM stats_totals WHERE id = 1 AND processing_count > 0";
+        return readDouble("averageProcessingTimeHours", sql);
+    }
+
+    private static long readTotal(String operation, String column) throws SQLException {
+        String sql = "SELECT " + column + " FROM stats_totals WHERE id = 1";
+        try (Connection conn = Database.getConnection(operation);
+             PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    private static double readDouble(String operation, String sql) throws SQLException {
+        try (Connection conn = Database.getConnection(operation);
+             PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
             return rs.next() ? rs.getDouble(1) : 0.0;
         }
     }
+
+    private static int countStatus(Connection conn, ReservationStatus status) throws SQLException {
+        String sql = "SELECT cnt FROM stats_status WHERE status = ?";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, status.getCode());
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+
+    /**
+     * Liest alle Kennzahlen des Statistikfensters in einer Lesetransaktion aus
+     * den fortgeschriebenen Kennzahlentabellen.
+     * @param popularLimit maximale Anzahl beliebter Uhrzeiten
+     * @return konsistenter Stand aller Kennzahlen
+     * @throws SQLException falls ein Datenbankfehler auftritt
+     */
+    public StatisticsSnapshot loadStatistics(int popularLimit) throws SQLException {
+        String totalsSql = "SELECT reservations, days, slots, cancellations, lead_seconds, lead_count, " +
+                "processing_seconds, processing_count, (SELECT COUNT(*) FROM tables) " +
+                "FROM stats_totals WHERE id = 1";
+        try (Connection conn = Database.getConnection("loadStatistics")) {
+            conn.setAutoCommit(false);
+            int count = 0;
+            int days = 0;
+            int slots = 0;
+            int cancellations = 0;
+            double leadTime = 0.0;
+            double processing = 0.0;
+            int tables = 0;
+            try (PreparedStatement ps = conn.prepareStatement(totalsSql);
+                 ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    count = rs.getInt(1);
+                    days = rs.getInt(2);
+                    slots = rs.getInt(3);
+                    cancellations = rs.getInt(4);
+                    long leadCount = rs.getLong(6);
+                    long processingCount = rs.getLong(8);
+                    leadTime = leadCount == 0 ? 0.0 : (double) rs.getLong(5) / leadCount / 3600.0;
+                    processing = processingCount == 0 ? 0.0 : (double) rs.getLong(7) / processingCount / 3600.0;
+                    tables = rs.getInt(9);
+                }
+            }
+            int noShows = countStatus(conn, ReservationStatus.NOSHOW);
+            int attended = countStatus(conn, ReservationStatus.ATTENDED);
+            List<String> popular = findPopularTimes(conn, popularLimit);
+            conn.commit();
+
+            double perDay = days == 0 ? 0.0 : (double) count / days;
+            double occupancy = slots == 0 || tables == 0 ? 0.0 : (double) count / slots / tables * 100.0;
+            return new StatisticsSnapshot(count, cancellations, noShows, attended,
+                    perDay, occupancy, leadTime, processing, popular);
+        }
+    }
+
+    /** Erzeugt ein Reservation-Objekt aus der aktuellen Zeile. */
+    private static Reservation mapReservation(ResultSet rs) throws SQLException {
+        Reservation reservation = new Reservation(
+                rs.getInt("id"),
+                rs.getString("name"),
+                rs.getString("date"),
+                rs.getString("time"),
+                rs.getInt("persons"),
+                rs.getInt("table_number"),
+                ReservationStatus.fromCode(rs.getInt("status")),
+                rs.getInt("duration_min")
+        );
+        reservation.setVersion(rs.getInt("version"));
+        return reservation;
+    }
 }
@@ -0,0 +1,230 @@
+package com.restaurant.reservation.dao;
+
+import com.restaurant.reservation.model.ReservationStatus;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exportiert die Tabellen "reservations" und "cancellations" als CSV oder
+ * JSON Lines, optional gzip-komprimiert.
+ * <p>
+ * Die Zeilen werden über einen vorwärts gerichteten Cursor gelesen und sofort
+ * in einen gepufferten Dateikanal geschrieben; der Speicherbedarf hängt daher
+ * nicht von der Tabellengröße ab. Die Datei wird zunächst unter einem
+ * temporären Namen geschrieben und erst nach erfolgreichem Export umbenannt.
+ * Der CSV-Export der Reservierungen kann mit {@link ReservationImporter}
+ * wieder eingelesen werden.
+ */
+public class ReservationExporter {
+    private static final int FETCH_SIZE = 1_000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /** Zu exportierende Tabelle. */
+    public enum Source { RESERVATIONS, CANCELLATIONS }
+
+    /** Ausgabeformat. */
+    public enum Format { CSV, JSONL }
+
+    /**
+     * Exportiert in eine Datei. Format und Komprimierung werden an der Endung
+     * erkannt: ".csv" bzw. ".jsonl", jeweils optional mit ".gz".
+     * @param source Tabelle
+     * @param file Zieldatei
+     * @param from erstes Datum (YYYY-MM-DD, inklusive) oder {@code null}
+     * @param to letztes Datum (YYYY-MM-DD, inklusive) oder {@code null}
+     * @return Anzahl exportierter Zeilen
+     * @throws IOException falls die Datei nicht geschrieben werden kann
+     * @throws SQLException bei Datenbankfehlern
+     */
+    public long exportFile(Source source, Path file, String from, String to) throws IOException, SQLException {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        boolean gzip = name.endsWith(".gz");
+        if (gzip) {
+            name = name.substring(0, name.length() - 3);
+        }
+        Format format = name.endsWith(".jsonl") || name.endsWith(".json") ? Format.JSONL : Format.CSV;
+        return exportFile(source, format, gzip, file, from, to);
+    }
+
+    /**
+     * Exportiert in eine Datei mit explizitem Format.
+     * @return Anzahl exportierter Zeilen
+     * @throws IOException falls die Datei nicht geschrieben werden kann
+     * @throws SQLException bei Datenbankfehlern
+     */
+    public long exportFile(Source source, Format format, boolean gzip, Path file, String from, String to)
+            throws IOException, SQLException {
+        Path target = file.toAbsolutePath();
+        Path temp = target.resolveSibling(target.getFileName() + ".part");
+        long rows;
+        try (FileChannel fc = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            WritableByteChannel channel = gzip
+                    ? Channels.newChannel(new GZIPOutputStream(Channels.newOutputStream(fc), BUFFER_SIZE))
+                    : fc;
+            try (Writer out = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), BUFFER_SIZE)) {
+                rows = export(source, format, out, from, to);
+            }
+        } catch (IOException | SQLException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return rows;
+    }
+
+    /**
+     * Schreibt die Zeilen einer Tabelle in einen Writer. Der Writer wird nicht
+     * geschlossen.
+     * @return Anzahl exportierter Zeilen
+     * @throws IOException falls nicht geschrieben werden kann
+     * @throws SQLException bei Datenbankfehlern
+     */
+    public long export(Source source, Format format, Writer out, String from, String to)
+            throws IOException, SQLException {
+        try (Connection conn = Database.getConnection("export");
+             PreparedStatement ps = conn.prepareStatement(query(source, from, to),
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            ps.setFetchSize(FETCH_SIZE);
+            int index = 1;
+            if (from != null) {
+                bindBound(ps, index++, source, from);
+            }
+            if (to != null) {
+                bindBound(ps, index, source, LocalDate.parse(to).plusDays(1).toString());
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                return write(rs, format, out);
+            }
+        }
+    }
+
+    /**
+     * Reservierungen werden über den Index auf start_min eingegrenzt,
+     * Stornierungen über das Stornodatum.
+     */
+    private static String query(Source source, String from, String to) {
+        StringBuilder sql = new StringBuilder();
+        String column;
+        if (source == Source.RESERVATIONS) {
+            sql.append("SELECT id, name, date, time, persons, table_number, ")
+               .append(ReservationStatus.sqlName("status")).append(" AS status, created_at, confirmed_at, duration_min ")
+               .append("FROM reservations");
+            column = "start_min";
+        } else {
+            sql.append("SELECT id, reservation_id, cancelled_at FROM cancellations");
+            column = "cancelled_at";
+        }
+        if (from != null) {
+            sql.append(" WHERE ").append(column).append(" >= ?");
+        }
+        if (to != null) {
+            sql.append(from != null ? " AND " : " WHERE ").append(column).append(" < ?");
+        }
+        sql.append(source == Source.RESERVATIONS ? " ORDER BY start_min, id" : " ORDER BY id");
+        return sql.toString();
+    }
+
+    private static void bindBound(PreparedStatement ps, int index, Source source, String date) throws SQLException {
+        if (source == Source.RESERVATIONS) {
+            ps.setLong(index, ReservationDAO.toEpochMinute(date));
+        } else {
+            ps.setString(index, LocalDate.parse(date).toString());
+        }
+    }
+
+    private static long write(ResultSet rs, Format format, Writer out) throws SQLException, IOException {
+        ResultSetMetaData meta = rs.getMetaData();
+        int columns = meta.getColumnCount();
+        String[] names = new String[columns];
+        boolean[] numeric = new boolean[columns];
+        for (int i = 0; i < columns; i++) {
+            names[i] = meta.getColumnLabel(i + 1);
+            int type = meta.getColumnType(i + 1);
+            numeric[i] = type == Types.INTEGER || type == Types.BIGINT;
+        }
+        if (format == Format.CSV) {
+            out.write(String.join(",", names));
+            out.write('\n');
+        }
+        long rows = 0;
+        while (rs.next()) {
+            for (int i = 0; i < columns; i++) {
+                String value = rs.getString(i + 1);
+                if (format == Format.CSV) {
+                    if (i > 0) {
+                        out.write(',');
+                    }
+                    writeCsv(out, value);
+                } else {
+                    out.write(i == 0 ? "{\"" : ",\"");
+                    out.write(names[i]);
+                    out.write("\":");
+                    if (value == null) {
+                        out.write("null");
+                    } else if (numeric[i]) {
+                        out.write(value);
+                    } else {
+                        writeJsonString(out, value);
+                    }
+                }
+            }
+            out.write(format == Format.CSV ? "\n" : "}\n");
+            rows++;
+        }
+        return rows;
+    }
+
+    private static void writeCsv(Writer out, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        out.write(value.replace("\"", "\"\""));
+        out.write('"');
+    }
+
+    private static void writeJsonString(Writer out, String value) throws IOException {
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': out.write("\\\""); break;
+                case '\\': out.write("\\\\"); break;
+                case '\n': out.write("\\n"); break;
+                case '\r': out.write("\\r"); break;
+                case '\t': out.write("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        out.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.write(c);
+                    }
+            }
+        }
+        out.write('"');
+    }
+}
@@ -0,0 +1,435 @@
+package com.restaurant.reservation.dao;
+
+import com.restaurant.reservation.model.Reservation;
+import com.restaurant.reservation.model.ReservationStatus;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongConsumer;
+
+/**
+ * Erzeugt synthetische Bestände für Last- und Benchmarktests: einen Saal mit
+ * beliebig vielen Tischen und Reservierungen über einen frei wählbaren
+ * Zeitraum.
+ * <p>
+ * Die Auslastung folgt einem Wochenprofil (Freitag und Samstag am stärksten)
+ * und einem Tagesprofil mit Mittags- und Abendspitze. Ein Tisch wird erst
+ * nach Ablauf der Sitzdauer wieder vergeben. Vergangene Termine
+ * erhalten überwiegend den Status ATTENDED, einige NOSHOW; ein Teil der
+ * Buchungen wird storniert und landet nur in "cancellations". Buchungs- und
+ * Bestätigungszeitpunkte haben realistische Vorläufe.
+ * <p>
+ * Mehrere Threads erzeugen die Zeilen wochenweise parallel; ein einzelner
+ * Schreiber (SQLite erlaubt nur einen) legt sie in Transaktionen pro Woche
+ * ab. Während des Schreibens werden Suchindizes und Kennzahlen-Trigger
+ * entfernt und am Ende in einem Durchgang neu aufgebaut. Der Generator ist
+ * daher nur für eine leere Datenbank gedacht, die sonst niemand benutzt.
+ */
+public class ReservationGenerator {
+    private static final int DAYS_PER_CHUNK = 7;
+
+    /** Auslastung je Wochentag (Montag bis Sonntag). */
+    private static final double[] WEEKDAY_LOAD = {0.35, 0.40, 0.45, 0.55, 0.85, 0.95, 0.60};
+    /** Relative Nachfrage je Zeitslot 10:00–22:00 mit Mittags- und Abendspitze. */
+    private static final double[] SLOT_LOAD = {
+            0.10, 0.20, 0.45, 0.70, 0.75, 0.55, 0.30, 0.15, 0.10, 0.10, 0.10, 0.15, 0.25,
+            0.40, 0.60, 0.85, 1.00, 1.00, 0.90, 0.75, 0.55, 0.35, 0.20, 0.10, 0.05};
+    /** Sitzplatzmix eines größeren Saals: Anteil und Größe. */
+    private static final double[] SEAT_SHARE = {0.35, 0.40, 0.15, 0.07, 0.03};
+    private static final int[] SEAT_SIZES = {2, 4, 6, 8, 12};
+
+    private static final String[] FIRST_NAMES = {"Anna", "Bernd", "Clara", "David", "Emma", "Felix", "Greta",
+            "Hannah", "Jonas", "Julia", "Karl", "Lena", "Lukas", "Marie", "Noah", "Paul", "Sophie", "Tim", "Ute", "Zoe"};
+    private static final String[] LAST_NAMES = {"Müller", "Schmidt", "Schneider", "Fischer", "Weber", "Meyer",
+            "Wagner", "Becker", "Schulz", "Hoffmann", "Koch", "Richter", "Klein", "Wolf", "Neumann", "Schwarz"};
+
+    /** Markiert im Puffer eine Woche, deren Erzeugung fehlgeschlagen ist. */
+    private static final List<Booking> FAILED = new ArrayList<>();
+
+    private final int tables;
+    private final LocalDate firstDay;
+    private final int days;
+    private final long seed;
+    private final LocalDateTime now;
+    private final int threads;
+
+    /** Ergebnis eines Laufs. */
+    public static class Result {
+        private final int tables;
+        private final long reservations;
+        private final long cancellations;
+
+        Result(int tables, long reservations, long cancellations) {
+            this.tables = tables;
+            this.reservations = reservations;
+            this.cancellations = cancellations;
+        }
+
+        public int getTables() {
+            return tables;
+        }
+
+        public long getReservations() {
+            return reservations;
+        }
+
+        public long getCancellations() {
+            return cancellations;
+        }
+
+        @Override
+        public String toString() {
+            return tables + " Tische, " + reservations + " Reservierungen, " + cancellations + " Stornierungen";
+        }
+    }
+
+    /**
+     * @param tables Anzahl Tische des Saals
+     * @param firstDay erster Tag mit Reservierungen
+     * @param days Anzahl Tage
+     * @param seed Startwert des Zufallsgenerators
+     * @param now Bezugszeitpunkt (UTC): Termine davor gelten als vergangen, Buchungs- und
+     *            Stornozeitpunkte liegen nicht danach. Gleiche Werte ergeben gleiche Daten.
+     */
+    public ReservationGenerator(int tables, LocalDate firstDay, int days, long seed, LocalDateTime now) {
+        if (tables <= 0 || days <= 0) {
+            throw new IllegalArgumentException("Anzahl Tische und Tage müssen positiv sein");
+        }
+        this.tables = tables;
+        this.firstDay = firstDay;
+        this.days = days;
+        this.seed = seed;
+        this.now = now;
+        this.threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    }
+
+    /**
+     * Legt den Saal an und schreibt alle Reservierungen.
+     * @param progress erhält nach jeder Transaktion die Anzahl geschriebener Zeilen, darf null sein
+     * @return Anzahl erzeugter Tische, Reservierungen und Stornierungen
+     * @throws SQLException bei Datenbankfehlern oder wenn bereits Reservierungen existieren
+     */
+    public Result generate(LongConsumer progress) throws SQLException {
+        ReservationDAO.createTable();
+        TableDAO.createTable();
+        int[] seats;
+        try (Connection conn = Database.getConnection()) {
+            ensureEmpty(conn);
+            seats = createVenue(conn);
+            dropBulkStructures(conn);
+        }
+        try {
+            return writeReservations(seats, progress);
+        } finally {
+            // Indizes, Trigger und Kennzahlen auch nach einem Fehler wiederherstellen
+            ReservationDAO.createTable();
+            ReservationDAO.rebuildStatistics();
+        }
+    }
+
+    private static void ensureEmpty(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT EXISTS (SELECT 1 FROM reservations)")) {
+            if (rs.next() && rs.getBoolean(1)) {
+                throw new SQLException("Der Generator benötigt eine Datenbank ohne Reservierungen");
+            }
+        }
+    }
+
+    /** Ersetzt die Tische durch den generierten Saal und liefert die Sitzplätze je Tischnummer. */
+    private int[] createVenue(Connection conn) throws SQLException {
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] seats = new int[tables + 1];
+        conn.setAutoCommit(false);
+        try (Statement stmt = conn.createStatement();
+             PreparedStatement ps = conn.prepareStatement(
+                     "INSERT INTO tables (id, name, seats, hasProjector) VALUES (?, ?, ?, ?)")) {
+            stmt.executeUpdate("DELETE FROM tables");
+            for (int id = 1; id <= tables; id++) {
+                double r = random.nextDouble();
+                int size = 0;
+                while (size < SEAT_SIZES.length - 1 && r >= SEAT_SHARE[size]) {
+                    r -= SEAT_SHARE[size];
+                    size++;
+                }
+                seats[id] = SEAT_SIZES[size];
+                ps.setInt(1, id);
+                ps.setString(2, "Tisch " + id);
+                ps.setInt(3, seats[id]);
+                ps.setInt(4, seats[id] >= 8 && random.nextInt(4) == 0 ? 1 : 0);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+            TableDAO.tablesChanged();
+        }
+        return seats;
+    }
+
+    /**
+     * Entfernt Suchindizes und Kennzahlen-Trigger; {@link ReservationDAO#createTable()}
+     * legt sie anschließend wieder an.
+     */
+    private static void dropBulkStructures(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DROP INDEX IF EXISTS idx_reservations_slot");
+            stmt.executeUpdate("DROP INDEX IF EXISTS idx_reservations_start");
+            stmt.executeUpdate("DROP INDEX IF EXISTS idx_reservations_table_start");
+            stmt.executeUpdate("DROP TRIGGER IF EXISTS stats_reservation_insert");
+            stmt.executeUpdate("DROP TRIGGER IF EXISTS stats_cancellation_insert");
+        }
+    }
+
+    private Result writeReservations(int[] seats, LongConsumer progress) throws SQLException {
+        int chunks = (days + DAYS_PER_CHUNK - 1) / DAYS_PER_CHUNK;
+        BlockingQueue<List<Booking>> queue = new ArrayBlockingQueue<>(threads * 2);
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        AtomicInteger threadCounter = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "generator-" + threadCounter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        long reservations = 0;
+        long cancellations = 0;
+        try (Connection conn = Database.getConnection()) {
+            for (int i = 0; i < chunks; i++) {
+                int chunk = i;
+                pool.submit(() -> {
+                    List<Booking> bookings;
+                    try {
+                        bookings = generateChunk(chunk, seats);
+                    } catch (RuntimeException e) {
+                        failure.compareAndSet(null, e);
+                        bookings = FAILED;
+                    }
+                    try {
+                        queue.put(bookings);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+            long nextId = lastReservationId(conn);
+            conn.setAutoCommit(false);
+            try (PreparedStatement insert = conn.prepareStatement(
+                         "INSERT INTO reservations (id, name, date, time, persons, table_number, status, created_at, " +
+                         "confirmed_at, start_min, created_ts, confirmed_ts, duration_min) " +
+                         "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+                 PreparedStatement cancel = conn.prepareStatement(
+                         "INSERT INTO cancellations (reservation_id, cancelled_at) VALUES (?, ?)")) {
+                for (int i = 0; i < chunks; i++) {
+                    List<Booking> bookings = queue.take();
+                    if (bookings == FAILED) {
+                        throw new SQLException("Fehler beim Erzeugen der Reservierungen", failure.get());
+                    }
+                    for (Booking b : bookings) {
+                        long id = ++nextId;
+                        if (b.cancelledAt != null) {
+                            cancel.setLong(1, id);
+                            cancel.setString(2, b.cancelledAt);
+                            cancel.addBatch();
+                            cancellations++;
+                            continue;
+                        }
+                        insert.setLong(1, id);
+                        insert.setString(2, b.name);
+                        insert.setString(3, b.date);
+                        insert.setString(4, b.time);
+                        insert.setInt(5, b.persons);
+                        insert.setInt(6, b.table);
+                        insert.setInt(7, b.status.getCode());
+                        insert.setString(8, b.createdAt);
+                        if (b.confirmedAt == null) {
+                            insert.setNull(9, Types.VARCHAR);
+                            insert.setNull(12, Types.INTEGER);
+                        } else {
+                            insert.setString(9, b.confirmedAt);
+                            insert.setLong(12, b.confirmedTs);
+                        }
+                        insert.setLong(10, b.startMin);
+                        insert.setLong(11, b.createdTs);
+                        insert.setInt(13, Reservation.defaultDuration(b.persons));
+                        insert.addBatch();
+                        reservations++;
+                    }
+                    insert.executeBatch();
+                    cancel.executeBatch();
+                    conn.commit();
+                    if (progress != null) {
+                        progress.accept(reservations + cancellations);
+                    }
+                }
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } catch (InterruptedException e) {
+                conn.rollback();
+                Thread.currentThread().interrupt();
+                throw new SQLException("Generator wurde unterbrochen", e);
+            }
+        } finally {
+            pool.shutdownNow();
+            try {
+                pool.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return new Result(tables, reservations, cancellations);
+    }
+
+    /** Höchste bisher vergebene Reservierungs-ID, damit stornierte IDs nicht erneut vergeben werden. */
+    private static long lastReservationId(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(
+                     "SELECT MAX(COALESCE((SELECT seq FROM sqlite_sequence WHERE name = 'reservations'), 0), " +
+                     "COALESCE((SELECT MAX(reservation_id) FROM cancellations), 0))")) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    /** Erzeugt die Buchungen einer Woche; jede Woche hat einen eigenen, reproduzierbaren Zufallsstrom. */
+    private List<Booking> generateChunk(int chunk, int[] seats) {
+        SplittableRandom random = new SplittableRandom(seed * 31 + chunk);
+        long nowSeconds = now.toEpochSecond(ZoneOffset.UTC);
+        LocalDate today = now.toLocalDate();
+        int firstIndex = chunk * DAYS_PER_CHUNK;
+        int lastIndex = Math.min(days, firstIndex + DAYS_PER_CHUNK);
+        List<Booking> bookings = new ArrayList<>((lastIndex - firstIndex) * tables * Reservation.SLOTS_PER_DAY / 2);
+        for (int d = firstIndex; d < lastIndex; d++) {
+            LocalDate day = firstDay.plusDays(d);
+            String date = day.toString();
+            boolean past = day.isBefore(today);
+            double dayLoad = WEEKDAY_LOAD[day.getDayOfWeek().getValue() - DayOfWeek.MONDAY.getValue()];
+            long dayMinute = day.toEpochDay() * 24 * 60;
+            // Minute des Tages, ab der ein Tisch wieder frei ist
+            int[] busyUntil = new int[tables + 1];
+            for (int slot = 0; slot < Reservation.SLOTS_PER_DAY; slot++) {
+                double probability = dayLoad * SLOT_LOAD[slot];
+                int minute = Reservation.FIRST_SLOT_MINUTE + slot * Reservation.SLOT_MINUTES;
+                String time = String.format("%02d:%02d", minute / 60, minute % 60);
+                for (int table = 1; table <= tables; table++) {
+                    if (random.nextDouble() >= probability || minute < busyUntil[table]) {
+                        continue;
+                    }
+                    Booking b = booking(random, date, time, table, seats[table], dayMinute + minute, past, nowSeconds);
+                    if (b.cancelledAt == null) {
+                        busyUntil[table] = minute + Reservation.defaultDuration(b.persons);
+                    }
+                    bookings.add(b);
+                }
+            }
+        }
+        return bookings;
+    }
+
+    private static Booking booking(SplittableRandom random, String date, String time, int table, int seats,
+                                   long startMin, boolean past, long nowSeconds) {
+        Booking b = new Booking();
+        b.name = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+        b.date = date;
+        b.time = time;
+        b.table = table;
+        b.persons = Math.max(1, seats - random.nextInt(seats / 2 + 1));
+        b.startMin = startMin;
+        long start = startMin * 60;
+        // Vorlauf exponentialverteilt: im Mittel fünf Tage, mindestens eine Stunde, höchstens 60 Tage
+        long lead = Math.min(60L * 86400, 3600 + (long) (-Math.log(1 - random.nextDouble()) * 5 * 86400));
+        b.createdTs = Math.min(nowSeconds, start - lead);
+        b.createdAt = format(b.createdTs);
+        if (random.nextInt(100) < 6) {
+            long cancelled = b.createdTs + (long) (random.nextDouble() * (start - b.createdTs));
+            b.cancelledAt = format(Math.min(cancelled, nowSeconds));
+            return b;
+        }
+        if (past) {
+            int roll = random.nextInt(100);
+            if (roll < 85) {
+                b.status = ReservationStatus.ATTENDED;
+            } else if (roll < 93) {
+                b.status = ReservationStatus.NOSHOW;
+            } else {
+                b.status = ReservationStatus.PENDING;
+            }
+        } else {
+            b.status = ReservationStatus.PENDING;
+        }
+        if (b.status != ReservationStatus.PENDING) {
+            // Status wird 15 Minuten bis drei Stunden nach Terminbeginn erfasst
+            b.confirmedTs = start + 900 + random.nextInt(3 * 3600 - 900);
+            b.confirmedAt = format(b.confirmedTs);
+        }
+        return b;
+    }
+
+    /**
+     * Formatiert wie {@code datetime(x, 'unixepoch')}. Von Hand statt über
+     * DateTimeFormatter, weil dieser bei Millionen Zeilen spürbar bremst.
+     */
+    private static String format(long epochSeconds) {
+        LocalDate day = LocalDate.ofEpochDay(Math.floorDiv(epochSeconds, 86400));
+        int second = Math.floorMod(epochSeconds, 86400);
+        char[] c = new char[19];
+        int year = day.getYear();
+        c[0] = (char) ('0' + year / 1000 % 10);
+        c[1] = (char) ('0' + year / 100 % 10);
+        c[2] = (char) ('0' + year / 10 % 10);
+        c[3] = (char) ('0' + year % 10);
+        c[4] = '-';
+        twoDigits(c, 5, day.getMonthValue());
+        c[7] = '-';
+        twoDigits(c, 8, day.getDayOfMonth());
+        c[10] = ' ';
+        twoDigits(c, 11, second / 3600);
+        c[13] = ':';
+        twoDigits(c, 14, second / 60 % 60);
+        c[16] = ':';
+        twoDigits(c, 17, second % 60);
+        return new String(c);
+    }
+
+    private static void twoDigits(char[] c, int offset, int value) {
+        c[offset] = (char) ('0' + value / 10);
+        c[offset + 1] = (char) ('0' + value % 10);
+    }
+
+    /** Eine erzeugte Buchung; bei {@code cancelledAt != null} eine Stornierung. */
+    private static final class Booking {
+        String name;
+        String date;
+        String time;
+        int table;
+        int persons;
+        ReservationStatus status;
+        long startMin;
+        long createdTs;
+        String createdAt;
+        long confirmedTs;
+        String confirmedAt;
+        String cancelledAt;
+    }
+}
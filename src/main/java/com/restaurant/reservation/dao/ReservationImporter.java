@@ -0,0 +1,594 @@
+package com.restaurant.reservation.dao;
+
+import com.restaurant.reservation.model.Reservation;
+import com.restaurant.reservation.model.ReservationStatus;
+import com.restaurant.reservation.model.Table;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Importiert Reservierungen zeilenweise aus SQL-Dateien (INSERT-Anweisungen
+ * für "reservations") oder CSV-Dateien mit Kopfzeile.
+ * <p>
+ * Die Datei wird gestreamt, der Speicherbedarf ist also unabhängig von ihrer
+ * Größe. Zeilen werden über ein wiederverwendetes PreparedStatement gebündelt
+ * und in Transaktionen zu je {@value #CHUNK_SIZE} Zeilen geschrieben. Zeilen,
+ * deren Sitzzeit sich mit einer anderen Reservierung des Tisches überschneidet,
+ * werden übersprungen und protokolliert; ungültige Zeilen ebenso, dazu zählen
+ * wie bei der Eingabe im Formular auch unbekannte Tische und Gruppen, die nicht
+ * an den Tisch passen. Fehlt die Spalte "duration_min", gilt die übliche
+ * Sitzdauer für die Personenzahl.
+ */
+public class ReservationImporter {
+    /** Anzahl Zeilen pro Transaktion. */
+    public static final int CHUNK_SIZE = 5_000;
+    /** Maximale Anzahl gespeicherter Meldungen. */
+    private static final int MAX_MESSAGES = 100;
+
+    private static final String INSERT_SQL =
+            "INSERT INTO reservations(name, date, time, persons, table_number, status, created_at, confirmed_at, " +
+            "start_min, created_ts, confirmed_ts, duration_min) SELECT ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ? " +
+            "WHERE NOT EXISTS (SELECT 1 FROM reservations WHERE table_number = ? " +
+            "AND start_min > ? AND start_min < ? AND start_min + duration_min > ?) " +
+            "ON CONFLICT DO NOTHING";
+    private static final DateTimeFormatter HH_MM = DateTimeFormatter.ofPattern("HH:mm");
+    private static final DateTimeFormatter SQL_DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm[:ss]");
+
+    /** Dateiformat einer Importdatei. */
+    public enum Format { SQL, CSV }
+
+    /** Wird nach jeder geschriebenen Transaktion aufgerufen. */
+    @FunctionalInterface
+    public interface ProgressListener {
+        void progress(ImportResult current);
+    }
+
+    /** Zwischen- bzw. Endstand eines Imports. */
+    public static class ImportResult {
+        private long read;
+        private long imported;
+        private long conflicts;
+        private long invalid;
+        private final List<String> messages = new ArrayList<>();
+
+        /** Anzahl gelesener Datenzeilen. */
+        public long getRead() {
+            return read;
+        }
+
+        /** Anzahl gespeicherter Reservierungen. */
+        public long getImported() {
+            return imported;
+        }
+
+        /** Anzahl übersprungener Zeilen wegen Doppelbuchung. */
+        public long getConflicts() {
+            return conflicts;
+        }
+
+        /** Anzahl übersprungener ungültiger Zeilen. */
+        public long getInvalid() {
+            return invalid;
+        }
+
+        /** Die ersten Meldungen zu übersprungenen Zeilen. */
+        public List<String> getMessages() {
+            return Collections.unmodifiableList(messages);
+        }
+
+        private void log(String message) {
+            if (messages.size() < MAX_MESSAGES) {
+                messages.add(message);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return read + " gelesen, " + imported + " importiert, " + conflicts + " Doppelbuchungen, "
+                    + invalid + " ungültig";
+        }
+    }
+
+    private final ProgressListener listener;
+
+    public ReservationImporter() {
+        this(null);
+    }
+
+    public ReservationImporter(ProgressListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Importiert eine Datei; das Format wird an der Endung erkannt (".csv" oder SQL).
+     * @param file Pfad zur Importdatei
+     * @return Stand nach dem Import
+     * @throws IOException falls die Datei nicht gelesen werden kann
+     * @throws SQLException bei Datenbankfehlern
+     */
+    public ImportResult importFile(Path file) throws IOException, SQLException {
+        Format format = file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv")
+                ? Format.CSV : Format.SQL;
+        try (InputStream in = Files.newInputStream(file)) {
+            return importStream(in, format);
+        }
+    }
+
+    /**
+     * Importiert Reservierungen aus einem Datenstrom (UTF-8).
+     * @param in Datenstrom, wird nicht geschlossen
+     * @param format Format der Daten
+     * @return Stand nach dem Import
+     * @throws IOException falls der Strom nicht gelesen werden kann
+     * @throws SQLException bei Datenbankfehlern
+     */
+    public ImportResult importStream(InputStream in, Format format) throws IOException, SQLException {
+        Reader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+        RowSource source = format == Format.CSV ? new CsvRowSource(reader) : new SqlRowSource(reader);
+        ImportResult result = new ImportResult();
+        Map<Integer, Integer> seats = new HashMap<>();
+        for (Table table : new TableDAO().findAllTables()) {
+            seats.put(table.getId(), table.getSeats());
+        }
+        try (Connection conn = Database.getConnection("importStream")) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement(INSERT_SQL)) {
+                List<Map<String, String>> chunk = new ArrayList<>(CHUNK_SIZE);
+                Map<String, String> row;
+                while ((row = source.next()) != null) {
+                    result.read++;
+                    chunk.add(row);
+                    if (chunk.size() == CHUNK_SIZE) {
+                        writeChunk(conn, ps, chunk, seats, result);
+                        chunk.clear();
+                    }
+                }
+                if (!chunk.isEmpty()) {
+                    writeChunk(conn, ps, chunk, seats, result);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Schreibt einen Block in einer Transaktion. Schlägt der Block wegen einer
+     * fehlerhaften Zeile fehl, wird er zurückgerollt und zeilenweise wiederholt,
+     * damit nur die betroffenen Zeilen verloren gehen.
+     */
+    private void writeChunk(Connection conn, PreparedStatement ps, List<Map<String, String>> chunk,
+                            Map<Integer, Integer> seats, ImportResult result)
+            throws SQLException {
+        long firstRow = result.read - chunk.size() + 1;
+        List<Long> rowNumbers = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            long rowNumber = firstRow + i;
+            String error = bind(ps, chunk.get(i), seats);
+            if (error != null) {
+                result.invalid++;
+                result.log("Zeile " + rowNumber + ": " + error);
+                continue;
+            }
+            ps.addBatch();
+            rowNumbers.add(rowNumber);
+        }
+        try {
+            int[] counts = ps.executeBatch();
+            conn.commit();
+            for (int i = 0; i < counts.length; i++) {
+                countRow(result, counts[i], rowNumbers.get(i));
+            }
+        } catch (BatchUpdateException e) {
+            conn.rollback();
+            ps.clearBatch();
+            retryRowByRow(conn, ps, chunk, seats, firstRow, result);
+        }
+        if (listener != null) {
+            listener.progress(result);
+        }
+    }
+
+    private void retryRowByRow(Connection conn, PreparedStatement ps, List<Map<String, String>> chunk,
+                               Map<Integer, Integer> seats, long firstRow, ImportResult result)
+            throws SQLException {
+        for (int i = 0; i < chunk.size(); i++) {
+            if (bind(ps, chunk.get(i), seats) != null) {
+                continue; // bereits als ungültig gezählt
+            }
+            try {
+                countRow(result, ps.executeUpdate(), firstRow + i);
+            } catch (SQLException e) {
+                result.invalid++;
+                result.log("Zeile " + (firstRow + i) + ": " + e.getMessage());
+            }
+        }
+        conn.commit();
+    }
+
+    private static void countRow(ImportResult result, int count, long rowNumber) {
+        if (count > 0) {
+            result.imported++;
+        } else {
+            result.conflicts++;
+            result.log("Zeile " + rowNumber + ": Tisch bereits belegt");
+        }
+    }
+
+    /**
+     * Überträgt eine Zeile in die Parameter des Statements.
+     * @param seats Sitzplätze je Tisch-Nummer
+     * @return Fehlermeldung oder {@code null}, wenn die Zeile gültig ist
+     */
+    private static String bind(PreparedStatement ps, Map<String, String> row, Map<Integer, Integer> seats)
+            throws SQLException {
+        String name = row.get("name");
+        String date = row.get("date");
+        String time = row.get("time");
+        if (name == null || name.trim().isEmpty()) {
+            return "Name fehlt";
+        }
+        String createdAt = row.get("created_at");
+        String confirmedAt = row.get("confirmed_at");
+        LocalDateTime start;
+        LocalDateTime created;
+        LocalDateTime confirmed;
+        int persons;
+        int table;
+        int duration;
+        try {
+            start = LocalDateTime.of(LocalDate.parse(date), LocalTime.parse(time));
+            persons = Integer.parseInt(row.get("persons").trim());
+            table = Integer.parseInt(row.get("table_number").trim());
+            String durationText = row.get("duration_min");
+            duration = durationText == null || durationText.trim().isEmpty()
+                    ? Reservation.defaultDuration(persons) : Integer.parseInt(durationText.trim());
+            if (createdAt == null || createdAt.isEmpty()) {
+                created = LocalDateTime.now(ZoneOffset.UTC).withNano(0);
+                createdAt = created.format(SQL_DATE_TIME);
+            } else {
+                created = LocalDateTime.parse(createdAt, SQL_DATE_TIME);
+            }
+            confirmed = confirmedAt == null || confirmedAt.isEmpty()
+                    ? null : LocalDateTime.parse(confirmedAt, SQL_DATE_TIME);
+        } catch (DateTimeParseException | NumberFormatException | NullPointerException e) {
+            return "ungültige Werte (" + e.getMessage() + ")";
+        }
+        if (persons <= 0) {
+            return "ungültige Personenzahl (" + persons + ")";
+        }
+        Integer tableSeats = seats.get(table);
+        if (tableSeats == null) {
+            return "unbekannter Tisch (" + table + ")";
+        }
+        if (persons > tableSeats) {
+            return "Tisch " + table + " hat nur " + tableSeats + " Plätze";
+        }
+        if (duration < Reservation.MIN_DURATION || duration > Reservation.MAX_DURATION) {
+            return "ungültige Sitzdauer (" + duration + ")";
+        }
+        String statusText = row.get("status");
+        ReservationStatus status;
+        try {
+            status = statusText == null || statusText.trim().isEmpty()
+                    ? ReservationStatus.PENDING : ReservationStatus.parse(statusText);
+        } catch (IllegalArgumentException e) {
+            return "ungültiger Status (" + statusText + ")";
+        }
+        ps.setString(1, name.trim());
+        // Textspalten einheitlich schreiben, z.B. "19:00" statt "19:00:00"
+        ps.setString(2, start.toLocalDate().toString());
+        ps.setString(3, start.toLocalTime().format(HH_MM));
+        ps.setInt(4, persons);
+        ps.setInt(5, table);
+        ps.setInt(6, status.getCode());
+        ps.setString(7, createdAt);
+        if (confirmed == null) {
+            ps.setNull(8, Types.VARCHAR);
+        } else {
+            ps.setString(8, confirmedAt);
+        }
+        long startMinute = start.toEpochSecond(ZoneOffset.UTC) / 60;
+        ps.setLong(9, startMinute);
+        ps.setLong(10, created.toEpochSecond(ZoneOffset.UTC));
+        if (confirmed == null) {
+            ps.setNull(11, Types.INTEGER);
+        } else {
+            ps.setLong(11, confirmed.toEpochSecond(ZoneOffset.UTC));
+        }
+        ps.setInt(12, duration);
+        ps.setInt(13, table);
+        ps.setLong(14, startMinute - Reservation.MAX_DURATION);
+        ps.setLong(15, startMinute + duration);
+        ps.setLong(16, startMinute);
+        return null;
+    }
+
+    /** Liefert Datenzeilen als Zuordnung Spaltenname → Wert. */
+    private interface RowSource {
+        Map<String, String> next() throws IOException;
+    }
+
+    /** Liest CSV-Dateien mit Kopfzeile; Felder dürfen in Anführungszeichen stehen. */
+    private static final class CsvRowSource implements RowSource {
+        private final BufferedReader reader;
+        private List<String> header;
+
+        CsvRowSource(Reader reader) {
+            this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        }
+
+        @Override
+        public Map<String, String> next() throws IOException {
+            if (header == null) {
+                String first = reader.readLine();
+                if (first == null) {
+                    return null;
+                }
+                if (first.startsWith("﻿")) {
+                    first = first.substring(1);
+                }
+                header = new ArrayList<>();
+                for (String h : split(first)) {
+                    header.add(h.trim().toLowerCase(Locale.ROOT));
+                }
+            }
+            String text;
+            do {
+                text = reader.readLine();
+                if (text == null) {
+                    return null;
+                }
+            } while (text.isBlank());
+            List<String> values = split(text);
+            Map<String, String> row = new HashMap<>();
+            for (int i = 0; i < header.size() && i < values.size(); i++) {
+                row.put(header.get(i), values.get(i));
+            }
+            return row;
+        }
+
+        private static List<String> split(String text) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder sb = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                        sb.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        sb.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(sb.toString());
+                    sb.setLength(0);
+                } else {
+                    sb.append(c);
+                }
+            }
+            fields.add(sb.toString());
+            return fields;
+        }
+    }
+
+    /**
+     * Liest die Wertetupel von {@code INSERT INTO reservations (...) VALUES (...), (...);}
+     * zeichenweise. Andere Anweisungen und Kommentare werden übersprungen.
+     */
+    private static final class SqlRowSource implements RowSource {
+        private final Reader reader;
+        private int peeked = -2;
+        private int peekedSecond = -2;
+        private List<String> columns;
+        private boolean inValues;
+
+        SqlRowSource(Reader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public Map<String, String> next() throws IOException {
+            while (true) {
+                if (inValues) {
+                    skipWhitespace();
+                    int c = peek();
+                    if (c == ',') {
+                        read();
+                        skipWhitespace();
+                        c = peek();
+                    }
+                    if (c == '(') {
+                        read();
+                        return readTuple();
+                    }
+                    // Ende der Anweisung
+                    inValues = false;
+                    skipStatement();
+                    continue;
+                }
+                skipWhitespace();
+                if (peek() < 0) {
+                    return null;
+                }
+                String keyword = readWord();
+                if (!"INSERT".equalsIgnoreCase(keyword) || !startInsert()) {
+                    skipStatement();
+                }
+            }
+        }
+
+        /** Liest "INTO reservations (spalten) VALUES" nach einem INSERT. */
+        private boolean startInsert() throws IOException {
+            skipWhitespace();
+            if (!"INTO".equalsIgnoreCase(readWord())) {
+                return false;
+            }
+            skipWhitespace();
+            String table = readWord().replace("\"", "").replace("`", "");
+            if (!"reservations".equalsIgnoreCase(table)) {
+                return false;
+            }
+            skipWhitespace();
+            if (peek() != '(') {
+                return false;
+            }
+            read();
+            columns = new ArrayList<>();
+            StringBuilder sb = new StringBuilder();
+            int c;
+            while ((c = read()) >= 0 && c != ')') {
+                if (c == ',') {
+                    columns.add(sb.toString().trim().replace("\"", "").toLowerCase(Locale.ROOT));
+                    sb.setLength(0);
+                } else {
+                    sb.append((char) c);
+                }
+            }
+            columns.add(sb.toString().trim().replace("\"", "").toLowerCase(Locale.ROOT));
+            skipWhitespace();
+            if (!"VALUES".equalsIgnoreCase(readWord())) {
+                return false;
+            }
+            inValues = true;
+            return true;
+        }
+
+        private Map<String, String> readTuple() throws IOException {
+            Map<String, String> row = new HashMap<>();
+            int index = 0;
+            while (true) {
+                skipWhitespace();
+                String value;
+                int c = peek();
+                if (c == '\'') {
+                    read();
+                    value = readQuoted();
+                } else {
+                    StringBuilder sb = new StringBuilder();
+                    while ((c = peek()) >= 0 && c != ',' && c != ')') {
+                        sb.append((char) read());
+                    }
+                    value = sb.toString().trim();
+                    if ("NULL".equalsIgnoreCase(value)) {
+                        value = null;
+                    }
+                }
+                if (index < columns.size()) {
+                    row.put(columns.get(index), value);
+                }
+                index++;
+                skipWhitespace();
+                c = read();
+                if (c == ')' || c < 0) {
+                    return row;
+                }
+            }
+        }
+
+        private String readQuoted() throws IOException {
+            StringBuilder sb = new StringBuilder();
+            int c;
+            while ((c = read()) >= 0) {
+                if (c == '\'') {
+                    if (peek() == '\'') {
+                        read();
+                        sb.append('\'');
+                    } else {
+                        break;
+                    }
+                } else {
+                    sb.append((char) c);
+                }
+            }
+            return sb.toString();
+        }
+
+        private String readWord() throws IOException {
+            StringBuilder sb = new StringBuilder();
+            int c;
+            while ((c = peek()) >= 0 && (Character.isLetterOrDigit(c) || c == '_' || c == '"' || c == '`')) {
+                sb.append((char) read());
+            }
+            return sb.toString();
+        }
+
+        /** Überspringt bis einschließlich zum nächsten Semikolon außerhalb von Strings. */
+        private void skipStatement() throws IOException {
+            int c;
+            while ((c = read()) >= 0 && c != ';') {
+                if (c == '\'') {
+                    readQuoted();
+                }
+            }
+        }
+
+        /** Überspringt Leerraum sowie Kommentare ("--" bis Zeilenende). */
+        private void skipWhitespace() throws IOException {
+            while (true) {
+                int c = peek();
+                if (c >= 0 && Character.isWhitespace(c)) {
+                    read();
+                } else if (c == '-' && peekSecond() == '-') {
+                    // ein einzelnes '-' gehört zum Wert, z.B. -2
+                    while ((c = read()) >= 0 && c != '\n') {
+                        // Kommentar überspringen
+                    }
+                } else {
+                    return;
+                }
+            }
+        }
+
+        private int peek() throws IOException {
+            if (peeked == -2) {
+                peeked = reader.read();
+            }
+            return peeked;
+        }
+
+        /** Zeichen nach {@link #peek()}, ohne eines der beiden zu verbrauchen. */
+        private int peekSecond() throws IOException {
+            peek();
+            if (peekedSecond == -2) {
+                peekedSecond = reader.read();
+            }
+            return peekedSecond;
+        }
+
+        private int read() throws IOException {
+            int c = peek();
+            peeked = peekedSecond;
+            peekedSecond = -2;
+            return c;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.restaurant.reservation.dao;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * Protokolliert langsame SQL-Anweisungen samt Abfrageplan.
+ * <p>
+ * {@link Database} misst für jedes vorbereitete Statement die Zeit, die
+ * SQLite mit Ausführen und Weiterschalten des Cursors verbringt. Überschreitet
+ * sie die Schwelle, werden SQL, Parameter, Dauer und die Ausgabe von
+ * {@code EXPLAIN QUERY PLAN} in eine Logdatei neben der Datenbank geschrieben
+ * ("slow-queries.log"). Die Datei wird ab {@value #MAX_FILE_SIZE} Bytes
+ * rotiert, ältere Stände bleiben als ".1" bis ".{@value #KEEP_FILES}" erhalten.
+ * <p>
+ * Da die Parameter Gästenamen enthalten, ist das Protokoll standardmäßig
+ * abgeschaltet und wird erst mit {@link #setThreshold(Duration)} eingeschaltet.
+ */
+public class SlowQueryLog {
+    /** Standardschwelle in Millisekunden; 0 bedeutet abgeschaltet. */
+    public static final long DEFAULT_THRESHOLD_MILLIS = 0;
+    private static final long MAX_FILE_SIZE = 1024 * 1024;
+    private static final int KEEP_FILES = 3;
+
+    private static volatile long thresholdNanos = DEFAULT_THRESHOLD_MILLIS * 1_000_000;
+    private static volatile Path file;
+
+    /**
+     * Setzt die Schwelle, ab der eine Anweisung protokolliert wird.
+     * @param threshold Mindestdauer, {@link Duration#ZERO} schaltet das Protokoll ab
+     */
+    public static void setThreshold(Duration threshold) {
+        thresholdNanos = threshold.isNegative() ? 0 : threshold.toNanos();
+    }
+
+    /** Liefert die Schwelle ({@link Duration#ZERO} = abgeschaltet). */
+    public static Duration getThreshold() {
+        return Duration.ofNanos(thresholdNanos);
+    }
+
+    /**
+     * Legt die Logdatei fest.
+     * @param logFile Datei oder {@code null} für "slow-queries.log" neben der Datenbank
+     */
+    public static void setFile(Path logFile) {
+        file = logFile;
+    }
+
+    /** Liefert die aktuell verwendete Logdatei. */
+    public static Path getFile() {
+        Path configured = file;
+        if (configured != null) {
+            return configured;
+        }
+        Path db = Paths.get(Database.getUrl().substring("jdbc:sqlite:".length())).toAbsolutePath();
+        return db.resolveSibling("slow-queries.log");
+    }
+
+    static boolean isEnabled() {
+        return thresholdNanos > 0;
+    }
+
+    static boolean isSlow(long nanos) {
+        long threshold = thresholdNanos;
+        return threshold > 0 && nanos >= threshold;
+    }
+
+    /**
+     * Schreibt einen Eintrag. Fehler beim Erklären oder Schreiben werden nur
+     * gemeldet, damit die eigentliche Abfrage nie daran scheitert.
+     * @param conn physische Verbindung, auf der der Plan ermittelt wird
+     * @param operation DAO-Operation oder {@code null}
+     * @param sql SQL der Anweisung
+     * @param params gebundene Parameter nach Index
+     * @param batchSize Anzahl Batch-Zeilen, 0 für Einzelausführung
+     * @param nanos gemessene Dauer
+     */
+    static void report(Connection conn, String operation, String sql, SortedMap<Integer, Object> params,
+                       int batchSize, long nanos) {
+        String plan = explain(conn, sql, params);
+        StringBuilder entry = new StringBuilder();
+        entry.append(LocalDateTime.now().withNano(0)).append(' ')
+             .append(operation != null ? operation : "-").append(' ')
+             .append(String.format("%.1f ms", nanos / 1_000_000.0));
+        if (batchSize > 0) {
+            entry.append(" (Batch mit ").append(batchSize).append(" Zeilen)");
+        }
+        entry.append('\n').append("SQL: ").append(sql.replaceAll("\\s+", " ").trim()).append('\n');
+        if (!params.isEmpty()) {
+            entry.append("Parameter: ").append(params).append('\n');
+        }
+        entry.append("Plan:\n").append(plan).append('\n');
+        write(entry.toString());
+    }
+
+    private static String explain(Connection conn, String sql, SortedMap<Integer, Object> params) {
+        StringBuilder plan = new StringBuilder();
+        Map<Integer, Integer> depth = new HashMap<>();
+        try (PreparedStatement ps = conn.prepareStatement("EXPLAIN QUERY PLAN " + sql)) {
+            for (Map.Entry<Integer, Object> p : params.entrySet()) {
+                ps.setObject(p.getKey(), p.getValue());
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    int level = depth.getOrDefault(rs.getInt("parent"), 0) + 1;
+                    depth.put(rs.getInt("id"), level);
+                    plan.append("  ".repeat(level)).append(rs.getString("detail")).append('\n');
+                }
+            }
+        } catch (SQLException e) {
+            return "  (nicht ermittelbar: " + e.getMessage() + ")\n";
+        }
+        return plan.toString();
+    }
+
+    private static synchronized void write(String entry) {
+        Path target = getFile();
+        try {
+            if (target.getParent() != null) {
+                Files.createDirectories(target.getParent());
+            }
+            if (Files.exists(target) && Files.size(target) + entry.length() > MAX_FILE_SIZE) {
+                rotate(target);
+            }
+            try (Writer out = Files.newBufferedWriter(target, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                out.write(entry);
+            }
+        } catch (IOException e) {
+            System.err.println("Slow-Query-Log konnte nicht geschrieben werden: " + e.getMessage());
+        }
+    }
+
+    private static void rotate(Path target) throws IOException {
+        Files.deleteIfExists(target.resolveSibling(target.getFileName() + "." + KEEP_FILES));
+        for (int i = KEEP_FILES - 1; i >= 1; i--) {
+            Path older = target.resolveSibling(target.getFileName() + "." + i);
+            if (Files.exists(older)) {
+                Files.move(older, target.resolveSibling(target.getFileName() + "." + (i + 1)),
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(target, target.resolveSibling(target.getFileName() + ".1"), StandardCopyOption.REPLACE_EXISTING);
+    }
+}
@@ -6,13 +6,30 @@ import com.restaurant.reservation.dao.Database;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 
 public class TableDAO {
+    /** Wird bei jeder Änderung an der Tabelle "tables" erhöht. */
+    private static final AtomicLong VERSION = new AtomicLong();
 
-    /** Stellt eine Verbindung zur SQLite-Datenbank her. */
-    private Connection connect() throws SQLException {
-        return Database.getConnection();
+    /** Stellt eine Verbindung zur SQLite-Datenbank her und misst sie als "dao.table.&lt;operation&gt;". */
+    private Connection connect(String operation) throws SQLException {
+        return Database.getConnection("table." + operation);
+    }
+
+    /**
+     * Stand der Tischdaten. Jede Schreiboperation auf "tables" in dieser
+     * Anwendung erhöht den Wert; Zwischenspeicher vergleichen ihn, um veraltete
+     * Daten zu erkennen.
+     */
+    public static long getVersion() {
+        return VERSION.get();
+    }
+
+    /** Meldet eine Änderung an den Tischdaten. */
+    static void tablesChanged() {
+        VERSION.incrementAndGet();
     }
 
     public static void createTable() {
@@ -21,7 +38,7 @@ public class TableDAO {
                 "name TEXT NOT NULL," +
                 "seats INTEGER NOT NULL," +
                 "hasProjector INTEGER NOT NULL)";
-        try (Connection conn = Database.getConnection();
+        try (Connection conn = Database.getConnection("table.createTable");
              Statement stmt = conn.createStatement()) {
             stmt.executeUpdate(sql);
 
@@ -37,6 +54,7 @@ public class TableDAO {
                             ps.executeUpdate();
                         }
                     }
+                    tablesChanged();
                 }
             }
         } catch (SQLException e) {
@@ -49,9 +67,9 @@ public class TableDAO {
     public List<Table> findAllTables() throws SQLException {
         List<Table> tables = new ArrayList<>();
         String sql = "SELECT id, name, seats, hasProjector FROM tables";
-        try (Connection conn = connect();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+        try (Connection conn = connect("findAllTables");
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
             while (rs.next()) {
                 int id = rs.getInt("id");
                 String name = rs.getString("name");
@@ -69,7 +87,7 @@ public class TableDAO {
 
     public Table findTableById(int id) throws SQLException {
         String sql = "SELECT id, name, seats, hasProjector FROM tables WHERE id = ?";
-        try (Connection conn = connect();
+        try (Connection conn = connect("findTableById");
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, id);
             try (ResultSet rs = stmt.executeQuery()) {
@@ -0,0 +1,115 @@
+package com.restaurant.reservation.dao;
+
+import com.restaurant.reservation.model.WaitlistEntry;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DAO-Klasse für die Warteliste (Tabelle "waitlist"). Nachrücker werden beim
+ * Stornieren in {@link ReservationDAO#cancelReservation} in derselben
+ * Transaktion aus der Liste entfernt.
+ */
+public class WaitlistDAO {
+    private static final String COLUMNS = "id, name, date, earliest, latest, persons, priority, requested_at";
+
+    /** Stellt eine Verbindung zur SQLite-Datenbank her und misst sie als "dao.waitlist.&lt;operation&gt;". */
+    private Connection connect(String operation) throws SQLException {
+        return Database.getConnection("waitlist." + operation);
+    }
+
+    /**
+     * Legt die Tabelle "waitlist" an, falls sie noch nicht existiert. Wird von
+     * {@link ReservationDAO#createTable()} aufgerufen.
+     */
+    public static void createTable() {
+        String sql = "CREATE TABLE IF NOT EXISTS waitlist (" +
+                "id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                "name TEXT NOT NULL," +
+                "date TEXT NOT NULL," +
+                "earliest TEXT NOT NULL," +
+                "latest TEXT NOT NULL," +
+                "persons INTEGER NOT NULL," +
+                "priority INTEGER NOT NULL DEFAULT 0," +
+                "requested_at TEXT NOT NULL DEFAULT (datetime('now')))";
+        try (Connection conn = Database.getConnection("waitlist.createTable");
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate(sql);
+            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_waitlist_date ON waitlist(date)");
+        } catch (SQLException e) {
+            System.err.println("Fehler beim Erstellen der Warteliste: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Speichert einen neuen Eintrag.
+     * @param entry Eintrag ohne ID; erhält beim Speichern ID und Anfragezeitpunkt
+     * @throws SQLException bei Datenbankfehlern
+     */
+    public void addEntry(WaitlistEntry entry) throws SQLException {
+        String sql = "INSERT INTO waitlist(name, date, earliest, latest, persons, priority) " +
+                     "VALUES (?, ?, ?, ?, ?, ?) RETURNING id, requested_at";
+        try (Connection conn = connect("addEntry");
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, entry.getName());
+            ps.setString(2, entry.getDate());
+            ps.setString(3, entry.getEarliest());
+            ps.setString(4, entry.getLatest());
+            ps.setInt(5, entry.getPersons());
+            ps.setInt(6, entry.getPriority());
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                entry.setId(rs.getInt(1));
+                entry.setRequestedAt(rs.getString(2));
+            }
+        }
+    }
+
+    /**
+     * Entfernt einen Eintrag.
+     * @return der entfernte Eintrag oder {@code null}, falls keiner existierte
+     * @throws SQLException bei Datenbankfehlern
+     */
+    public WaitlistEntry deleteEntry(int id) throws SQLException {
+        try (Connection conn = connect("deleteEntry");
+             PreparedStatement ps = conn.prepareStatement("DELETE FROM waitlist WHERE id = ? RETURNING " + COLUMNS)) {
+            ps.setInt(1, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? map(rs) : null;
+            }
+        }
+    }
+
+    /**
+     * Liefert alle Einträge eines Tages, höchste Priorität zuerst, bei
+     * gleicher Priorität die älteste Anfrage.
+     * @param date Datum (YYYY-MM-DD)
+     * @throws SQLException bei Datenbankfehlern
+     */
+    public List<WaitlistEntry> getEntriesForDate(String date) throws SQLException {
+        List<WaitlistEntry> list = new ArrayList<>();
+        String sql = "SELECT " + COLUMNS + " FROM waitlist WHERE date = ? ORDER BY priority DESC, requested_at, id";
+        try (Connection conn = connect("getEntriesForDate");
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, date);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    list.add(map(rs));
+                }
+            }
+        }
+        return list;
+    }
+
+    private static WaitlistEntry map(ResultSet rs) throws SQLException {
+        return new WaitlistEntry(rs.getInt("id"), rs.getString("name"), rs.getString("date"),
+                rs.getString("earliest"), rs.getString("latest"), rs.getInt("persons"),
+                rs.getInt("priority"), rs.getString("requested_at"));
+    }
+}
@@ -0,0 +1,66 @@
+package com.restaurant.reservation.dao;
+
+import com.restaurant.reservation.model.Reservation;
+
+/**
+ * Ergebnis einer Änderung mit Versionsprüfung (optimistische Sperre). Bei
+ * einem Konflikt hat ein anderer Arbeitsplatz die Reservierung seit dem Lesen
+ * geändert; der Aufrufer erhält ihren aktuellen Stand, um ihn anzuzeigen oder
+ * die Änderung mit der neuen Version zu wiederholen.
+ */
+public final class WriteResult {
+    public enum Outcome {
+        /** Die Änderung wurde gespeichert. */
+        APPLIED,
+        /** Die Reservierung hat inzwischen eine andere Version; nichts wurde geändert. */
+        CONFLICT,
+        /** Die Reservierung existiert nicht (mehr). */
+        NOT_FOUND
+    }
+
+    private final Outcome outcome;
+    private final Reservation reservation;
+
+    private WriteResult(Outcome outcome, Reservation reservation) {
+        this.outcome = outcome;
+        this.reservation = reservation;
+    }
+
+    /** @param written die geänderte bzw. gelöschte Reservierung */
+    static WriteResult applied(Reservation written) {
+        return new WriteResult(Outcome.APPLIED, written);
+    }
+
+    /**
+     * Ergebnis, wenn die bedingte Anweisung keine Zeile getroffen hat.
+     * @param current aktueller Stand oder {@code null}, falls die Reservierung fehlt
+     */
+    static WriteResult notApplied(Reservation current) {
+        return new WriteResult(current == null ? Outcome.NOT_FOUND : Outcome.CONFLICT, current);
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    public boolean isApplied() {
+        return outcome == Outcome.APPLIED;
+    }
+
+    public boolean isConflict() {
+        return outcome == Outcome.CONFLICT;
+    }
+
+    /**
+     * Nach dem Speichern die geänderte (bzw. gelöschte) Reservierung, bei
+     * einem Konflikt der aktuelle Stand, sonst {@code null}.
+     */
+    public Reservation getReservation() {
+        return reservation;
+    }
+
+    @Override
+    public String toString() {
+        return outcome + (reservation != null ? " (Version " + reservation.getVersion() + ")" : "");
+    }
+}
@@ -0,0 +1,123 @@
+package com.restaurant.reservation.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Laufzeit-Histogramm mit festen, logarithmisch wachsenden Fächern.
+ * <p>
+ * Werte werden in Mikrosekunden erfasst. Bis 16 µs hat jede Mikrosekunde ein
+ * eigenes Fach, darüber wird jede Zweierpotenz in acht gleich breite Fächer
+ * geteilt. Perzentile sind dadurch auf etwa 12 % genau, bei konstant kleinem
+ * Speicherbedarf. Alle Zähler sind {@link LongAdder}, sodass viele Threads
+ * ohne gegenseitiges Blockieren aufzeichnen können.
+ */
+public class LatencyHistogram {
+    private static final int LINEAR = 16;
+    private static final int SUB_BUCKETS = 8;
+    /** Größte Zweierpotenz, die noch unterschieden wird (2^36 µs ≈ 19 Stunden). */
+    private static final int MAX_EXPONENT = 36;
+    private static final int BUCKETS = LINEAR + (MAX_EXPONENT - 4 + 1) * SUB_BUCKETS;
+
+    private final LongAdder[] counts = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder totalMicros = new LongAdder();
+    private final LongAccumulator maxMicros = new LongAccumulator(Math::max, 0);
+
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    /** Zeichnet eine Laufzeit in Nanosekunden auf. */
+    public void record(long nanos) {
+        long micros = Math.max(0, nanos / 1000);
+        counts[bucketOf(micros)].increment();
+        count.increment();
+        totalMicros.add(micros);
+        maxMicros.accumulate(micros);
+    }
+
+    /** Zählt einen fehlgeschlagenen Aufruf (zusätzlich zu seiner Laufzeit). */
+    public void recordError() {
+        errors.increment();
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public double getMeanMicros() {
+        long n = count.sum();
+        return n == 0 ? 0.0 : (double) totalMicros.sum() / n;
+    }
+
+    public long getMaxMicros() {
+        return maxMicros.get();
+    }
+
+    /**
+     * Liefert die Obergrenze des Fachs, in dem das Perzentil liegt.
+     * @param percentile Wert zwischen 0 und 100
+     * @return Laufzeit in Mikrosekunden
+     */
+    public long getPercentileMicros(double percentile) {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts[i].sum();
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank && snapshot[i] > 0) {
+                return Math.min(upperBound(i), getMaxMicros());
+            }
+        }
+        return getMaxMicros();
+    }
+
+    /** Setzt alle Zähler zurück. */
+    public void reset() {
+        for (LongAdder c : counts) {
+            c.reset();
+        }
+        count.reset();
+        errors.reset();
+        totalMicros.reset();
+        maxMicros.reset();
+    }
+
+    static int bucketOf(long micros) {
+        if (micros < LINEAR) {
+            return (int) micros;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int sub = (int) (micros >>> (exponent - 3)) & (SUB_BUCKETS - 1);
+        return LINEAR + (exponent - 4) * SUB_BUCKETS + sub;
+    }
+
+    static long upperBound(int bucket) {
+        if (bucket < LINEAR) {
+            return bucket;
+        }
+        int exponent = 4 + (bucket - LINEAR) / SUB_BUCKETS;
+        int sub = (bucket - LINEAR) % SUB_BUCKETS;
+        long width = 1L << (exponent - 3);
+        return (1L << exponent) + (sub + 1) * width - 1;
+    }
+}
@@ -0,0 +1,70 @@
+package com.restaurant.reservation.metrics;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * Unveränderlicher Stand der Laufzeiten einer Operation, wie er über JMX
+ * und in die Metrikdatei ausgegeben wird. Alle Zeiten in Mikrosekunden.
+ */
+public class OperationStats {
+    private final String name;
+    private final long count;
+    private final long errors;
+    private final double meanMicros;
+    private final long p50Micros;
+    private final long p95Micros;
+    private final long p99Micros;
+    private final long maxMicros;
+
+    @ConstructorProperties({"name", "count", "errors", "meanMicros", "p50Micros", "p95Micros", "p99Micros", "maxMicros"})
+    public OperationStats(String name, long count, long errors, double meanMicros,
+                          long p50Micros, long p95Micros, long p99Micros, long maxMicros) {
+        this.name = name;
+        this.count = count;
+        this.errors = errors;
+        this.meanMicros = meanMicros;
+        this.p50Micros = p50Micros;
+        this.p95Micros = p95Micros;
+        this.p99Micros = p99Micros;
+        this.maxMicros = maxMicros;
+    }
+
+    static OperationStats of(String name, LatencyHistogram histogram) {
+        return new OperationStats(name, histogram.getCount(), histogram.getErrors(), histogram.getMeanMicros(),
+                histogram.getPercentileMicros(50), histogram.getPercentileMicros(95),
+                histogram.getPercentileMicros(99), histogram.getMaxMicros());
+    }
+
+    /** Name der Operation, z.B. "dao.existsReservation". */
+    public String getName() {
+        return name;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public double getMeanMicros() {
+        return meanMicros;
+    }
+
+    public long getP50Micros() {
+        return p50Micros;
+    }
+
+    public long getP95Micros() {
+        return p95Micros;
+    }
+
+    public long getP99Micros() {
+        return p99Micros;
+    }
+
+    public long getMaxMicros() {
+        return maxMicros;
+    }
+}
@@ -0,0 +1,159 @@
+package com.restaurant.reservation.metrics;
+
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sammelt Laufzeiten von DAO-, Service- und Oberflächenzugriffen.
+ * <p>
+ * Jede Operation hat ein eigenes {@link LatencyHistogram}; das Aufzeichnen
+ * kostet nur wenige Nanosekunden und blockiert nicht. Die Werte sind über
+ * JMX als {@link ReservationMetricsMXBean} abrufbar und können zusätzlich
+ * periodisch in eine Textdatei geschrieben werden.
+ * <p>
+ * Namenskonvention: "db." für Verbindungen, "dao." für DAO-Methoden,
+ * "service." für Service-Methoden und "ui." für Ladeaktionen der Fenster.
+ */
+public class ReservationMetrics implements ReservationMetricsMXBean {
+    /** JMX-Name, unter dem die Metriken registriert werden. */
+    public static final String OBJECT_NAME = "com.restaurant.reservation:type=ReservationMetrics";
+
+    private static final ReservationMetrics INSTANCE = new ReservationMetrics();
+
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private volatile Path dumpFile;
+    private ScheduledExecutorService dumper;
+
+    private ReservationMetrics() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+        } catch (Exception e) {
+            System.err.println("Metriken konnten nicht bei JMX registriert werden: " + e.getMessage());
+        }
+    }
+
+    /** Liefert die gemeinsame Instanz. */
+    public static ReservationMetrics get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Zeichnet die Laufzeit einer Operation auf.
+     * @param operation Name der Operation
+     * @param startNanos Startzeitpunkt aus {@link System#nanoTime()}
+     */
+    public static void record(String operation, long startNanos) {
+        INSTANCE.histogram(operation).record(System.nanoTime() - startNanos);
+    }
+
+    /** Zeichnet Laufzeit und Fehler einer fehlgeschlagenen Operation auf. */
+    public static void recordError(String operation, long startNanos) {
+        LatencyHistogram histogram = INSTANCE.histogram(operation);
+        histogram.record(System.nanoTime() - startNanos);
+        histogram.recordError();
+    }
+
+    /** Liefert das Histogramm einer Operation und legt es bei Bedarf an. */
+    public LatencyHistogram histogram(String operation) {
+        LatencyHistogram histogram = histograms.get(operation);
+        return histogram != null ? histogram : histograms.computeIfAbsent(operation, k -> new LatencyHistogram());
+    }
+
+    /**
+     * Schreibt die Metriken ab sofort periodisch in eine Datei. Ein erneuter
+     * Aufruf ersetzt Datei und Intervall.
+     * @param file Zieldatei, wird jeweils vollständig überschrieben
+     * @param intervalSeconds Abstand zwischen zwei Ausgaben
+     */
+    public synchronized void startPeriodicDump(Path file, long intervalSeconds) {
+        stopPeriodicDump();
+        dumpFile = file;
+        dumper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "metrics-dump");
+            t.setDaemon(true);
+            return t;
+        });
+        dumper.scheduleAtFixedRate(this::dump, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /** Beendet die periodische Ausgabe. */
+    public synchronized void stopPeriodicDump() {
+        if (dumper != null) {
+            dumper.shutdownNow();
+            dumper = null;
+        }
+    }
+
+    @Override
+    public List<OperationStats> getOperations() {
+        List<OperationStats> list = new ArrayList<>();
+        histograms.forEach((name, histogram) -> list.add(OperationStats.of(name, histogram)));
+        list.sort(Comparator.comparing(OperationStats::getName));
+        return list;
+    }
+
+    @Override
+    public List<OperationStats> getSlowestOperations() {
+        List<OperationStats> list = getOperations();
+        list.sort(Comparator.comparingDouble((OperationStats s) -> s.getCount() * s.getMeanMicros()).reversed());
+        return list;
+    }
+
+    @Override
+    public String getDumpFile() {
+        Path file = dumpFile;
+        return file == null ? null : file.toString();
+    }
+
+    @Override
+    public void dump() {
+        Path file = dumpFile;
+        if (file == null) {
+            return;
+        }
+        try {
+            writeTo(file);
+        } catch (IOException e) {
+            System.err.println("Metriken konnten nicht geschrieben werden: " + e.getMessage());
+        }
+    }
+
+    /** Schreibt den aktuellen Stand als Tabelle; die Datei wird atomar ersetzt. */
+    public void writeTo(Path file) throws IOException {
+        Path absolute = file.toAbsolutePath();
+        if (absolute.getParent() != null) {
+            Files.createDirectories(absolute.getParent());
+        }
+        Path temp = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(temp, StandardCharsets.UTF_8))) {
+            out.println("# Laufzeiten in Mikrosekunden, Stand " + LocalDateTime.now().withNano(0));
+            out.printf("%-45s %10s %7s %10s %9s %9s %9s %10s%n",
+                    "Operation", "Anzahl", "Fehler", "Mittel", "p50", "p95", "p99", "Max");
+            for (OperationStats s : getSlowestOperations()) {
+                out.printf("%-45s %10d %7d %10.1f %9d %9d %9d %10d%n", s.getName(), s.getCount(), s.getErrors(),
+                        s.getMeanMicros(), s.getP50Micros(), s.getP95Micros(), s.getP99Micros(), s.getMaxMicros());
+            }
+        }
+        Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public void reset() {
+        histograms.values().forEach(LatencyHistogram::reset);
+    }
+}
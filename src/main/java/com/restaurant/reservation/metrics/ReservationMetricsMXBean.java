@@ -0,0 +1,24 @@
+package com.restaurant.reservation.metrics;
+
+import java.util.List;
+
+/**
+ * JMX-Schnittstelle der Laufzeitmetriken, z.B. in JConsole unter
+ * {@value ReservationMetrics#OBJECT_NAME}.
+ */
+public interface ReservationMetricsMXBean {
+    /** Laufzeiten aller bisher aufgezeichneten Operationen, nach Name sortiert. */
+    List<OperationStats> getOperations();
+
+    /** Die Operationen mit der höchsten Gesamtzeit (Anzahl × Mittelwert) zuerst. */
+    List<OperationStats> getSlowestOperations();
+
+    /** Datei, in die periodisch geschrieben wird, oder {@code null}. */
+    String getDumpFile();
+
+    /** Schreibt den aktuellen Stand sofort in die Metrikdatei. */
+    void dump();
+
+    /** Setzt alle Zähler zurück. */
+    void reset();
+}
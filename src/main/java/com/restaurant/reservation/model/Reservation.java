@@ -5,6 +5,17 @@ package com.restaurant.reservation.model;
  * Enthält die Reservierungsdaten als Eigenschaften.
  */
 public class Reservation {
+    /** Kürzeste erlaubte Sitzdauer in Minuten. */
+    public static final int MIN_DURATION = 15;
+    /** Längste erlaubte Sitzdauer in Minuten; begrenzt die Suche nach Überschneidungen. */
+    public static final int MAX_DURATION = 6 * 60;
+    /** Erste buchbare Uhrzeit im Formular in Minuten seit Mitternacht (10:00). */
+    public static final int FIRST_SLOT_MINUTE = 10 * 60;
+    /** Abstand der buchbaren Uhrzeiten in Minuten. */
+    public static final int SLOT_MINUTES = 30;
+    /** Anzahl der buchbaren Uhrzeiten pro Tag (10:00 bis einschließlich 22:00). */
+    public static final int SLOTS_PER_DAY = 25;
+
     private Integer id;
     private String name;
     /** Reservierungsdatum (Format YYYY-MM-DD) */
@@ -13,14 +24,24 @@ public class Reservation {
     private String time;
     private int persons;
     private int tableNumber;
-    private String status;
+    private ReservationStatus status;
+    /** Sitzdauer in Minuten */
+    private int durationMinutes;
+    /** Zeilenversion in der Datenbank; wird bei jeder Änderung erhöht. */
+    private int version;
 
 
     public Reservation(String name, String date, String time, int persons, int tableNumber) {
-        this(null, name, date, time, persons, tableNumber, "PENDING");
+        this(null, name, date, time, persons, tableNumber, ReservationStatus.PENDING);
+    }
+
+    public Reservation(Integer id, String name, String date, String time, int persons, int tableNumber,
+                       ReservationStatus status) {
+        this(id, name, date, time, persons, tableNumber, status, defaultDuration(persons));
     }
 
-    public Reservation(Integer id, String name, String date, String time, int persons, int tableNumber, String status) {
+    public Reservation(Integer id, String name, String date, String time, int persons, int tableNumber,
+                       ReservationStatus status, int durationMinutes) {
         this.id = id;
         this.name = name;
         this.date = date;
@@ -28,13 +49,14 @@ public class Reservation {
         this.persons = persons;
         this.tableNumber = tableNumber;
         this.status = status;
+        this.durationMinutes = durationMinutes;
     }
 
     /**
      * Kompatibilitätskonstruktor ohne Status.
      */
     public Reservation(Integer id, String name, String date, String time, int persons, int tableNumber) {
-        this(id, name, date, time, persons, tableNumber, "PENDING");
+        this(id, name, date, time, persons, tableNumber, ReservationStatus.PENDING);
     }
 
     public Integer getId() {
@@ -85,11 +107,40 @@ public class Reservation {
         this.tableNumber = tableNumber;
     }
 
-    public String getStatus() {
+    public ReservationStatus getStatus() {
         return status;
     }
 
-    public void setStatus(String status) {
+    public void setStatus(ReservationStatus status) {
         this.status = status;
     }
+
+    public int getDurationMinutes() {
+        return durationMinutes;
+    }
+
+    public void setDurationMinutes(int durationMinutes) {
+        this.durationMinutes = durationMinutes;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
+    /**
+     * Übliche Sitzdauer für eine Gruppengröße: 90 Minuten für bis zu zwei,
+     * 120 für bis zu vier und 150 für mehr Personen.
+     */
+    public static int defaultDuration(int persons) {
+        return persons <= 2 ? 90 : persons <= 4 ? 120 : 150;
+    }
+
+    /** SQL-Ausdruck für {@link #defaultDuration(int)} über eine Spalte mit der Personenzahl. */
+    public static String sqlDefaultDuration(String column) {
+        return "CASE WHEN " + column + " <= 2 THEN 90 WHEN " + column + " <= 4 THEN 120 ELSE 150 END";
+    }
 }
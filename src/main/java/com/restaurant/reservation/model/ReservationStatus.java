@@ -0,0 +1,87 @@
+package com.restaurant.reservation.model;
+
+/**
+ * Status einer Reservierung. In der Datenbank wird nur der ganzzahlige
+ * {@link #getCode() Code} gespeichert; die Namen erscheinen in Import- und
+ * Exportdateien.
+ */
+public enum ReservationStatus {
+    /** Noch offen: Gast ist weder erschienen noch als No-Show erfasst. */
+    PENDING(0),
+    /** Gast ist erschienen. */
+    ATTENDED(1),
+    /** Gast ist nicht erschienen. */
+    NOSHOW(2);
+
+    private static final ReservationStatus[] BY_CODE = new ReservationStatus[values().length];
+
+    static {
+        for (ReservationStatus status : values()) {
+            BY_CODE[status.code] = status;
+        }
+    }
+
+    private final int code;
+
+    ReservationStatus(int code) {
+        this.code = code;
+    }
+
+    /** Code, unter dem der Status in der Spalte "status" gespeichert wird. */
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * Liefert den Status zu einem gespeicherten Code.
+     * @throws IllegalArgumentException bei einem unbekannten Code
+     */
+    public static ReservationStatus fromCode(int code) {
+        if (code < 0 || code >= BY_CODE.length) {
+            throw new IllegalArgumentException("Unbekannter Statuscode: " + code);
+        }
+        return BY_CODE[code];
+    }
+
+    /**
+     * Liest einen Status aus Text, z.B. aus einer Importdatei. Akzeptiert den
+     * Namen (ohne Beachtung der Groß-/Kleinschreibung) oder den Code.
+     * @throws IllegalArgumentException bei einem unbekannten Status
+     */
+    public static ReservationStatus parse(String text) {
+        String value = text == null ? "" : text.trim();
+        for (ReservationStatus status : values()) {
+            if (status.name().equalsIgnoreCase(value) || String.valueOf(status.code).equals(value)) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Unbekannter Status: " + text);
+    }
+
+    /** SQL-Bedingung, die nur gültige Codes zulässt, z.B. für CHECK-Constraints. */
+    public static String sqlCheck(String column) {
+        StringBuilder sql = new StringBuilder(column).append(" IN (");
+        for (ReservationStatus status : values()) {
+            sql.append(status.ordinal() == 0 ? "" : ", ").append(status.code);
+        }
+        return sql.append(')').toString();
+    }
+
+    /** SQL-Ausdruck, der den Code einer Spalte in den Namen übersetzt. */
+    public static String sqlName(String column) {
+        StringBuilder sql = new StringBuilder("CASE ").append(column);
+        for (ReservationStatus status : values()) {
+            sql.append(" WHEN ").append(status.code).append(" THEN '").append(status.name()).append('\'');
+        }
+        return sql.append(" END").toString();
+    }
+
+    /** SQL-Ausdruck, der einen Namen aus einer Textspalte in den Code übersetzt (unbekannt: PENDING). */
+    public static String sqlCode(String column) {
+        StringBuilder sql = new StringBuilder("CASE upper(trim(").append(column).append("))");
+        for (ReservationStatus status : values()) {
+            sql.append(" WHEN '").append(status.name()).append("' THEN ").append(status.code);
+        }
+        return sql.append(" ELSE ").append(PENDING.code).append(" END").toString();
+    }
+}
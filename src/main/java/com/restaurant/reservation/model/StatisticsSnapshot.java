@@ -0,0 +1,79 @@
+package com.restaurant.reservation.model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Unveränderlicher Stand aller Kennzahlen des Statistikfensters.
+ * Die Werte stammen aus einer gemeinsamen Lesetransaktion und passen daher
+ * zueinander.
+ */
+public class StatisticsSnapshot {
+    private final int reservationCount;
+    private final int cancellationCount;
+    private final int noShowCount;
+    private final int attendedCount;
+    private final double averageReservationsPerDay;
+    private final double averageOccupancy;
+    private final double averageLeadTimeHours;
+    private final double averageProcessingTimeHours;
+    private final List<String> popularTimes;
+
+    public StatisticsSnapshot(int reservationCount, int cancellationCount, int noShowCount, int attendedCount,
+                              double averageReservationsPerDay, double averageOccupancy,
+                              double averageLeadTimeHours, double averageProcessingTimeHours,
+                              List<String> popularTimes) {
+        this.reservationCount = reservationCount;
+        this.cancellationCount = cancellationCount;
+        this.noShowCount = noShowCount;
+        this.attendedCount = attendedCount;
+        this.averageReservationsPerDay = averageReservationsPerDay;
+        this.averageOccupancy = averageOccupancy;
+        this.averageLeadTimeHours = averageLeadTimeHours;
+        this.averageProcessingTimeHours = averageProcessingTimeHours;
+        this.popularTimes = Collections.unmodifiableList(popularTimes);
+    }
+
+    public int getReservationCount() {
+        return reservationCount;
+    }
+
+    public int getCancellationCount() {
+        return cancellationCount;
+    }
+
+    public int getNoShowCount() {
+        return noShowCount;
+    }
+
+    public int getAttendedCount() {
+        return attendedCount;
+    }
+
+    /** Anteil der No-Shows an allen abgeschlossenen Reservierungen in Prozent. */
+    public double getNoShowRate() {
+        int closed = attendedCount + noShowCount;
+        return closed == 0 ? 0.0 : (double) noShowCount / closed * 100.0;
+    }
+
+    public double getAverageReservationsPerDay() {
+        return averageReservationsPerDay;
+    }
+
+    /** Durchschnittliche Auslastung aller Zeitslots in Prozent. */
+    public double getAverageOccupancy() {
+        return averageOccupancy;
+    }
+
+    public double getAverageLeadTimeHours() {
+        return averageLeadTimeHours;
+    }
+
+    public double getAverageProcessingTimeHours() {
+        return averageProcessingTimeHours;
+    }
+
+    public List<String> getPopularTimes() {
+        return popularTimes;
+    }
+}
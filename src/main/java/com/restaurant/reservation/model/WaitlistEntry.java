@@ -0,0 +1,82 @@
+package com.restaurant.reservation.model;
+
+/**
+ * Model-Klasse für einen Eintrag auf der Warteliste: eine Gruppe, die an
+ * einem Tag innerhalb eines Zeitfensters einen Tisch sucht.
+ */
+public class WaitlistEntry {
+    private Integer id;
+    private String name;
+    /** Gewünschtes Datum (Format YYYY-MM-DD) */
+    private String date;
+    /** Frühester gewünschter Beginn (Format HH:MM) */
+    private String earliest;
+    /** Spätester gewünschter Beginn (Format HH:MM) */
+    private String latest;
+    private int persons;
+    /** Höhere Werte rücken zuerst nach, z.B. für Stammgäste. */
+    private int priority;
+    /** Zeitpunkt der Anfrage (Format YYYY-MM-DD HH:MM:SS) */
+    private String requestedAt;
+
+    public WaitlistEntry(String name, String date, String earliest, String latest, int persons, int priority) {
+        this(null, name, date, earliest, latest, persons, priority, null);
+    }
+
+    public WaitlistEntry(Integer id, String name, String date, String earliest, String latest, int persons,
+                         int priority, String requestedAt) {
+        this.id = id;
+        this.name = name;
+        this.date = date;
+        this.earliest = earliest;
+        this.latest = latest;
+        this.persons = persons;
+        this.priority = priority;
+        this.requestedAt = requestedAt;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDate() {
+        return date;
+    }
+
+    public String getEarliest() {
+        return earliest;
+    }
+
+    public String getLatest() {
+        return latest;
+    }
+
+    public int getPersons() {
+        return persons;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public String getRequestedAt() {
+        return requestedAt;
+    }
+
+    public void setRequestedAt(String requestedAt) {
+        this.requestedAt = requestedAt;
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + persons + " Pers.) " + date + " " + earliest + "–" + latest;
+    }
+}
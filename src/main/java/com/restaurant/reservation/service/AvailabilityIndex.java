@@ -0,0 +1,168 @@
+package com.restaurant.reservation.service;
+
+import com.restaurant.reservation.dao.ReservationDAO;
+import com.restaurant.reservation.model.Reservation;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Belegungsindex im Speicher: pro Datum und Tisch ein {@link IntervalTree}
+ * mit den Sitzzeiten (Beginn bis Beginn plus Sitzdauer, in Minuten seit
+ * Mitternacht des Tages).
+ * <p>
+ * Ein Tag wird beim ersten Zugriff mit einer einzigen Abfrage geladen und
+ * danach bei jeder Buchung und Stornierung fortgeschrieben. Sitzzeiten, die
+ * über Mitternacht reichen, bleiben beim Tag ihres Beginns; Abfragen lesen
+ * deshalb auch den Vortag. Die eigentliche Absicherung gegen Überschneidungen
+ * bleibt die atomare Prüfung beim Speichern in der Datenbank; der Index dient
+ * schnellen Verfügbarkeitsabfragen.
+ */
+public class AvailabilityIndex {
+    /** Anzahl der Tage, die höchstens im Speicher gehalten werden. */
+    private static final int MAX_CACHED_DAYS = 64;
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private static final AvailabilityIndex SHARED = new AvailabilityIndex(new ReservationDAO());
+
+    private final ReservationDAO dao;
+    /** Sitzzeiten je Tag (Epoch-Tag) und Tisch. */
+    private final Map<Long, Map<Integer, IntervalTree>> days = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Map<Integer, IntervalTree>> eldest) {
+            return size() > MAX_CACHED_DAYS;
+        }
+    };
+
+    public AvailabilityIndex(ReservationDAO dao) {
+        this.dao = dao;
+    }
+
+    /** Gemeinsamer Index für alle Fenster dieser Anwendung. */
+    public static AvailabilityIndex shared() {
+        return SHARED;
+    }
+
+    /** Prüft, ob ein Tisch zu der Uhrzeit besetzt ist. */
+    public synchronized boolean isReserved(String date, String time, int tableNumber) throws SQLException {
+        int minute = minuteOf(time);
+        return maxEnd(LocalDate.parse(date).toEpochDay(), tableNumber, minute, minute + 1) != IntervalTree.NONE;
+    }
+
+    /**
+     * Prüft, ob ein Tisch ab der Uhrzeit für die angegebene Dauer frei ist.
+     * @param durationMinutes gewünschte Sitzdauer in Minuten
+     */
+    public synchronized boolean isFree(String date, String time, int durationMinutes, int tableNumber)
+            throws SQLException {
+        int minute = minuteOf(time);
+        return maxEnd(LocalDate.parse(date).toEpochDay(), tableNumber, minute, minute + durationMinutes)
+                == IntervalTree.NONE;
+    }
+
+    /**
+     * Frühester Beginn ab der Uhrzeit, zu dem der Tisch für die angegebene
+     * Dauer frei ist. Überschneidet sich der Wunschtermin, wird ab dem Ende der
+     * überschneidenden Sitzzeiten weitergesucht.
+     * @return Minuten seit Mitternacht des Datums; Werte ab 1440 liegen am Folgetag
+     */
+    public synchronized int nextFree(String date, String time, int durationMinutes, int tableNumber)
+            throws SQLException {
+        long day = LocalDate.parse(date).toEpochDay();
+        int start = minuteOf(time);
+        int blockedUntil;
+        while ((blockedUntil = maxEnd(day, tableNumber, start, start + durationMinutes)) != IntervalTree.NONE) {
+            start = blockedUntil;
+        }
+        return start;
+    }
+
+    /**
+     * Nachbarn einer geplanten Sitzzeit am selben Tag: Ende der vorangehenden
+     * und Beginn der folgenden Sitzzeit des Tisches in Minuten seit
+     * Mitternacht, jeweils {@link IntervalTree#NONE}, wenn es keine gibt.
+     */
+    public synchronized int[] neighbours(String date, String time, int durationMinutes, int tableNumber)
+            throws SQLException {
+        int minute = minuteOf(time);
+        IntervalTree tree = day(LocalDate.parse(date).toEpochDay()).get(tableNumber);
+        if (tree == null) {
+            return new int[]{IntervalTree.NONE, IntervalTree.NONE};
+        }
+        return new int[]{tree.maxEndBefore(minute), tree.minStartFrom(minute + durationMinutes)};
+    }
+
+    /**
+     * Vermerkt eine neue Buchung, sofern ihr Tag bereits geladen ist. Hat das
+     * Laden des Tages die Buchung schon gelesen, bleibt es bei einem Eintrag.
+     */
+    public synchronized void markReserved(Reservation reservation) {
+        Map<Integer, IntervalTree> tables = days.get(LocalDate.parse(reservation.getDate()).toEpochDay());
+        if (tables != null) {
+            add(tables, reservation);
+        }
+    }
+
+    /** Gibt die Sitzzeit nach einer Stornierung wieder frei. */
+    public synchronized void markFree(Reservation reservation) {
+        Map<Integer, IntervalTree> tables = days.get(LocalDate.parse(reservation.getDate()).toEpochDay());
+        IntervalTree tree = tables != null ? tables.get(reservation.getTableNumber()) : null;
+        if (tree != null) {
+            tree.remove(reservation.getId());
+        }
+    }
+
+    /** Verwirft alle geladenen Tage, z.B. nach einem Import. */
+    public synchronized void invalidate() {
+        days.clear();
+    }
+
+    /**
+     * Größtes Ende der Sitzzeiten, die [start, end) schneiden, in Minuten
+     * relativ zum Tag, oder {@link IntervalTree#NONE}. Gelesen werden alle
+     * Tage, deren Sitzzeiten in das Fenster reichen können.
+     */
+    private int maxEnd(long day, int tableNumber, int start, int end) throws SQLException {
+        int result = IntervalTree.NONE;
+        long first = Math.floorDiv(start - Reservation.MAX_DURATION, MINUTES_PER_DAY);
+        long last = Math.floorDiv(end - 1, MINUTES_PER_DAY);
+        for (long offset = first; offset <= last; offset++) {
+            IntervalTree tree = day(day + offset).get(tableNumber);
+            if (tree != null) {
+                int shift = (int) offset * MINUTES_PER_DAY;
+                int found = tree.maxEndOverlapping(start - shift, end - shift);
+                if (found != IntervalTree.NONE) {
+                    result = Math.max(result, found + shift);
+                }
+            }
+        }
+        return result;
+    }
+
+    private Map<Integer, IntervalTree> day(long epochDay) throws SQLException {
+        Map<Integer, IntervalTree> tables = days.get(epochDay);
+        if (tables == null) {
+            tables = new HashMap<>();
+            for (Reservation r : dao.getReservationsForDate(LocalDate.ofEpochDay(epochDay).toString())) {
+                add(tables, r);
+            }
+            days.put(epochDay, tables);
+        }
+        return tables;
+    }
+
+    /** Trägt die Sitzzeit ein; eine bereits enthaltene ID wird ersetzt. */
+    private static void add(Map<Integer, IntervalTree> tables, Reservation r) {
+        int start = minuteOf(r.getTime());
+        tables.computeIfAbsent(r.getTableNumber(), t -> new IntervalTree())
+              .add(start, start + Math.max(1, r.getDurationMinutes()), r.getId());
+    }
+
+    private static int minuteOf(String time) {
+        return LocalTime.parse(time).toSecondOfDay() / 60;
+    }
+}
@@ -0,0 +1,196 @@
+package com.restaurant.reservation.service;
+
+import java.util.Arrays;
+
+/**
+ * Menge halboffener Intervalle [Beginn, Ende) mit Überschneidungsabfrage,
+ * z.B. die Sitzzeiten eines Tisches an einem Tag in Minuten.
+ * <p>
+ * Die Intervalle liegen nach Beginn sortiert in Arrays und bilden einen
+ * impliziten, balancierten Suchbaum: Wurzel eines Bereichs ist jeweils sein
+ * mittleres Element. Jeder Knoten kennt das größte Ende in seinem Teilbaum,
+ * sodass Teilbäume, die vor der gesuchten Zeit enden oder nach ihr beginnen,
+ * übersprungen werden. Eine Überschneidungsabfrage kostet damit O(log n + k)
+ * für k Treffer. Einfügen und Entfernen verschieben die Arrays und berechnen
+ * die Maxima neu (O(n)); bei einigen Buchungen pro Tisch und Tag ist das
+ * günstiger als ein verzeigerter Baum.
+ * <p>
+ * Überschneidungen innerhalb der Menge sind erlaubt, etwa aus älteren
+ * Datenbeständen. Die Klasse ist nicht threadsicher.
+ */
+public class IntervalTree {
+    /** Ergebnis von {@link #maxEndOverlapping(int, int)}, wenn nichts überschneidet. */
+    public static final int NONE = Integer.MIN_VALUE;
+
+    private int size;
+    private int[] starts = new int[4];
+    private int[] ends = new int[4];
+    private int[] ids = new int[4];
+    /** Größtes Ende im Teilbaum, dessen Wurzel an dieser Position liegt. */
+    private int[] maxEnds = new int[4];
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Fügt ein Intervall ein. Ist die Kennung schon enthalten, wird ihr
+     * Intervall ersetzt; jede Kennung kommt also höchstens einmal vor.
+     * @param start Beginn (inklusive)
+     * @param end Ende (exklusive), größer als {@code start}
+     * @param id Kennung, z.B. die Reservierungs-ID
+     */
+    public void add(int start, int end, int id) {
+        remove(id);
+        if (size == starts.length) {
+            int grown = size * 2;
+            starts = Arrays.copyOf(starts, grown);
+            ends = Arrays.copyOf(ends, grown);
+            ids = Arrays.copyOf(ids, grown);
+            maxEnds = Arrays.copyOf(maxEnds, grown);
+        }
+        int pos = size;
+        while (pos > 0 && (starts[pos - 1] > start || (starts[pos - 1] == start && ids[pos - 1] > id))) {
+            pos--;
+        }
+        System.arraycopy(starts, pos, starts, pos + 1, size - pos);
+        System.arraycopy(ends, pos, ends, pos + 1, size - pos);
+        System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+        starts[pos] = start;
+        ends[pos] = end;
+        ids[pos] = id;
+        size++;
+        updateMaxEnds(0, size);
+    }
+
+    /**
+     * Entfernt das Intervall mit der Kennung.
+     * @return {@code true}, falls es enthalten war
+     */
+    public boolean remove(int id) {
+        for (int i = 0; i < size; i++) {
+            if (ids[i] == id) {
+                System.arraycopy(starts, i + 1, starts, i, size - i - 1);
+                System.arraycopy(ends, i + 1, ends, i, size - i - 1);
+                System.arraycopy(ids, i + 1, ids, i, size - i - 1);
+                size--;
+                updateMaxEnds(0, size);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Prüft, ob ein Intervall die Zeit [start, end) schneidet. */
+    public boolean overlaps(int start, int end) {
+        return findOverlap(0, size, start, end);
+    }
+
+    /** Prüft, ob ein Intervall den Zeitpunkt enthält. */
+    public boolean contains(int point) {
+        return overlaps(point, point + 1);
+    }
+
+    /**
+     * Größtes Ende aller Intervalle, die [start, end) schneiden, oder
+     * {@link #NONE}. Ab diesem Zeitpunkt ist keines dieser Intervalle mehr
+     * belegt.
+     */
+    public int maxEndOverlapping(int start, int end) {
+        return maxEndOverlapping(0, size, start, end);
+    }
+
+    /**
+     * Größtes Ende der Intervalle, die vor dem Zeitpunkt beginnen, oder
+     * {@link #NONE}; bei überschneidungsfreien Intervallen also das Ende des
+     * vorangehenden.
+     */
+    public int maxEndBefore(int point) {
+        return maxEndBefore(0, size, firstStartFrom(point));
+    }
+
+    /** Kleinster Beginn ab dem Zeitpunkt (inklusive) oder {@link #NONE}. */
+    public int minStartFrom(int point) {
+        int index = firstStartFrom(point);
+        return index < size ? starts[index] : NONE;
+    }
+
+    /** Erste Position, deren Intervall nicht vor dem Zeitpunkt beginnt. */
+    private int firstStartFrom(int point) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (starts[mid] < point) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /** Größtes Ende der Positionen vor {@code cut} im Teilbaum [lo, hi). */
+    private int maxEndBefore(int lo, int hi, int cut) {
+        if (lo >= hi || lo >= cut) {
+            return NONE;
+        }
+        int mid = (lo + hi) >>> 1;
+        if (hi <= cut) {
+            return maxEnds[mid];
+        }
+        int result = maxEndBefore(lo, mid, cut);
+        if (mid < cut) {
+            result = Math.max(result, Math.max(ends[mid], maxEndBefore(mid + 1, hi, cut)));
+        }
+        return result;
+    }
+
+    private boolean findOverlap(int lo, int hi, int start, int end) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (maxEnds[mid] <= start) {
+                return false; // alles in diesem Teilbaum endet vorher
+            }
+            if (starts[mid] < end && ends[mid] > start) {
+                return true;
+            }
+            if (findOverlap(lo, mid, start, end)) {
+                return true;
+            }
+            if (starts[mid] >= end) {
+                return false; // rechts beginnt alles noch später
+            }
+            lo = mid + 1;
+        }
+        return false;
+    }
+
+    private int maxEndOverlapping(int lo, int hi, int start, int end) {
+        if (lo >= hi) {
+            return NONE;
+        }
+        int mid = (lo + hi) >>> 1;
+        if (maxEnds[mid] <= start) {
+            return NONE;
+        }
+        int result = maxEndOverlapping(lo, mid, start, end);
+        if (starts[mid] < end) {
+            if (ends[mid] > start) {
+                result = Math.max(result, ends[mid]);
+            }
+            result = Math.max(result, maxEndOverlapping(mid + 1, hi, start, end));
+        }
+        return result;
+    }
+
+    private int updateMaxEnds(int lo, int hi) {
+        if (lo >= hi) {
+            return NONE;
+        }
+        int mid = (lo + hi) >>> 1;
+        int max = Math.max(ends[mid], Math.max(updateMaxEnds(lo, mid), updateMaxEnds(mid + 1, hi)));
+        maxEnds[mid] = max;
+        return max;
+    }
+}
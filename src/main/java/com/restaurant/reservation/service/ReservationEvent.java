@@ -0,0 +1,47 @@
+package com.restaurant.reservation.service;
+
+import com.restaurant.reservation.model.Reservation;
+
+/**
+ * Änderung an genau einer Reservierung, veröffentlicht über
+ * {@link ReservationEventBus}.
+ */
+public final class ReservationEvent {
+    /** Art der Änderung. */
+    public enum Type {
+        /** Reservierung wurde angelegt. */
+        CREATED,
+        /** Reservierung wurde storniert (gelöscht). */
+        CANCELLED,
+        /** Status der Reservierung wurde geändert. */
+        STATUS_CHANGED,
+        /** Reservierung wurde an einen anderen Tisch gesetzt. */
+        TABLE_CHANGED
+    }
+
+    private final Type type;
+    private final Reservation reservation;
+
+    public ReservationEvent(Type type, Reservation reservation) {
+        this.type = type;
+        this.reservation = reservation;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Reservierung nach der Änderung; bei {@link Type#CANCELLED} der Stand
+     * vor dem Löschen. Das Objekt wird von allen Empfängern geteilt und darf
+     * nicht verändert werden.
+     */
+    public Reservation getReservation() {
+        return reservation;
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + reservation;
+    }
+}
@@ -0,0 +1,48 @@
+package com.restaurant.reservation.service;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Verteilt Änderungen an Reservierungen innerhalb der Anwendung, damit alle
+ * offenen Fenster nur die betroffene Zeile nachführen, statt ihre Daten neu
+ * zu laden.
+ * <p>
+ * Ereignisse werden synchron auf dem Thread zugestellt, der die Änderung
+ * gespeichert hat – bei Fenstern also meist ein Hintergrund-Thread. Empfänger
+ * in der Oberfläche müssen selbst auf den EDT wechseln. Ein Fehler in einem
+ * Empfänger wird gemeldet und hält die übrigen nicht auf.
+ */
+public class ReservationEventBus {
+    private static final ReservationEventBus SHARED = new ReservationEventBus();
+
+    private final List<Consumer<ReservationEvent>> listeners = new CopyOnWriteArrayList<>();
+
+    /** Gemeinsamer Bus für alle Fenster dieser Anwendung. */
+    public static ReservationEventBus shared() {
+        return SHARED;
+    }
+
+    /** Meldet einen Empfänger an. */
+    public void subscribe(Consumer<ReservationEvent> listener) {
+        listeners.add(listener);
+    }
+
+    /** Meldet einen Empfänger wieder ab, z.B. beim Schließen eines Fensters. */
+    public void unsubscribe(Consumer<ReservationEvent> listener) {
+        listeners.remove(listener);
+    }
+
+    /** Stellt ein Ereignis allen angemeldeten Empfängern zu. */
+    public void publish(ReservationEvent event) {
+        for (Consumer<ReservationEvent> listener : listeners) {
+            try {
+                listener.accept(event);
+            } catch (RuntimeException e) {
+                System.err.println("Fehler beim Zustellen von " + event + ": " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+    }
+}
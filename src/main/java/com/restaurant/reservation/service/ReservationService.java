@@ -1,123 +1,572 @@
 package com.restaurant.reservation.service;
 
 import com.restaurant.reservation.dao.ReservationDAO;
+import com.restaurant.reservation.dao.ReservationExporter;
+import com.restaurant.reservation.dao.ReservationImporter;
+import com.restaurant.reservation.dao.WaitlistDAO;
+import com.restaurant.reservation.dao.WriteResult;
+import com.restaurant.reservation.metrics.ReservationMetrics;
 import com.restaurant.reservation.model.Reservation;
+import com.restaurant.reservation.model.ReservationStatus;
+import com.restaurant.reservation.model.StatisticsSnapshot;
+import com.restaurant.reservation.model.Table;
+import com.restaurant.reservation.model.WaitlistEntry;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Service-Schicht für Geschäftslogik rund um Reservierungen.
  * Kapselt die Datenbankzugriffe und führt Plausibilitätsprüfungen durch.
+ * Buchungen, Stornierungen und Statusänderungen werden nach dem Speichern
+ * über den {@link ReservationEventBus} gemeldet.
  */
 public class ReservationService {
+    /** Zeitbudget für die Tischverteilung eines Tages. */
+    private static final Duration ASSIGNMENT_BUDGET = Duration.ofSeconds(2);
+
     private ReservationDAO dao;
+    private final TableService tableService;
+    private final AvailabilityIndex availability;
+    private final ReservationStore store;
+    private final ReservationEventBus events;
+    private final TableAssignmentOptimizer optimizer;
+    private final WaitlistDAO waitlistDao;
+    private final WaitlistIndex waitlist;
 
     public ReservationService() {
         this.dao = new ReservationDAO();
+        this.tableService = new TableService();
+        this.availability = AvailabilityIndex.shared();
+        this.store = ReservationStore.shared();
+        this.events = ReservationEventBus.shared();
+        this.optimizer = new TableAssignmentOptimizer();
+        this.waitlistDao = new WaitlistDAO();
+        this.waitlist = WaitlistIndex.shared();
+    }
+
+    /** Rumpf eines Service-Aufrufs für {@link #timed}. */
+    @FunctionalInterface
+    private interface ServiceCall<T> {
+        T call() throws Exception;
     }
 
     /**
-     * Holt alle bestehenden Reservierungen.
-     * @return Liste der Reservierungen
-     * @throws Exception falls die Daten nicht geladen werden konnten
+     * Führt einen Service-Aufruf aus und erfasst seine Laufzeit in den
+     * {@link ReservationMetrics} unter "service." und dem Methodennamen.
+     * Datenbankfehler werden mit der angegebenen Meldung weitergereicht,
+     * fachliche Fehler unverändert.
      */
-    public java.util.List<Reservation> getAllReservations() throws Exception {
+    private static <T> T timed(String method, String dbErrorMessage, ServiceCall<T> call) throws Exception {
+        long start = System.nanoTime();
         try {
-            return dao.getAllReservations();
+            return call.call();
         } catch (SQLException e) {
             e.printStackTrace();
-            throw new Exception("Datenbankfehler beim Laden der Reservierungen.", e);
+            throw new Exception(dbErrorMessage, e);
+        } finally {
+            ReservationMetrics.record("service." + method, start);
+        }
+    }
+
+    /** Prüft Datum (YYYY-MM-DD) und Uhrzeiten (HH:MM) vor dem ersten Zugriff. */
+    private static void checkDateTime(String date, String... times) throws Exception {
+        try {
+            LocalDate.parse(date);
+            for (String time : times) {
+                LocalTime.parse(time);
+            }
+        } catch (DateTimeParseException e) {
+            throw new Exception("Ungültiges Datum oder Uhrzeit");
         }
     }
 
     /**
-     * Legt eine neue Reservierung mit den angegebenen Daten an.
-     * Prüft auf Doppelbuchungen und speichert dann über den DAO.
+     * Holt alle bestehenden Reservierungen.
+     * @return Liste der Reservierungen
+     * @throws Exception falls die Daten nicht geladen werden konnten
+     */
+    public List<Reservation> getAllReservations() throws Exception {
+        return timed("getAllReservations", "Datenbankfehler beim Laden der Reservierungen.", store::getAll);
+    }
+
+    /**
+     * Holt alle Reservierungen zwischen zwei Daten (jeweils inklusive).
+     * @param from erstes Datum
+     * @param to letztes Datum
+     * @return Liste der Reservierungen, sortiert nach Datum und Uhrzeit
+     * @throws Exception falls die Daten nicht geladen werden konnten
+     */
+    public List<Reservation> getReservationsBetween(LocalDate from, LocalDate to) throws Exception {
+        return timed("getReservationsBetween", "Datenbankfehler beim Laden der Reservierungen.",
+                () -> store.getBetween(from, to));
+    }
+
+    /**
+     * Holt eine Seite von Reservierungen (sortiert nach Datum, Uhrzeit, ID)
+     * direkt nach der angegebenen Reservierung.
+     * @param after letzte Reservierung der vorherigen Seite oder {@code null}
+     * @param limit maximale Anzahl Zeilen
+     * @return Reservierungen dieser Seite
+     * @throws Exception falls die Daten nicht geladen werden konnten
+     */
+    public List<Reservation> getReservationPage(Reservation after, int limit) throws Exception {
+        return timed("getReservationPage", "Datenbankfehler beim Laden der Reservierungen.",
+                () -> store.getPage(after, limit));
+    }
+
+    /**
+     * Liefert den Sortierschlüssel der Reservierung an einer Listenposition.
+     * @param position Position (0-basiert)
+     * @return Reservierung mit ID, Datum und Uhrzeit oder {@code null}
+     * @throws Exception bei Datenbankfehlern
+     */
+    public Reservation getReservationKeyAt(int position) throws Exception {
+        return timed("getReservationKeyAt", "Datenbankfehler beim Laden der Reservierungen.",
+                () -> store.getAt(position));
+    }
+
+    /**
+     * Liefert eine einzelne Reservierung.
+     * @param reservationId die ID
+     * @return die Reservierung oder {@code null}
+     * @throws Exception bei Datenbankfehlern
+     */
+    public Reservation getReservation(int reservationId) throws Exception {
+        return timed("getReservation", "Datenbankfehler beim Laden der Reservierung.",
+                () -> dao.getReservationById(reservationId));
+    }
+
+    /**
+     * Legt eine neue Reservierung mit der üblichen Sitzdauer für die
+     * Personenzahl an (siehe {@link Reservation#defaultDuration(int)}).
      * @param name Name des Kunden
      * @param date Datum (YYYY-MM-DD)
      * @param time Uhrzeit (HH:MM)
      * @param persons Anzahl der Personen
      * @param tableNumber Tisch-Nummer
+     * @return die gespeicherte Reservierung
      * @throws Exception bei fachlichen Fehlern (z.B. Doppelbuchung) oder Datenbankfehlern
      */
-    public void addReservation(String name, String date, String time, int persons, int tableNumber) throws Exception {
-        try {
+    public Reservation addReservation(String name, String date, String time, int persons, int tableNumber)
+            throws Exception {
+        return addReservation(name, date, time, persons, tableNumber, Reservation.defaultDuration(persons));
+    }
+
+    /**
+     * Legt eine neue Reservierung mit den angegebenen Daten an.
+     * Überschneidungen mit anderen Sitzzeiten des Tisches werden zuerst im
+     * Belegungsindex gesucht; die verbindliche Prüfung erfolgt beim Speichern
+     * im DAO atomar, sodass auch parallele Buchungen sicher sind.
+     * @param name Name des Kunden
+     * @param date Datum (YYYY-MM-DD)
+     * @param time Uhrzeit (HH:MM)
+     * @param persons Anzahl der Personen
+     * @param tableNumber Tisch-Nummer
+     * @param durationMinutes Sitzdauer in Minuten
+     * @return die gespeicherte Reservierung
+     * @throws SlotTakenException falls sich die Sitzzeit mit einer anderen überschneidet
+     * @throws Exception bei anderen fachlichen Fehlern oder Datenbankfehlern
+     */
+    public Reservation addReservation(String name, String date, String time, int persons, int tableNumber,
+                               int durationMinutes) throws Exception {
+        return timed("addReservation", "Datenbankfehler beim Speichern der Reservierung.", () -> {
             if (name == null || name.trim().isEmpty()) {
                 throw new Exception("Name darf nicht leer sein");
             }
             if (persons <= 0) {
                 throw new Exception("Personenzahl ungültig");
             }
-            java.time.LocalDate.parse(date);
-            java.time.LocalTime.parse(time);
-            if (dao.existsReservation(date, time, tableNumber)) {
-                throw new Exception("Tisch belegt");
+            if (durationMinutes < Reservation.MIN_DURATION || durationMinutes > Reservation.MAX_DURATION) {
+                throw new Exception("Sitzdauer ungültig");
             }
-            Reservation res = new Reservation(name.trim(), date, time, persons, tableNumber);
-            dao.addReservation(res);
-        } catch (SQLException e) {
-            e.printStackTrace();
-            throw new Exception("Datenbankfehler beim Speichern der Reservierung.", e);
-        } catch (java.time.format.DateTimeParseException ex) {
-            throw new Exception("Ungültiges Datum oder Uhrzeit");
-        }
+            checkDateTime(date, time);
+            if (!availability.isFree(date, time, durationMinutes, tableNumber)) {
+                throw new SlotTakenException(freeAgainHint(date, time, durationMinutes, tableNumber));
+            }
+            Reservation res = new Reservation(null, name.trim(), date, time, persons, tableNumber,
+                    ReservationStatus.PENDING, durationMinutes);
+            if (!dao.addReservation(res)) {
+                // Buchung aus einem anderen Prozess: Index beim nächsten Zugriff neu laden
+                availability.invalidate();
+                throw new SlotTakenException("");
+            }
+            availability.markReserved(res);
+            events.publish(new ReservationEvent(ReservationEvent.Type.CREATED, res));
+            return res;
+        });
+    }
+
+    /** Hinweis, ab wann der Tisch am selben Tag wieder für die Dauer frei ist. */
+    private String freeAgainHint(String date, String time, int durationMinutes, int tableNumber)
+            throws SQLException {
+        int minute = availability.nextFree(date, time, durationMinutes, tableNumber);
+        return minute < 24 * 60 ? " – wieder frei ab " + LocalTime.of(minute / 60, minute % 60) : "";
     }
 
     /**
-     * Löscht die Reservierung mit der angegebenen ID.
+     * Löscht die Reservierung mit der angegebenen ID ohne Versionsprüfung,
+     * siehe {@link #deleteReservation(int, int)}.
      * @param reservationId die ID der zu löschenden Reservierung
+     * @return {@code true}, falls die Reservierung existierte
      * @throws Exception falls beim Löschen ein Fehler auftritt
      */
-    public void deleteReservation(int reservationId) throws Exception {
-        try {
-            dao.deleteReservation(reservationId);
-        } catch (SQLException e) {
-            e.printStackTrace();
-            throw new Exception("Datenbankfehler beim Löschen der Reservierung.", e);
+    public boolean deleteReservation(int reservationId) throws Exception {
+        return deleteReservation(reservationId, ReservationDAO.ANY_VERSION).isApplied();
+    }
+
+    /**
+     * Löscht die Reservierung mit der angegebenen ID, sofern sie noch die
+     * zuletzt gelesene Version hat. Passt ein Gast von der Warteliste an den
+     * frei gewordenen Tisch, rückt er in derselben Transaktion zur selben
+     * Uhrzeit nach (siehe {@link WaitlistIndex#best}).
+     * @param reservationId die ID der zu löschenden Reservierung
+     * @param expectedVersion zuletzt gelesene Version oder {@link ReservationDAO#ANY_VERSION}
+     * @return angewendet, Konflikt mit dem aktuellen Stand oder nicht gefunden
+     * @throws Exception falls beim Löschen ein Fehler auftritt
+     */
+    public WriteResult deleteReservation(int reservationId, int expectedVersion) throws Exception {
+        return timed("deleteReservation", "Datenbankfehler beim Löschen der Reservierung.", () -> {
+            ReservationDAO.Cancellation cancellation =
+                    dao.cancelReservation(reservationId, expectedVersion, this::selectSuccessor);
+            WriteResult result = cancellation.getResult();
+            if (result.isConflict()) {
+                publishCurrent(result.getReservation());
+                return result;
+            }
+            Reservation deleted = cancellation.getCancelled();
+            if (deleted != null) {
+                availability.markFree(deleted);
+                events.publish(new ReservationEvent(ReservationEvent.Type.CANCELLED, deleted));
+            }
+            Reservation promoted = cancellation.getPromoted();
+            if (promoted != null) {
+                waitlist.remove(cancellation.getWaitlistEntry());
+                availability.markReserved(promoted);
+                events.publish(new ReservationEvent(ReservationEvent.Type.CREATED, promoted));
+            } else if (cancellation.getWaitlistEntry() != null) {
+                // Eintrag oder Belegung wurden von einem anderen Prozess geändert
+                waitlist.invalidate();
+                availability.invalidate();
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Überträgt den gespeicherten Stand einer Reservierung samt Version in den
+     * Lesebestand und meldet ihn. Nach einem Versionskonflikt zeigen die Fenster
+     * so die Änderung des anderen Arbeitsplatzes an.
+     */
+    private void publishCurrent(Reservation current) {
+        Reservation known = store.apply(current);
+        events.publish(new ReservationEvent(ReservationEvent.Type.STATUS_CHANGED, known != null ? known : current));
+    }
+
+    /**
+     * Nachrücker für eine stornierte Reservierung: Die Gruppe muss an den
+     * Tisch passen und ihre übliche Sitzdauer bis zur nächsten Buchung des
+     * Tisches am selben Tag haben.
+     */
+    private WaitlistEntry selectSuccessor(Reservation cancelled) throws SQLException {
+        Table table = tableService.getTableById(cancelled.getTableNumber());
+        if (table == null) {
+            return null;
         }
+        int minute = LocalTime.parse(cancelled.getTime()).toSecondOfDay() / 60;
+        int next = availability.neighbours(cancelled.getDate(), cancelled.getTime(), 1, table.getId())[1];
+        int maxDuration = next == IntervalTree.NONE ? Reservation.MAX_DURATION : next - minute;
+        return waitlist.best(cancelled.getDate(), cancelled.getTime(), table.getSeats(), maxDuration);
     }
 
     /**
-     * Prüft, ob ein Tisch für den angegebenen Zeitpunkt bereits reserviert ist.
+     * Setzt eine Gruppe auf die Warteliste. Sie rückt nach, sobald zu einer
+     * Uhrzeit in ihrem Zeitfenster ein passender Tisch storniert wird.
+     * @param name Name des Kunden
+     * @param date Datum (YYYY-MM-DD)
+     * @param earliest frühester Beginn (HH:MM)
+     * @param latest spätester Beginn (HH:MM)
+     * @param persons Anzahl der Personen
+     * @param priority höhere Werte rücken zuerst nach
+     * @return der gespeicherte Eintrag
+     * @throws Exception bei ungültigen Angaben oder Datenbankfehlern
+     */
+    public WaitlistEntry addToWaitlist(String name, String date, String earliest, String latest, int persons,
+                                       int priority) throws Exception {
+        return timed("addToWaitlist", "Datenbankfehler beim Speichern des Wartelisten-Eintrags.", () -> {
+            if (name == null || name.trim().isEmpty()) {
+                throw new Exception("Name darf nicht leer sein");
+            }
+            if (persons <= 0) {
+                throw new Exception("Personenzahl ungültig");
+            }
+            checkDateTime(date, earliest, latest);
+            if (LocalTime.parse(earliest).isAfter(LocalTime.parse(latest))) {
+                throw new Exception("Zeitfenster ungültig");
+            }
+            WaitlistEntry entry = new WaitlistEntry(name.trim(), date, earliest, latest, persons, priority);
+            waitlistDao.addEntry(entry);
+            waitlist.add(entry);
+            return entry;
+        });
+    }
+
+    /**
+     * Liefert die Warteliste eines Tages in der Reihenfolge des Nachrückens.
+     * @param date Datum
+     * @throws Exception bei Datenbankfehlern
+     */
+    public List<WaitlistEntry> getWaitlist(LocalDate date) throws Exception {
+        return timed("getWaitlist", "Datenbankfehler beim Laden der Warteliste.",
+                () -> waitlist.getEntries(date.toString()));
+    }
+
+    /**
+     * Entfernt einen Eintrag von der Warteliste.
+     * @param entryId die ID des Eintrags
+     * @throws Exception bei Datenbankfehlern
+     */
+    public void removeFromWaitlist(int entryId) throws Exception {
+        timed("removeFromWaitlist", "Datenbankfehler beim Entfernen des Wartelisten-Eintrags.", () -> {
+            WaitlistEntry removed = waitlistDao.deleteEntry(entryId);
+            if (removed != null) {
+                waitlist.remove(removed);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Importiert Reservierungen aus einer SQL- oder CSV-Datei. Doppelbuchungen
+     * und ungültige Zeilen werden übersprungen und im Ergebnis gemeldet.
+     * @param file Importdatei (".csv" oder SQL mit INSERT-Anweisungen)
+     * @param listener erhält nach jedem geschriebenen Block den Zwischenstand, darf null sein
+     * @return Stand nach dem Import
+     * @throws Exception bei Lese- oder Datenbankfehlern
+     */
+    public ReservationImporter.ImportResult importReservations(Path file,
+            ReservationImporter.ProgressListener listener) throws Exception {
+        return timed("importReservations", "Datenbankfehler beim Import der Reservierungen.", () -> {
+            try {
+                return new ReservationImporter(listener).importFile(file);
+            } catch (IOException e) {
+                throw new Exception("Importdatei konnte nicht gelesen werden: " + e.getMessage(), e);
+            } finally {
+                // auch ein abgebrochener Import kann bereits Blöcke geschrieben haben
+                availability.invalidate();
+            }
+        });
+    }
+
+    /**
+     * Exportiert Reservierungen oder Stornierungen in eine Datei. Format und
+     * Komprimierung ergeben sich aus der Endung (".csv", ".jsonl", optional ".gz").
+     * @param source zu exportierende Tabelle
+     * @param file Zieldatei
+     * @param from erstes Datum (YYYY-MM-DD, inklusive) oder null
+     * @param to letztes Datum (YYYY-MM-DD, inklusive) oder null
+     * @return Anzahl exportierter Zeilen
+     * @throws Exception bei Schreib- oder Datenbankfehlern
+     */
+    public long exportData(ReservationExporter.Source source, Path file,
+                           String from, String to) throws Exception {
+        return timed("exportData", "Datenbankfehler beim Export.", () -> {
+            try {
+                if (from != null) LocalDate.parse(from);
+                if (to != null) LocalDate.parse(to);
+                return new ReservationExporter().exportFile(source, file, from, to);
+            } catch (DateTimeParseException e) {
+                throw new Exception("Ungültiges Datum");
+            } catch (IOException e) {
+                throw new Exception("Exportdatei konnte nicht geschrieben werden: " + e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * Prüft, ob ein Tisch zum angegebenen Zeitpunkt besetzt ist, also eine
+     * Reservierung vorher beginnt und ihre Sitzdauer noch nicht abgelaufen ist.
+     * Die Abfrage wird aus dem Belegungsindex im Speicher beantwortet; ein Tag
+     * wird dafür beim ersten Zugriff einmalig geladen.
      * @param date Datum (YYYY-MM-DD)
      * @param time Uhrzeit (HH:MM)
      * @param tableNumber Tisch-Nr
-     * @return true, wenn bereits eine Reservierung existiert
+     * @return true, wenn der Tisch zu dieser Zeit belegt ist
      * @throws Exception bei Datenbankfehlern
      */
     public boolean isTableReserved(String date, String time, int tableNumber) throws Exception {
-        try {
-            return dao.existsReservation(date, time, tableNumber);
-        } catch (SQLException e) {
-            e.printStackTrace();
-            throw new Exception("Datenbankfehler beim Prüfen der Reservierung.", e);
-        }
+        return timed("isTableReserved", "Datenbankfehler beim Prüfen der Reservierung.",
+                () -> availability.isReserved(date, time, tableNumber));
+    }
+
+    /**
+     * Ermittelt, ab wann ein Tisch frühestens für die angegebene Dauer frei ist.
+     * @param date Datum (YYYY-MM-DD)
+     * @param time gewünschte Uhrzeit (HH:MM)
+     * @param tableNumber Tisch-Nr
+     * @param durationMinutes gewünschte Sitzdauer in Minuten
+     * @return früheste freie Uhrzeit ab {@code time} oder {@code null}, wenn der
+     *         Tisch an diesem Tag nicht mehr frei wird
+     * @throws Exception bei ungültigen Eingaben oder Datenbankfehlern
+     */
+    public LocalTime getNextFreeTime(String date, String time, int tableNumber, int durationMinutes)
+            throws Exception {
+        return timed("getNextFreeTime", "Datenbankfehler beim Prüfen der Reservierung.", () -> {
+            if (durationMinutes < Reservation.MIN_DURATION || durationMinutes > Reservation.MAX_DURATION) {
+                throw new Exception("Sitzdauer ungültig");
+            }
+            checkDateTime(date, time);
+            int minute = availability.nextFree(date, time, durationMinutes, tableNumber);
+            return minute < 24 * 60 ? LocalTime.of(minute / 60, minute % 60) : null;
+        });
+    }
+
+    /**
+     * Liefert alle Tische mit genügend Sitzplätzen, die ab dem angegebenen
+     * Zeitpunkt für die übliche Sitzdauer der Personenzahl frei sind, beste
+     * Passung (wenigste Sitzplätze) zuerst. Die Tische aus dem Tischbestand
+     * werden ohne Abfrage über den Belegungsindex gefiltert.
+     * @param date Datum (YYYY-MM-DD)
+     * @param time Uhrzeit (HH:MM)
+     * @param persons Anzahl der Personen
+     * @return Liste der freien Tische
+     * @throws Exception bei Datenbankfehlern
+     */
+    public List<Table> findFreeTables(String date, String time, int persons) throws Exception {
+        return timed("findFreeTables", "Datenbankfehler beim Suchen freier Tische.", () -> {
+            int duration = Reservation.defaultDuration(persons);
+            List<Table> free = new ArrayList<>();
+            for (Table table : tableService.getTablesWithSeats(persons)) {
+                if (availability.isFree(date, time, duration, table.getId())) {
+                    free.add(table);
+                }
+            }
+            return free;
+        });
+    }
+
+    /**
+     * Schlägt für eine neue Buchung einen freien Tisch vor: den kleinsten
+     * passenden, und unter gleich großen den, neben dem die wenigsten zu
+     * kurzen Lücken zu anderen Buchungen entstehen
+     * (siehe {@link TableAssignmentOptimizer#placementCost}).
+     * @param date Datum (YYYY-MM-DD)
+     * @param time Uhrzeit (HH:MM)
+     * @param persons Anzahl der Personen
+     * @return vorgeschlagener Tisch oder {@code null}, wenn keiner frei ist
+     * @throws Exception bei Datenbankfehlern
+     */
+    public Table suggestTable(String date, String time, int persons) throws Exception {
+        return timed("suggestTable", "Datenbankfehler beim Suchen freier Tische.", () -> {
+            checkDateTime(date, time);
+            int duration = Reservation.defaultDuration(persons);
+            int minute = LocalTime.parse(time).toSecondOfDay() / 60;
+            Table best = null;
+            long bestCost = Long.MAX_VALUE;
+            for (Table table : tableService.getTablesWithSeats(persons)) {
+                if (!availability.isFree(date, time, duration, table.getId())) {
+                    continue;
+                }
+                int[] neighbours = availability.neighbours(date, time, duration, table.getId());
+                long cost = TableAssignmentOptimizer.placementCost(table.getSeats(), persons,
+                        minute, minute + duration, neighbours[0], neighbours[1]);
+                if (cost < bestCost) {
+                    best = table;
+                    bestCost = cost;
+                }
+            }
+            return best;
+        });
+    }
+
+    /**
+     * Berechnet eine neue Verteilung der offenen Reservierungen eines Tages
+     * auf die Tische (siehe {@link TableAssignmentOptimizer}). Gespeichert
+     * wird erst mit {@link #applyTableAssignment(TableAssignmentOptimizer.Plan)}.
+     * @param day Tag
+     * @return Plan mit Umsetzungen und erwartetem Kapazitätsgewinn
+     * @throws Exception bei Datenbankfehlern
+     */
+    public TableAssignmentOptimizer.Plan planTableAssignment(LocalDate day) throws Exception {
+        return timed("planTableAssignment", "Datenbankfehler beim Verteilen der Tische.", () -> {
+            try {
+                return optimizer.optimize(day.toString(), dao.getReservationsForDate(day.toString()),
+                        dao.getReservationsForDate(day.minusDays(1).toString()),
+                        tableService.getAllTables(), ASSIGNMENT_BUDGET);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new Exception("Tischverteilung wurde abgebrochen.", e);
+            }
+        });
+    }
+
+    /**
+     * Speichert die Umsetzungen eines Plans in einer Transaktion und meldet
+     * jede über den {@link ReservationEventBus}.
+     * @param plan Plan aus {@link #planTableAssignment(LocalDate)}
+     * @return false, wenn sich der Bestand seit der Berechnung geändert hat; dann wird nichts gespeichert
+     * @throws Exception bei Datenbankfehlern
+     */
+    public boolean applyTableAssignment(TableAssignmentOptimizer.Plan plan) throws Exception {
+        return timed("applyTableAssignment", "Datenbankfehler beim Speichern der Tischverteilung.", () -> {
+            List<int[]> moves = new ArrayList<>();
+            for (TableAssignmentOptimizer.Move move : plan.getMoves()) {
+                moves.add(new int[]{move.getReservation().getId(), move.getFromTable(), move.getToTable()});
+            }
+            if (moves.isEmpty()) {
+                return true;
+            }
+            if (!dao.reassignTables(moves)) {
+                availability.invalidate();
+                return false;
+            }
+            for (TableAssignmentOptimizer.Move move : plan.getMoves()) {
+                Reservation before = move.getReservation();
+                Reservation moved = store.updateTable(before.getId(), move.getToTable());
+                if (moved == null) {
+                    moved = new Reservation(before.getId(), before.getName(), before.getDate(), before.getTime(),
+                            before.getPersons(), move.getToTable(), before.getStatus(), before.getDurationMinutes());
+                }
+                availability.markFree(before);
+                availability.markReserved(moved);
+                events.publish(new ReservationEvent(ReservationEvent.Type.TABLE_CHANGED, moved));
+            }
+            return true;
+        });
     }
 
     /** Liefert die Anzahl aktueller Reservierungen. */
     public int getReservationCount() throws Exception {
-        try {
-            return dao.countReservations();
-        } catch (SQLException e) {
-            throw new Exception("Datenbankfehler beim Zählen der Reservierungen.", e);
-        }
+        return timed("getReservationCount", "Datenbankfehler beim Zählen der Reservierungen.", store::size);
     }
 
     /** Liefert die Anzahl stornierter Reservierungen. */
     public int getCancellationCount() throws Exception {
-        try {
-            return dao.countCancellations();
-        } catch (SQLException e) {
-            throw new Exception("Datenbankfehler beim Zählen der Stornierungen.", e);
-        }
+        return timed("getCancellationCount", "Datenbankfehler beim Zählen der Stornierungen.", dao::countCancellations);
+    }
+
+    /**
+     * Liefert alle Kennzahlen für das Statistikfenster aus einer gemeinsamen
+     * Lesetransaktion.
+     * @param popularLimit maximale Anzahl beliebter Uhrzeiten
+     * @return konsistenter Stand der Kennzahlen
+     * @throws Exception bei Datenbankfehlern
+     */
+    public StatisticsSnapshot getStatistics(int popularLimit) throws Exception {
+        return timed("getStatistics", "Datenbankfehler beim Berechnen der Statistiken.",
+                () -> dao.loadStatistics(popularLimit));
     }
 
     /** Beliebteste Uhrzeiten (nach Anzahl Reservierungen). */
-    public java.util.List<String> getPopularTimes(int limit) throws Exception {
-        try {
-            return dao.findPopularTimes(limit);
-        } catch (SQLException e) {
-            throw new Exception("Datenbankfehler beim Ermitteln der Uhrzeiten.", e);
-        }
+    public List<String> getPopularTimes(int limit) throws Exception {
+        return timed("getPopularTimes", "Datenbankfehler beim Ermitteln der Uhrzeiten.",
+                () -> dao.findPopularTimes(limit));
     }
 
     /**
@@ -127,74 +576,97 @@ public class ReservationService {
      * @return Liste der Reservierungen
      * @throws Exception falls ein Datenbankfehler auftritt
      */
-    public java.util.List<Reservation> getReservationsForTable(int tableNumber) throws Exception {
-        try {
-            return dao.getReservationsForTable(tableNumber);
-        } catch (SQLException e) {
-            throw new Exception("Datenbankfehler beim Laden der Reservierungen.", e);
-        }
+    public List<Reservation> getReservationsForTable(int tableNumber) throws Exception {
+        return timed("getReservationsForTable", "Datenbankfehler beim Laden der Reservierungen.",
+                () -> store.getForTable(tableNumber));
     }
 
-    /** Setzt den Status einer Reservierung. */
-    public void setStatus(int reservationId, String status) throws Exception {
-        try {
+    /**
+     * Setzt den Status einer Reservierung ohne Versionsprüfung.
+     * @return die geänderte Reservierung oder {@code null}, falls sie nicht existiert
+     */
+    public Reservation setStatus(int reservationId, ReservationStatus status) throws Exception {
+        if (status == null) {
+            throw new Exception("Ungültiger Status.");
+        }
+        return timed("setStatus", "Datenbankfehler beim Aktualisieren des Status.", () -> {
             dao.updateStatus(reservationId, status);
-        } catch (SQLException e) {
-            throw new Exception("Datenbankfehler beim Aktualisieren des Status.", e);
+            Reservation changed = store.updateStatus(reservationId, status);
+            if (changed == null) {
+                changed = dao.getReservationById(reservationId);
+            }
+            if (changed != null) {
+                events.publish(new ReservationEvent(ReservationEvent.Type.STATUS_CHANGED, changed));
+            }
+            return changed;
+        });
+    }
+
+    /**
+     * Setzt den Status einer Reservierung, sofern sie seit dem Lesen nicht
+     * geändert wurde. Bei einem Konflikt bleibt sie unverändert; das Ergebnis
+     * enthält den aktuellen Stand, mit dessen Version der Aufrufer die
+     * Änderung wiederholen kann.
+     * @param expectedVersion Version der Reservierung, die der Benutzer gesehen hat
+     * @return angewendet, Konflikt oder nicht gefunden
+     */
+    public WriteResult setStatus(int reservationId, ReservationStatus status, int expectedVersion)
+            throws Exception {
+        if (status == null) {
+            throw new Exception("Ungültiger Status.");
         }
+        return timed("setStatus", "Datenbankfehler beim Aktualisieren des Status.", () -> {
+            WriteResult result = dao.updateStatus(reservationId, status, expectedVersion);
+            if (result.getReservation() != null) {
+                publishCurrent(result.getReservation());
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Liefert alle Reservierungen bis einschließlich des angegebenen Tages,
+     * deren Status noch offen ist.
+     *
+     * @param until letzter Tag (inklusive)
+     * @return offene Reservierungen, sortiert nach Termin
+     * @throws Exception falls ein Datenbankfehler auftritt
+     */
+    public List<Reservation> getOpenReservations(LocalDate until) throws Exception {
+        return timed("getOpenReservations", "Datenbankfehler beim Laden der Reservierungen.",
+                () -> dao.getOpenReservations(until.toString()));
     }
 
     /** Anzahl der No-Shows. */
     public int getNoShowCount() throws Exception {
-        try {
-            return dao.countNoShows();
-        } catch (SQLException e) {
-            throw new Exception("Datenbankfehler beim Zählen der No-Shows.", e);
-        }
+        return timed("getNoShowCount", "Datenbankfehler beim Zählen der No-Shows.", dao::countNoShows);
     }
 
     /** Anzahl der als erschienen markierten Reservierungen. */
     public int getAttendedCount() throws Exception {
-        try {
-            return dao.countAttended();
-        } catch (SQLException e) {
-            throw new Exception("Datenbankfehler beim Zählen der Besuche.", e);
-        }
+        return timed("getAttendedCount", "Datenbankfehler beim Zählen der Besuche.", dao::countAttended);
     }
 
     /** Durchschnittliche Reservierungen pro Tag. */
     public double getAverageReservationsPerDay() throws Exception {
-        try {
-            return dao.averageReservationsPerDay();
-        } catch (SQLException e) {
-            throw new Exception("Datenbankfehler beim Berechnen der Durchschnittsreservierungen.", e);
-        }
+        return timed("getAverageReservationsPerDay", "Datenbankfehler beim Berechnen der Durchschnittsreservierungen.",
+                dao::averageReservationsPerDay);
     }
 
     /** Durchschnittliche Auslastung in Prozent. */
     public double getAverageOccupancy() throws Exception {
-        try {
-            return dao.averageOccupancy();
-        } catch (SQLException e) {
-            throw new Exception("Datenbankfehler beim Berechnen der Auslastung.", e);
-        }
+        return timed("getAverageOccupancy", "Datenbankfehler beim Berechnen der Auslastung.", dao::averageOccupancy);
     }
 
     /** Durchschnittliche Zeit zwischen Buchung und Termin in Stunden. */
     public double getAverageLeadTimeHours() throws Exception {
-        try {
-            return dao.averageLeadTimeHours();
-        } catch (SQLException e) {
-            throw new Exception("Datenbankfehler beim Berechnen des Buchungszeitpunkts.", e);
-        }
+        return timed("getAverageLeadTimeHours", "Datenbankfehler beim Berechnen des Buchungszeitpunkts.",
+                dao::averageLeadTimeHours);
     }
 
     /** Durchschnittliche Bearbeitungszeit in Stunden. */
     public double getAverageProcessingTimeHours() throws Exception {
-        try {
-            return dao.averageProcessingTimeHours();
-        } catch (SQLException e) {
-            throw new Exception("Datenbankfehler beim Berechnen der Bearbeitungszeit.", e);
-        }
+        return timed("getAverageProcessingTimeHours", "Datenbankfehler beim Berechnen der Bearbeitungszeit.",
+                dao::averageProcessingTimeHours);
     }
 }
@@ -0,0 +1,462 @@
+package com.restaurant.reservation.service;
+
+import com.restaurant.reservation.dao.Database;
+import com.restaurant.reservation.dao.ReservationDAO;
+import com.restaurant.reservation.model.Reservation;
+import com.restaurant.reservation.model.ReservationStatus;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Spaltenorientierter Lesebestand aller Reservierungen im Speicher.
+ * <p>
+ * Statt eines {@link Reservation}-Objekts je Zeile gibt es pro Eigenschaft
+ * ein int-Array: Tag (Epoch-Tag), Minute des Tages, Sitzdauer, Tisch, Personen,
+ * Statuscode, Namenscode, Zeilenversion und ID. Der Status steht als Code von
+ * {@link ReservationStatus} im Array, Gästenamen werden über ein Wörterbuch
+ * kodiert, jeder Name liegt also nur einmal im Speicher. Eine
+ * Reservierung kostet so 36 Bytes statt mehrerer hundert, und Durchläufe
+ * über eine Spalte lesen zusammenhängenden Speicher. Die Zeilen sind wie die
+ * Liste nach Termin und ID sortiert; Objekte entstehen erst für die Zeilen,
+ * die tatsächlich angezeigt werden.
+ * <p>
+ * Der Bestand wird beim ersten Zugriff mit einem einzigen Cursor-Durchlauf
+ * geladen und vor jedem Zugriff inkrementell nachgeführt: neue Zeilen über die
+ * fortlaufende ID, gelöschte über das Stornoprotokoll und Status-, Tisch- und
+ * Versionsänderungen über das Änderungsprotokoll, auch wenn sie von einem
+ * anderen Arbeitsplatz stammen. Eigene Änderungen werden zusätzlich sofort
+ * über {@link #updateStatus(int, ReservationStatus)}, {@link #updateTable(int, int)}
+ * und {@link #apply(Reservation)} übernommen. Zeilen ohne gültigen Termin
+ * (start_min) werden nicht aufgenommen.
+ */
+public class ReservationStore {
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final String[] TIMES = new String[MINUTES_PER_DAY];
+
+    static {
+        for (int m = 0; m < MINUTES_PER_DAY; m++) {
+            TIMES[m] = LocalTime.of(m / 60, m % 60).toString();
+        }
+    }
+
+    private static final ReservationStore SHARED = new ReservationStore(new ReservationDAO());
+
+    private final ReservationDAO dao;
+    private final Dictionary names = new Dictionary();
+
+    private int size;
+    private int[] days = new int[0];
+    private int[] minutes = new int[0];
+    private int[] durations = new int[0];
+    private int[] tables = new int[0];
+    private int[] persons = new int[0];
+    private int[] statusCodes = new int[0];
+    private int[] nameCodes = new int[0];
+    private int[] versions = new int[0];
+    private int[] ids = new int[0];
+
+    /** Datenbank, aus der der Bestand geladen wurde, {@code null} vor dem ersten Laden. */
+    private String url;
+    private int lastId;
+    private long lastCancellationId;
+    private long lastChangeId;
+
+    public ReservationStore(ReservationDAO dao) {
+        this.dao = dao;
+    }
+
+    /** Gemeinsamer Bestand für alle Fenster dieser Anwendung. */
+    public static ReservationStore shared() {
+        return SHARED;
+    }
+
+    /** Anzahl der Reservierungen. */
+    public synchronized int size() throws SQLException {
+        refresh();
+        return size;
+    }
+
+    /** Alle Reservierungen in der Reihenfolge (Termin, ID). */
+    public synchronized List<Reservation> getAll() throws SQLException {
+        refresh();
+        return materialize(0, size);
+    }
+
+    /**
+     * Reservierungen zwischen zwei Daten (jeweils inklusive), gefunden per
+     * binärer Suche über die sortierten Termine.
+     */
+    public synchronized List<Reservation> getBetween(LocalDate from, LocalDate to) throws SQLException {
+        refresh();
+        int first = firstAfter(from.toEpochDay() * MINUTES_PER_DAY, Integer.MIN_VALUE);
+        int last = firstAfter((to.toEpochDay() + 1) * MINUTES_PER_DAY, Integer.MIN_VALUE);
+        return materialize(first, Math.max(first, last));
+    }
+
+    /**
+     * Seite von Reservierungen direkt nach dem angegebenen Schlüssel.
+     * @param after letzte Reservierung der vorherigen Seite oder {@code null}
+     * @param limit maximale Anzahl Zeilen
+     */
+    public synchronized List<Reservation> getPage(Reservation after, int limit) throws SQLException {
+        refresh();
+        int first = after == null ? 0 : firstAfter(startOf(after.getDate(), after.getTime()), after.getId());
+        return materialize(first, Math.min(size, first + limit));
+    }
+
+    /** Reservierung an einer Listenposition oder {@code null}. */
+    public synchronized Reservation getAt(int position) throws SQLException {
+        refresh();
+        return position >= 0 && position < size ? materialize(position) : null;
+    }
+
+    /** Alle Reservierungen eines Tisches, per Durchlauf über die Tischspalte. */
+    public synchronized List<Reservation> getForTable(int tableNumber) throws SQLException {
+        refresh();
+        List<Reservation> list = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            if (tables[i] == tableNumber) {
+                list.add(materialize(i));
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Übernimmt eine Statusänderung, die über den Service gespeichert wurde.
+     * @return die geänderte Reservierung oder {@code null}, wenn sie nicht im Bestand ist
+     */
+    public synchronized Reservation updateStatus(int id, ReservationStatus status) {
+        int row = indexOf(id);
+        if (row < 0) {
+            return null;
+        }
+        statusCodes[row] = status.getCode();
+        versions[row]++;
+        return materialize(row);
+    }
+
+    /**
+     * Übernimmt eine Umsetzung an einen anderen Tisch, die über den Service
+     * gespeichert wurde.
+     * @return die geänderte Reservierung oder {@code null}, wenn sie nicht im Bestand ist
+     */
+    public synchronized Reservation updateTable(int id, int tableNumber) {
+        int row = indexOf(id);
+        if (row < 0) {
+            return null;
+        }
+        tables[row] = tableNumber;
+        versions[row]++;
+        return materialize(row);
+    }
+
+    /**
+     * Übernimmt Status, Tisch und Version einer Reservierung, wie sie gerade
+     * aus der Datenbank gelesen wurde, z.B. nach einem Versionskonflikt.
+     * @return die Reservierung im Bestand oder {@code null}, wenn sie nicht im Bestand ist
+     */
+    public synchronized Reservation apply(Reservation current) {
+        int row = indexOf(current.getId());
+        if (row < 0) {
+            return null;
+        }
+        statusCodes[row] = current.getStatus().getCode();
+        tables[row] = current.getTableNumber();
+        versions[row] = current.getVersion();
+        return materialize(row);
+    }
+
+    /** Verwirft den Bestand; er wird beim nächsten Zugriff neu geladen. */
+    public synchronized void invalidate() {
+        url = null;
+    }
+
+    /**
+     * Gleicht den Bestand mit der Datenbank ab. Erst werden neue Stornierungen
+     * gelesen, dann neue Zeilen: eine zwischendurch angelegte und wieder
+     * stornierte Reservierung taucht so in keinem der beiden Durchläufe auf.
+     * Zuletzt werden geänderte Zeilen mit ihrem aktuellen Stand überschrieben;
+     * eine Änderung an einer Zeile, die noch nicht im Bestand ist, bringt der
+     * nächste Durchlauf über die neuen Zeilen mit.
+     */
+    private void refresh() throws SQLException {
+        String current = Database.getUrl();
+        if (!current.equals(url)) {
+            size = 0;
+            names.clear();
+            lastId = 0;
+            lastCancellationId = dao.findLastCancellationId();
+            lastChangeId = dao.findLastChangeId();
+            url = current;
+        }
+        Set<Integer> cancelled = new HashSet<>();
+        lastCancellationId = dao.scanCancellations(lastCancellationId, cancelled::add);
+        Delta delta = new Delta();
+        lastId = dao.scanReservations(lastId, delta::add);
+        if (!cancelled.isEmpty()) {
+            remove(cancelled);
+            delta.remove(cancelled);
+        }
+        if (delta.size > 0) {
+            merge(delta);
+        }
+        Map<Integer, int[]> changed = new HashMap<>();
+        lastChangeId = dao.scanChanges(lastChangeId,
+                (id, table, statusCode, version) -> changed.put(id, new int[]{table, statusCode, version}));
+        if (!changed.isEmpty()) {
+            update(changed);
+        }
+    }
+
+    /** Überschreibt Tisch, Status und Version geänderter Zeilen in einem Durchlauf. */
+    private void update(Map<Integer, int[]> changed) {
+        for (int i = 0; i < size; i++) {
+            int[] row = changed.get(ids[i]);
+            if (row != null) {
+                tables[i] = row[0];
+                statusCodes[i] = row[1];
+                versions[i] = row[2];
+            }
+        }
+    }
+
+    /** Erste Zeile, deren Schlüssel (Termin, ID) größer als der angegebene ist. */
+    private int firstAfter(long start, int id) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            long s = startOf(mid);
+            if (s < start || (s == start && ids[mid] <= id)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int indexOf(int id) {
+        for (int i = 0; i < size; i++) {
+            if (ids[i] == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private long startOf(int row) {
+        return (long) days[row] * MINUTES_PER_DAY + minutes[row];
+    }
+
+    private static long startOf(String date, String time) {
+        return LocalDate.parse(date).toEpochDay() * MINUTES_PER_DAY + LocalTime.parse(time).toSecondOfDay() / 60;
+    }
+
+    private List<Reservation> materialize(int from, int to) {
+        List<Reservation> list = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            list.add(materialize(i));
+        }
+        return list;
+    }
+
+    private Reservation materialize(int row) {
+        Reservation reservation = new Reservation(ids[row], names.decode(nameCodes[row]),
+                LocalDate.ofEpochDay(days[row]).toString(), TIMES[minutes[row]], persons[row], tables[row],
+                ReservationStatus.fromCode(statusCodes[row]), durations[row]);
+        reservation.setVersion(versions[row]);
+        return reservation;
+    }
+
+    /** Entfernt stornierte Zeilen in einem Durchlauf. */
+    private void remove(Set<Integer> cancelled) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (!cancelled.contains(ids[i])) {
+                if (kept != i) {
+                    copyRow(i, kept);
+                }
+                kept++;
+            }
+        }
+        size = kept;
+    }
+
+    private void copyRow(int from, int to) {
+        days[to] = days[from];
+        minutes[to] = minutes[from];
+        durations[to] = durations[from];
+        tables[to] = tables[from];
+        persons[to] = persons[from];
+        statusCodes[to] = statusCodes[from];
+        nameCodes[to] = nameCodes[from];
+        versions[to] = versions[from];
+        ids[to] = ids[from];
+    }
+
+    /**
+     * Fügt die neuen Zeilen sortiert ein. Beide Folgen sind sortiert, daher
+     * wird von hinten nach vorn zusammengeführt, ohne Zwischenkopie.
+     */
+    private void merge(Delta delta) {
+        int[] order = delta.sortedOrder();
+        int total = size + delta.size;
+        ensureCapacity(total);
+        int i = size - 1;
+        int j = order.length - 1;
+        for (int target = total - 1; j >= 0; target--) {
+            int d = order[j];
+            long ds = delta.starts[d];
+            if (i >= 0 && (startOf(i) > ds || (startOf(i) == ds && ids[i] > delta.ids[d]))) {
+                copyRow(i--, target);
+            } else {
+                days[target] = (int) Math.floorDiv(ds, MINUTES_PER_DAY);
+                minutes[target] = Math.floorMod(ds, MINUTES_PER_DAY);
+                durations[target] = delta.durations[d];
+                tables[target] = delta.tables[d];
+                persons[target] = delta.persons[d];
+                statusCodes[target] = delta.statusCodes[d];
+                nameCodes[target] = delta.nameCodes[d];
+                versions[target] = delta.versions[d];
+                ids[target] = delta.ids[d];
+                j--;
+            }
+        }
+        size = total;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int grown = Math.max(capacity, ids.length + (ids.length >> 1));
+        days = Arrays.copyOf(days, grown);
+        minutes = Arrays.copyOf(minutes, grown);
+        durations = Arrays.copyOf(durations, grown);
+        tables = Arrays.copyOf(tables, grown);
+        persons = Arrays.copyOf(persons, grown);
+        statusCodes = Arrays.copyOf(statusCodes, grown);
+        nameCodes = Arrays.copyOf(nameCodes, grown);
+        versions = Arrays.copyOf(versions, grown);
+        ids = Arrays.copyOf(ids, grown);
+    }
+
+    /** Wörterbuch für wiederkehrende Texte; Code -1 steht für {@code null}. */
+    private static final class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int encode(String value) {
+            if (value == null) {
+                return -1;
+            }
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                values.add(value);
+                codes.put(value, code);
+            }
+            return code;
+        }
+
+        String decode(int code) {
+            return code < 0 ? null : values.get(code);
+        }
+
+        void clear() {
+            codes.clear();
+            values.clear();
+        }
+    }
+
+    /**
+     * Neu gelesene Zeilen in ID-Reihenfolge, bevor sie einsortiert werden.
+     * Namen werden schon beim Lesen kodiert, damit die Texte aus dem Cursor
+     * sofort wieder freigegeben werden können.
+     */
+    private final class Delta {
+        private int size;
+        private long[] starts = new long[16];
+        private int[] durations = new int[16];
+        private int[] tables = new int[16];
+        private int[] persons = new int[16];
+        private int[] nameCodes = new int[16];
+        private int[] statusCodes = new int[16];
+        private int[] versions = new int[16];
+        private int[] ids = new int[16];
+
+        void add(int id, long start, int duration, int table, int personCount, String name, int statusCode,
+                 int version) {
+            if (size == ids.length) {
+                int grown = size * 2;
+                starts = Arrays.copyOf(starts, grown);
+                durations = Arrays.copyOf(durations, grown);
+                tables = Arrays.copyOf(tables, grown);
+                persons = Arrays.copyOf(persons, grown);
+                nameCodes = Arrays.copyOf(nameCodes, grown);
+                statusCodes = Arrays.copyOf(statusCodes, grown);
+                versions = Arrays.copyOf(versions, grown);
+                ids = Arrays.copyOf(ids, grown);
+            }
+            starts[size] = start;
+            durations[size] = duration;
+            tables[size] = table;
+            persons[size] = personCount;
+            nameCodes[size] = names.encode(name);
+            statusCodes[size] = statusCode;
+            versions[size] = version;
+            ids[size] = id;
+            size++;
+        }
+
+        void remove(Set<Integer> cancelled) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (!cancelled.contains(ids[i])) {
+                    starts[kept] = starts[i];
+                    durations[kept] = durations[i];
+                    tables[kept] = tables[i];
+                    persons[kept] = persons[i];
+                    nameCodes[kept] = nameCodes[i];
+                    statusCodes[kept] = statusCodes[i];
+                    versions[kept] = versions[i];
+                    ids[kept] = ids[i];
+                    kept++;
+                }
+            }
+            size = kept;
+        }
+
+        /**
+         * Sortiert die Zeilen nach (Termin, ID). Da sie in ID-Reihenfolge
+         * vorliegen, genügt ein primitiver Sortierlauf über Termin und Position.
+         */
+        int[] sortedOrder() {
+            long min = Long.MAX_VALUE;
+            for (int i = 0; i < size; i++) {
+                min = Math.min(min, starts[i]);
+            }
+            long[] keys = new long[size];
+            for (int i = 0; i < size; i++) {
+                keys[i] = (starts[i] - min) << 31 | i;
+            }
+            Arrays.sort(keys);
+            int[] order = new int[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = (int) (keys[i] & Integer.MAX_VALUE);
+            }
+            return order;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.restaurant.reservation.service;
+
+/**
+ * Der gewünschte Tisch ist zu der Zeit bereits belegt. Aufrufer wie die
+ * HTTP-Schnittstelle erkennen den Fall am Typ statt am Meldungstext.
+ */
+public class SlotTakenException extends Exception {
+    private static final long serialVersionUID = 1L;
+
+    public SlotTakenException(String detail) {
+        super("Tisch bereits belegt" + detail);
+    }
+}
@@ -0,0 +1,599 @@
+package com.restaurant.reservation.service;
+
+import com.restaurant.reservation.model.Reservation;
+import com.restaurant.reservation.model.ReservationStatus;
+import com.restaurant.reservation.model.Table;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Verteilt die offenen Reservierungen eines Tages neu auf die Tische.
+ * <p>
+ * Ziel ist zuerst, möglichst viele Gäste unterzubringen, dann möglichst wenige
+ * Plätze leer mitzubelegen (ungenutzte Plätze mal Sitzdauer) und zuletzt
+ * möglichst wenige Reservierungen umzusetzen. Gruppen landen so am kleinsten
+ * passenden Tisch, und große Tische bleiben für große Gruppen frei.
+ * Reservierungen, die nicht mehr offen sind, bleiben an ihrem Tisch.
+ * <p>
+ * Der Tag zerfällt in Zeitfenster, deren Sitzzeiten sich nicht mit anderen
+ * Fenstern überschneiden; sie werden unabhängig voneinander parallel gelöst.
+ * Je Fenster ist die bisherige Belegung der Ausgangspunkt; ein Plan ist also
+ * nie schlechter als sie. Die Suche platziert die Gruppen nach Größe
+ * absteigend am kleinsten freien Tisch (Best-Fit-Decreasing) und verbessert
+ * per Branch-and-Bound weiter, bis sie vollständig ist oder das Zeitbudget
+ * abläuft.
+ */
+public class TableAssignmentOptimizer {
+    /** Ab dieser Sitzplatzzahl gilt ein Tisch als groß. */
+    public static final int LARGE_TABLE_SEATS = 6;
+    /** Höchstzahl untersuchter Teilbelegungen je Zeitfenster. */
+    private static final long MAX_NODES_PER_WINDOW = 2_000_000;
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(
+            Math.max(1, Runtime.getRuntime().availableProcessors()), r -> {
+                Thread t = new Thread(r, "table-optimizer-" + THREAD_COUNTER.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+
+    /** Eine vorgeschlagene Umsetzung. */
+    public static final class Move {
+        private final Reservation reservation;
+        private final int toTable;
+
+        Move(Reservation reservation, int toTable) {
+            this.reservation = reservation;
+            this.toTable = toTable;
+        }
+
+        /** Reservierung mit ihrem bisherigen Tisch. */
+        public Reservation getReservation() {
+            return reservation;
+        }
+
+        public int getFromTable() {
+            return reservation.getTableNumber();
+        }
+
+        public int getToTable() {
+            return toTable;
+        }
+
+        @Override
+        public String toString() {
+            return reservation.getTime() + " " + reservation.getName() + ": Tisch " + getFromTable()
+                    + " → " + toTable;
+        }
+    }
+
+    /** Ergebnis einer Optimierung mit den Kennzahlen vorher und nachher. */
+    public static final class Plan {
+        private final String date;
+        private final List<Move> moves;
+        private final List<Reservation> unseated;
+        private final int windows;
+        private final boolean complete;
+        private final int coversBefore;
+        private final int coversAfter;
+        private final long wastedBefore;
+        private final long wastedAfter;
+        private final int largeSlotsBefore;
+        private final int largeSlotsAfter;
+
+        Plan(String date, List<Move> moves, List<Reservation> unseated, int windows, boolean complete,
+             Metrics before, Metrics after) {
+            this.date = date;
+            this.moves = Collections.unmodifiableList(moves);
+            this.unseated = Collections.unmodifiableList(unseated);
+            this.windows = windows;
+            this.complete = complete;
+            this.coversBefore = before.covers;
+            this.coversAfter = after.covers;
+            this.wastedBefore = before.wasted;
+            this.wastedAfter = after.wasted;
+            this.largeSlotsBefore = before.largeSlots;
+            this.largeSlotsAfter = after.largeSlots;
+        }
+
+        public String getDate() {
+            return date;
+        }
+
+        /** Umsetzungen, nach Termin sortiert. */
+        public List<Move> getMoves() {
+            return moves;
+        }
+
+        /** Offene Reservierungen, für die sich kein Tisch findet. */
+        public List<Reservation> getUnseated() {
+            return unseated;
+        }
+
+        /** Anzahl unabhängig gelöster Zeitfenster. */
+        public int getWindows() {
+            return windows;
+        }
+
+        /** true, wenn die Suche in allen Fenstern vor Ablauf des Budgets fertig wurde. */
+        public boolean isComplete() {
+            return complete;
+        }
+
+        /** Untergebrachte Gäste bei der bisherigen Belegung. */
+        public int getCoversBefore() {
+            return coversBefore;
+        }
+
+        /** Untergebrachte Gäste nach dem Plan. */
+        public int getCoversAfter() {
+            return coversAfter;
+        }
+
+        /** Leer mitbelegte Plätze mal Minuten bei der bisherigen Belegung. */
+        public long getWastedSeatMinutesBefore() {
+            return wastedBefore;
+        }
+
+        /** Leer mitbelegte Plätze mal Minuten nach dem Plan. */
+        public long getWastedSeatMinutesAfter() {
+            return wastedAfter;
+        }
+
+        /**
+         * Startzeiten im Buchungsraster, zu denen ein großer Tisch (ab
+         * {@value #LARGE_TABLE_SEATS} Plätzen) für eine volle Gruppe frei ist,
+         * bei der bisherigen Belegung.
+         */
+        public int getLargeTableSlotsBefore() {
+            return largeSlotsBefore;
+        }
+
+        /** Wie {@link #getLargeTableSlotsBefore()}, nach dem Plan. */
+        public int getLargeTableSlotsAfter() {
+            return largeSlotsAfter;
+        }
+
+        /** Zusätzlich buchbare Startzeiten an großen Tischen. */
+        public int getCapacityGain() {
+            return largeSlotsAfter - largeSlotsBefore;
+        }
+
+        @Override
+        public String toString() {
+            return date + ": " + moves.size() + " Umsetzungen, Gäste " + coversBefore + " → " + coversAfter
+                    + ", ungenutzte Platzminuten " + wastedBefore + " → " + wastedAfter
+                    + ", freie Startzeiten großer Tische " + largeSlotsBefore + " → " + largeSlotsAfter
+                    + (complete ? "" : " (Suche nach Zeitbudget beendet)");
+        }
+    }
+
+    /**
+     * Berechnet eine neue Belegung für einen Tag.
+     * @param date Datum (YYYY-MM-DD)
+     * @param reservations Reservierungen des Tages; offene werden verteilt, die übrigen bleiben am Tisch
+     * @param previousDay Reservierungen des Vortags; wer über Mitternacht sitzt, belegt seinen Tisch weiter
+     * @param tables Tischbestand
+     * @param budget Zeitbudget für die Suche
+     * @return Plan mit Umsetzungen und Kennzahlen
+     * @throws InterruptedException wenn der aufrufende Thread unterbrochen wird
+     */
+    public Plan optimize(String date, List<Reservation> reservations, List<Reservation> previousDay,
+                         List<Table> tables, Duration budget) throws InterruptedException {
+        List<Table> sortedTables = new ArrayList<>(tables);
+        sortedTables.sort(Comparator.comparingInt(Table::getSeats).thenComparingInt(Table::getId));
+        Map<Integer, Integer> tableIndex = new HashMap<>();
+        for (int i = 0; i < sortedTables.size(); i++) {
+            tableIndex.put(sortedTables.get(i).getId(), i);
+        }
+
+        List<Seating> seatings = new ArrayList<>();
+        for (Reservation r : previousDay) {
+            int start = minuteOf(r) - MINUTES_PER_DAY;
+            if (start + r.getDurationMinutes() > 0) {
+                seatings.add(new Seating(r, start, false));
+            }
+        }
+        for (Reservation r : reservations) {
+            seatings.add(new Seating(r, minuteOf(r), r.getStatus() == ReservationStatus.PENDING));
+        }
+        seatings.sort(Comparator.comparingInt((Seating s) -> s.start).thenComparingInt(s -> s.reservation.getId()));
+
+        // Zeitfenster: zusammenhängende Folgen sich überschneidender Sitzzeiten
+        List<List<Seating>> windows = new ArrayList<>();
+        int windowEnd = Integer.MIN_VALUE;
+        for (Seating s : seatings) {
+            if (windows.isEmpty() || s.start >= windowEnd) {
+                windows.add(new ArrayList<>());
+            }
+            windows.get(windows.size() - 1).add(s);
+            windowEnd = Math.max(windowEnd, s.end);
+        }
+
+        long deadline = System.nanoTime() + budget.toNanos();
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        for (List<Seating> window : windows) {
+            tasks.add(() -> new WindowSearch(window, sortedTables, tableIndex, deadline).solve());
+        }
+        boolean complete = true;
+        for (Future<Boolean> result : EXECUTOR.invokeAll(tasks)) {
+            try {
+                complete &= result.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Fehler bei der Tischverteilung", e.getCause());
+            }
+        }
+
+        List<Move> moves = new ArrayList<>();
+        List<Reservation> unseated = new ArrayList<>();
+        for (Seating s : seatings) {
+            if (!s.movable) {
+                continue;
+            }
+            if (s.assigned < 0) {
+                unseated.add(s.reservation);
+            } else if (s.assigned != s.reservation.getTableNumber()) {
+                moves.add(new Move(s.reservation, s.assigned));
+            }
+        }
+        Metrics before = metrics(seatings, sortedTables, false);
+        Metrics after = metrics(seatings, sortedTables, true);
+        return new Plan(date, moves, unseated, windows.size(), complete, before, after);
+    }
+
+    /**
+     * Kosten einer Platzierung für den schnellen Vorschlag bei einer einzelnen
+     * Buchung: leer mitbelegte Plätze über die Sitzdauer plus Lücken zu den
+     * Nachbarbuchungen, die für eine weitere Gruppe zu kurz sind, gewichtet mit
+     * den Plätzen des Tisches. Kleinere Kosten sind besser.
+     * @param previousEnd Ende der vorangehenden Sitzzeit oder {@link IntervalTree#NONE}
+     * @param nextStart Beginn der folgenden Sitzzeit oder {@link IntervalTree#NONE}
+     */
+    public static long placementCost(int seats, int persons, int start, int end, int previousEnd, int nextStart) {
+        int shortest = Reservation.defaultDuration(1);
+        long cost = (long) (seats - persons) * (end - start);
+        if (previousEnd != IntervalTree.NONE && start - previousEnd < shortest) {
+            cost += (long) seats * (start - previousEnd);
+        }
+        if (nextStart != IntervalTree.NONE && nextStart - end < shortest) {
+            cost += (long) seats * (nextStart - end);
+        }
+        return cost;
+    }
+
+    /** Kennzahlen einer Belegung: bisherige Tische oder Ergebnis der Suche. */
+    private static Metrics metrics(List<Seating> seatings, List<Table> tables, boolean planned) {
+        Map<Integer, Table> byId = new HashMap<>();
+        for (Table t : tables) {
+            byId.put(t.getId(), t);
+        }
+        Map<Integer, IntervalTree> occupancy = new HashMap<>();
+        Metrics m = new Metrics();
+        for (Seating s : seatings) {
+            int tableNumber = planned && s.movable ? s.assigned : s.reservation.getTableNumber();
+            Table table = byId.get(tableNumber);
+            IntervalTree tree = occupancy.computeIfAbsent(tableNumber, t -> new IntervalTree());
+            boolean fits = table != null && table.getSeats() >= s.reservation.getPersons()
+                    && !tree.overlaps(s.start, s.end);
+            if (!s.movable || fits) {
+                tree.add(s.start, s.end, s.reservation.getId());
+            }
+            if (fits && s.start >= 0) {
+                m.covers += s.reservation.getPersons();
+                m.wasted += (long) (table.getSeats() - s.reservation.getPersons()) * (s.end - s.start);
+            }
+        }
+        for (Table t : tables) {
+            if (t.getSeats() < LARGE_TABLE_SEATS) {
+                continue;
+            }
+            IntervalTree tree = occupancy.get(t.getId());
+            int duration = Reservation.defaultDuration(t.getSeats());
+            for (int slot = 0; slot < Reservation.SLOTS_PER_DAY; slot++) {
+                int start = Reservation.FIRST_SLOT_MINUTE + slot * Reservation.SLOT_MINUTES;
+                if (tree == null || !tree.overlaps(start, start + duration)) {
+                    m.largeSlots++;
+                }
+            }
+        }
+        return m;
+    }
+
+    private static int minuteOf(Reservation r) {
+        return LocalTime.parse(r.getTime()).toSecondOfDay() / 60;
+    }
+
+    private static final class Metrics {
+        int covers;
+        long wasted;
+        int largeSlots;
+    }
+
+    /** Sitzzeit einer Reservierung in Minuten relativ zum optimierten Tag. */
+    private static final class Seating {
+        final Reservation reservation;
+        final int start;
+        final int end;
+        final boolean movable;
+        /** Tisch laut Suche, -1 wenn keiner frei ist. */
+        int assigned = -1;
+
+        Seating(Reservation reservation, int start, boolean movable) {
+            this.reservation = reservation;
+            this.start = start;
+            this.end = start + Math.max(1, reservation.getDurationMinutes());
+            this.movable = movable;
+        }
+    }
+
+    /** Branch-and-Bound über die offenen Reservierungen eines Zeitfensters. */
+    private static final class WindowSearch {
+        private final List<Seating> movable = new ArrayList<>();
+        private final IntervalTree[] occupancy;
+        private final int[] seats;
+        private final int[] tableIds;
+        /** Passende Tische je Reservierung, kleinste zuerst, bei gleicher Größe der bisherige. */
+        private final int[][] candidates;
+        /** Untere Schranke der ungenutzten Platzminuten ab dieser Tiefe. */
+        private final long[] remainingWaste;
+        private final int[] current;
+        private final int[] best;
+        private final long deadline;
+        private final Map<Integer, Integer> tableIndex;
+
+        private int unseated;
+        private long wasted;
+        private int moves;
+        private int bestUnseated;
+        private long bestWasted;
+        private int bestMoves;
+        private long nodes;
+        private boolean aborted;
+
+        WindowSearch(List<Seating> window, List<Table> tables, Map<Integer, Integer> tableIndex, long deadline) {
+            this.deadline = deadline;
+            occupancy = new IntervalTree[tables.size()];
+            seats = new int[tables.size()];
+            tableIds = new int[tables.size()];
+            for (int i = 0; i < tables.size(); i++) {
+                occupancy[i] = new IntervalTree();
+                seats[i] = tables.get(i).getSeats();
+                tableIds[i] = tables.get(i).getId();
+            }
+            for (Seating s : window) {
+                if (s.movable) {
+                    movable.add(s);
+                } else {
+                    Integer index = tableIndex.get(s.reservation.getTableNumber());
+                    if (index != null) {
+                        occupancy[index].add(s.start, s.end, s.reservation.getId());
+                    }
+                }
+            }
+            movable.sort(Comparator.comparingInt((Seating s) -> -s.reservation.getPersons())
+                    .thenComparingInt(s -> s.start - s.end)
+                    .thenComparingInt(s -> s.start)
+                    .thenComparingInt(s -> s.reservation.getId()));
+            int n = movable.size();
+            candidates = new int[n][];
+            remainingWaste = new long[n + 1];
+            current = new int[n];
+            best = new int[n];
+            for (int i = n - 1; i >= 0; i--) {
+                Seating s = movable.get(i);
+                List<Integer> fitting = new ArrayList<>();
+                for (int t = 0; t < seats.length; t++) {
+                    if (seats[t] >= s.reservation.getPersons()) {
+                        fitting.add(t);
+                    }
+                }
+                int original = s.reservation.getTableNumber();
+                fitting.sort(Comparator.comparingInt((Integer t) -> seats[t])
+                        .thenComparingInt(t -> tableIds[t] == original ? 0 : 1)
+                        .thenComparingInt(t -> tableIds[t]));
+                candidates[i] = fitting.stream().mapToInt(Integer::intValue).toArray();
+                long minWaste = fitting.isEmpty() ? 0
+                        : (long) (seats[fitting.get(0)] - s.reservation.getPersons()) * (s.end - s.start);
+                remainingWaste[i] = remainingWaste[i + 1] + minWaste;
+            }
+            this.tableIndex = tableIndex;
+        }
+
+        /** @return true, wenn die Suche vollständig war */
+        boolean solve() {
+            int[] seed = currentTables();
+            int[] greedy = greedy();
+            int[] start = compare(evaluate(greedy), evaluate(seed)) < 0 ? greedy : seed;
+            improve(start);
+            long[] value = evaluate(start);
+            System.arraycopy(start, 0, best, 0, start.length);
+            bestUnseated = (int) value[0];
+            bestWasted = value[1];
+            bestMoves = (int) value[2];
+            search(0);
+            for (int i = 0; i < movable.size(); i++) {
+                movable.get(i).assigned = best[i] < 0 ? -1 : tableIds[best[i]];
+            }
+            return !aborted;
+        }
+
+        /** Bisherige Tische, soweit sie passen und frei sind; sonst -1. */
+        private int[] currentTables() {
+            int[] assignment = new int[movable.size()];
+            for (int i = 0; i < assignment.length; i++) {
+                Seating s = movable.get(i);
+                Integer t = tableIndex.get(s.reservation.getTableNumber());
+                boolean fits = t != null && seats[t] >= s.reservation.getPersons()
+                        && !occupancy[t].overlaps(s.start, s.end);
+                assignment[i] = fits ? t : -1;
+                if (fits) {
+                    occupancy[t].add(s.start, s.end, s.reservation.getId());
+                }
+            }
+            release(assignment);
+            return assignment;
+        }
+
+        /** Best-Fit-Decreasing: jede Gruppe an den kleinsten freien passenden Tisch. */
+        private int[] greedy() {
+            int[] assignment = new int[movable.size()];
+            for (int i = 0; i < assignment.length; i++) {
+                Seating s = movable.get(i);
+                assignment[i] = -1;
+                for (int t : candidates[i]) {
+                    if (!occupancy[t].overlaps(s.start, s.end)) {
+                        occupancy[t].add(s.start, s.end, s.reservation.getId());
+                        assignment[i] = t;
+                        break;
+                    }
+                }
+            }
+            release(assignment);
+            return assignment;
+        }
+
+        /**
+         * Verbessert eine Belegung schrittweise: setzt einzelne Gruppen an einen
+         * freien kleineren (oder bei gleicher Größe an ihren bisherigen) Tisch
+         * und bringt Gruppen ohne Tisch unter, bis sich nichts mehr ändert.
+         */
+        private void improve(int[] assignment) {
+            for (int i = 0; i < assignment.length; i++) {
+                if (assignment[i] >= 0) {
+                    Seating s = movable.get(i);
+                    occupancy[assignment[i]].add(s.start, s.end, s.reservation.getId());
+                }
+            }
+            boolean changed = true;
+            while (changed) {
+                changed = false;
+                for (int i = 0; i < assignment.length; i++) {
+                    Seating s = movable.get(i);
+                    int from = assignment[i];
+                    for (int t : candidates[i]) {
+                        if (t == from || (from >= 0 && seats[t] > seats[from])) {
+                            break;
+                        }
+                        boolean smaller = from < 0 || seats[t] < seats[from];
+                        boolean backHome = tableIds[t] == s.reservation.getTableNumber();
+                        if ((smaller || backHome) && !occupancy[t].overlaps(s.start, s.end)) {
+                            if (from >= 0) {
+                                occupancy[from].remove(s.reservation.getId());
+                            }
+                            occupancy[t].add(s.start, s.end, s.reservation.getId());
+                            assignment[i] = t;
+                            changed = true;
+                            break;
+                        }
+                    }
+                }
+            }
+            release(assignment);
+        }
+
+        /** Entfernt die Gruppen einer Belegung wieder aus den Tischbelegungen. */
+        private void release(int[] assignment) {
+            for (int i = 0; i < assignment.length; i++) {
+                if (assignment[i] >= 0) {
+                    occupancy[assignment[i]].remove(movable.get(i).reservation.getId());
+                }
+            }
+        }
+
+        /** Bewertung einer Belegung: {Gäste ohne Tisch, ungenutzte Platzminuten, Umsetzungen}. */
+        private long[] evaluate(int[] assignment) {
+            long[] value = new long[3];
+            for (int i = 0; i < assignment.length; i++) {
+                Seating s = movable.get(i);
+                int t = assignment[i];
+                if (t < 0) {
+                    value[0] += s.reservation.getPersons();
+                } else {
+                    value[1] += (long) (seats[t] - s.reservation.getPersons()) * (s.end - s.start);
+                    value[2] += tableIds[t] == s.reservation.getTableNumber() ? 0 : 1;
+                }
+            }
+            return value;
+        }
+
+        private static int compare(long[] a, long[] b) {
+            for (int i = 0; i < a.length; i++) {
+                if (a[i] != b[i]) {
+                    return Long.compare(a[i], b[i]);
+                }
+            }
+            return 0;
+        }
+
+        private void search(int depth) {
+            if ((++nodes & 1023) == 0
+                    && (nodes > MAX_NODES_PER_WINDOW || System.nanoTime() > deadline)) {
+                aborted = true;
+            }
+            if (aborted || !better(unseated, wasted + remainingWaste[depth], moves)) {
+                return;
+            }
+            if (depth == movable.size()) {
+                System.arraycopy(current, 0, best, 0, depth);
+                bestUnseated = unseated;
+                bestWasted = wasted;
+                bestMoves = moves;
+                return;
+            }
+            Seating s = movable.get(depth);
+            int persons = s.reservation.getPersons();
+            int id = s.reservation.getId();
+            boolean placed = false;
+            for (int t : candidates[depth]) {
+                IntervalTree tree = occupancy[t];
+                if (tree.overlaps(s.start, s.end)) {
+                    continue;
+                }
+                placed = true;
+                long waste = (long) (seats[t] - persons) * (s.end - s.start);
+                int moved = tableIds[t] == s.reservation.getTableNumber() ? 0 : 1;
+                tree.add(s.start, s.end, id);
+                wasted += waste;
+                moves += moved;
+                current[depth] = t;
+                search(depth + 1);
+                tree.remove(id);
+                wasted -= waste;
+                moves -= moved;
+                if (aborted) {
+                    return;
+                }
+            }
+            if (!placed) {
+                unseated += persons;
+                current[depth] = -1;
+                search(depth + 1);
+                unseated -= persons;
+            }
+        }
+
+        private boolean better(int unseated, long wasted, int moves) {
+            if (unseated != bestUnseated) {
+                return unseated < bestUnseated;
+            }
+            if (wasted != bestWasted) {
+                return wasted < bestWasted;
+            }
+            return moves < bestMoves;
+        }
+    }
+}
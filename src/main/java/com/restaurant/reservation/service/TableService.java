@@ -1,15 +1,27 @@
 package com.restaurant.reservation.service;
 
+import com.restaurant.reservation.dao.Database;
 import com.restaurant.reservation.dao.TableDAO;
 import com.restaurant.reservation.model.Table;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 
 /**
  * Service-Schicht für die Verwaltung von Tisch-Daten.
  * Kapselt die Datenzugriffsschicht (DAO) und ergänzt Geschäftslogik, z.B. Prüfungen vor Löschaktionen.
+ * <p>
+ * Tische ändern sich so gut wie nie. Alle Instanzen teilen sich deshalb einen
+ * unveränderlichen Stand der Tischdaten, der beim ersten Zugriff mit einer
+ * Abfrage geladen und erst neu gelesen wird, wenn sich die Tischdaten
+ * ({@link TableDAO#getVersion()}) oder die Datenbank geändert haben. Die
+ * gelieferten Listen und Tisch-Objekte werden gemeinsam genutzt und dürfen
+ * nicht verändert werden.
  */
 public class TableService {
+    private static volatile Snapshot snapshot;
 
     private TableDAO tableDAO;
 
@@ -19,11 +31,11 @@ public class TableService {
 
     /**
      * Gibt alle Tische zurück.
-     * @return Liste der Tisch-Objekte
+     * @return Liste der Tisch-Objekte, aufsteigend nach ID
      * @throws SQLException falls beim Datenbankzugriff ein Fehler auftritt
      */
     public List<Table> getAllTables() throws SQLException {
-        return tableDAO.findAllTables();
+        return snapshot().all;
     }
 
 
@@ -35,6 +47,83 @@ public class TableService {
      * @throws SQLException falls beim Datenbankzugriff ein Fehler auftritt
      */
     public Table getTableById(int id) throws SQLException {
-        return tableDAO.findTableById(id);
+        Snapshot current = snapshot();
+        return id >= 0 && id < current.byId.length ? current.byId[id] : null;
+    }
+
+    /**
+     * Liefert alle Tische mit mindestens der angegebenen Anzahl Sitzplätze,
+     * kleinste zuerst (bei gleicher Größe nach ID). Die passende Stelle wird
+     * per binärer Suche in der nach Sitzplätzen sortierten Liste gefunden.
+     *
+     * @param persons Anzahl der Personen
+     * @return passende Tische, aufsteigend nach Sitzplätzen
+     * @throws SQLException falls beim Datenbankzugriff ein Fehler auftritt
+     */
+    public List<Table> getTablesWithSeats(int persons) throws SQLException {
+        Snapshot current = snapshot();
+        int low = 0;
+        int high = current.seats.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (current.seats[mid] < persons) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return current.bySeats.subList(low, current.bySeats.size());
+    }
+
+    /** Verwirft den gespeicherten Stand; er wird beim nächsten Zugriff neu geladen. */
+    public static void invalidate() {
+        snapshot = null;
+    }
+
+    private Snapshot snapshot() throws SQLException {
+        Snapshot current = snapshot;
+        String url = Database.getUrl();
+        long version = TableDAO.getVersion();
+        if (current == null || current.version != version || !current.url.equals(url)) {
+            // Version vor dem Lesen merken: eine gleichzeitige Änderung führt
+            // so beim nächsten Zugriff zu einem erneuten Laden
+            current = new Snapshot(url, version, tableDAO.findAllTables());
+            snapshot = current;
+        }
+        return current;
+    }
+
+    /** Unveränderlicher Stand aller Tische mit den Zugriffsstrukturen. */
+    private static final class Snapshot {
+        final String url;
+        final long version;
+        final List<Table> all;
+        /** Tische nach ID; Lücken sind {@code null}. */
+        final Table[] byId;
+        final List<Table> bySeats;
+        /** Sitzplätze in der Reihenfolge von {@link #bySeats}. */
+        final int[] seats;
+
+        Snapshot(String url, long version, List<Table> tables) {
+            this.url = url;
+            this.version = version;
+            List<Table> sorted = new ArrayList<>(tables);
+            sorted.sort(Comparator.comparingInt(Table::getId));
+            this.all = Collections.unmodifiableList(sorted);
+            int maxId = sorted.isEmpty() ? -1 : sorted.get(sorted.size() - 1).getId();
+            this.byId = new Table[maxId + 1];
+            for (Table t : sorted) {
+                if (t.getId() >= 0) {
+                    byId[t.getId()] = t;
+                }
+            }
+            List<Table> bySeats = new ArrayList<>(sorted);
+            bySeats.sort(Comparator.comparingInt(Table::getSeats).thenComparingInt(Table::getId));
+            this.bySeats = Collections.unmodifiableList(bySeats);
+            this.seats = new int[bySeats.size()];
+            for (int i = 0; i < seats.length; i++) {
+                seats[i] = bySeats.get(i).getSeats();
+            }
+        }
     }
 }
@@ -0,0 +1,187 @@
+package com.restaurant.reservation.service;
+
+import com.restaurant.reservation.dao.WaitlistDAO;
+import com.restaurant.reservation.model.Reservation;
+import com.restaurant.reservation.model.WaitlistEntry;
+
+import java.sql.SQLException;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Warteliste im Speicher, nach Datum geordnet. Ein Tag wird beim ersten
+ * Zugriff mit einer einzigen Abfrage geladen und danach fortgeschrieben.
+ * <p>
+ * Jeder Eintrag liegt in einer Warteschlange je Slot des Buchungsrasters,
+ * den sein Zeitfenster berührt, und je Personenzahl; innerhalb einer
+ * Warteschlange stehen die Einträge nach Priorität und Anfragezeitpunkt
+ * geordnet. Für einen frei gewordenen Tisch werden nur die Köpfe der
+ * Warteschlangen verglichen, in die die Gruppe passt: O(Plätze · log n).
+ */
+public class WaitlistIndex {
+    /** Anzahl der Tage, die höchstens im Speicher gehalten werden. */
+    private static final int MAX_CACHED_DAYS = 64;
+
+    /** Reihenfolge innerhalb einer Warteschlange: höhere Priorität, dann ältere Anfrage. */
+    private static final Comparator<WaitlistEntry> QUEUE_ORDER =
+            Comparator.comparingInt(WaitlistEntry::getPriority).reversed()
+                      .thenComparing(WaitlistEntry::getRequestedAt, Comparator.nullsLast(Comparator.naturalOrder()))
+                      .thenComparing(WaitlistEntry::getId);
+
+    /** Auswahl zwischen den Warteschlangen: bei gleicher Priorität die größere Gruppe. */
+    private static final Comparator<WaitlistEntry> PROMOTION_ORDER =
+            Comparator.comparingInt(WaitlistEntry::getPriority).reversed()
+                      .thenComparing(Comparator.comparingInt(WaitlistEntry::getPersons).reversed())
+                      .thenComparing(QUEUE_ORDER);
+
+    private static final WaitlistIndex SHARED = new WaitlistIndex(new WaitlistDAO());
+
+    private final WaitlistDAO dao;
+    private final Map<String, Day> days = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Day> eldest) {
+            return size() > MAX_CACHED_DAYS;
+        }
+    };
+
+    public WaitlistIndex(WaitlistDAO dao) {
+        this.dao = dao;
+    }
+
+    /** Gemeinsamer Index für alle Fenster dieser Anwendung. */
+    public static WaitlistIndex shared() {
+        return SHARED;
+    }
+
+    /** Alle Einträge eines Tages, höchste Priorität zuerst. */
+    public synchronized List<WaitlistEntry> getEntries(String date) throws SQLException {
+        return new ArrayList<>(day(date).all);
+    }
+
+    /**
+     * Der Eintrag, der einen frei gewordenen Tisch übernehmen soll: dessen
+     * Zeitfenster die Uhrzeit enthält, dessen Gruppe an den Tisch passt und
+     * dessen übliche Sitzdauer bis zur nächsten Buchung des Tisches reicht.
+     * Bevorzugt werden höhere Priorität, dann größere Gruppen, dann die
+     * ältere Anfrage.
+     * @param seats Plätze des Tisches
+     * @param maxDuration verfügbare Sitzdauer in Minuten
+     * @return der Eintrag oder {@code null}
+     */
+    public synchronized WaitlistEntry best(String date, String time, int seats, int maxDuration)
+            throws SQLException {
+        Day day = day(date);
+        int minute = minuteOf(time);
+        int slot = slotOf(minute);
+        WaitlistEntry best = null;
+        for (int persons = 1; persons <= Math.min(seats, day.maxPersons); persons++) {
+            if (Reservation.defaultDuration(persons) > maxDuration) {
+                break;
+            }
+            TreeSet<WaitlistEntry> queue = day.queues.get(key(slot, persons));
+            if (queue == null) {
+                continue;
+            }
+            // Liegt die Uhrzeit auf dem Raster, enthält jedes Fenster der
+            // Warteschlange sie und der Kopf passt bereits
+            for (WaitlistEntry entry : queue) {
+                if (best != null && PROMOTION_ORDER.compare(entry, best) > 0) {
+                    break;
+                }
+                if (minuteOf(entry.getEarliest()) <= minute && minute <= minuteOf(entry.getLatest())) {
+                    best = entry;
+                    break;
+                }
+            }
+        }
+        return best;
+    }
+
+    /** Vermerkt einen neuen Eintrag, sofern sein Tag bereits geladen ist. */
+    public synchronized void add(WaitlistEntry entry) {
+        Day day = days.get(entry.getDate());
+        if (day != null) {
+            day.add(entry);
+        }
+    }
+
+    /** Entfernt einen Eintrag, z.B. nach dem Nachrücken. */
+    public synchronized void remove(WaitlistEntry entry) {
+        Day day = days.get(entry.getDate());
+        if (day != null) {
+            day.remove(entry);
+        }
+    }
+
+    /** Verwirft alle geladenen Tage. */
+    public synchronized void invalidate() {
+        days.clear();
+    }
+
+    private Day day(String date) throws SQLException {
+        Day day = days.get(date);
+        if (day == null) {
+            day = new Day();
+            for (WaitlistEntry entry : dao.getEntriesForDate(date)) {
+                day.add(entry);
+            }
+            days.put(date, day);
+        }
+        return day;
+    }
+
+    /** Slot des Buchungsrasters, in dem die Minute liegt; Zeiten außerhalb zählen zum ersten bzw. letzten. */
+    private static int slotOf(int minute) {
+        int slot = Math.floorDiv(minute - Reservation.FIRST_SLOT_MINUTE, Reservation.SLOT_MINUTES);
+        return Math.max(0, Math.min(Reservation.SLOTS_PER_DAY - 1, slot));
+    }
+
+    private static long key(int slot, int persons) {
+        return ((long) slot << 32) | persons;
+    }
+
+    private static int minuteOf(String time) {
+        return LocalTime.parse(time).toSecondOfDay() / 60;
+    }
+
+    /** Einträge eines Tages, einmal insgesamt und einmal je Slot und Personenzahl. */
+    private static final class Day {
+        final TreeSet<WaitlistEntry> all = new TreeSet<>(QUEUE_ORDER);
+        final Map<Long, TreeSet<WaitlistEntry>> queues = new HashMap<>();
+        int maxPersons;
+
+        void add(WaitlistEntry entry) {
+            all.add(entry);
+            maxPersons = Math.max(maxPersons, entry.getPersons());
+            for (int slot = firstSlot(entry); slot <= lastSlot(entry); slot++) {
+                queues.computeIfAbsent(key(slot, entry.getPersons()), k -> new TreeSet<>(QUEUE_ORDER)).add(entry);
+            }
+        }
+
+        void remove(WaitlistEntry entry) {
+            if (!all.remove(entry)) {
+                return;
+            }
+            for (int slot = firstSlot(entry); slot <= lastSlot(entry); slot++) {
+                TreeSet<WaitlistEntry> queue = queues.get(key(slot, entry.getPersons()));
+                if (queue != null && queue.remove(entry) && queue.isEmpty()) {
+                    queues.remove(key(slot, entry.getPersons()));
+                }
+            }
+        }
+
+        private static int firstSlot(WaitlistEntry entry) {
+            return slotOf(minuteOf(entry.getEarliest()));
+        }
+
+        private static int lastSlot(WaitlistEntry entry) {
+            return slotOf(minuteOf(entry.getLatest()));
+        }
+    }
+}
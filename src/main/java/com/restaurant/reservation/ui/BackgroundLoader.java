@@ -0,0 +1,122 @@
+package com.restaurant.reservation.ui;
+
+import com.restaurant.reservation.metrics.ReservationMetrics;
+
+import javax.swing.SwingUtilities;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Führt Datenbankzugriffe der Fenster außerhalb des Event Dispatch Threads aus.
+ * <p>
+ * Alle Fenster teilen sich einen kleinen Thread-Pool. Jede Instanz steht für
+ * eine Ladeaktion eines Fensters (z.B. "Tabelle aktualisieren"): Wird sie
+ * erneut gestartet, bevor die vorherige fertig ist, wird die alte abgebrochen
+ * und ihr Ergebnis verworfen. Ergebnisse und Fehler werden immer auf dem EDT
+ * zugestellt. Die Methoden dieser Klasse müssen auf dem EDT aufgerufen werden.
+ * <p>
+ * Die Zeit vom Start bis zur Zustellung auf dem EDT – also die Wartezeit, die
+ * der Benutzer sieht – wird als "ui.&lt;name&gt;" in {@link ReservationMetrics}
+ * verbucht.
+ */
+public class BackgroundLoader<T> {
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(3, r -> {
+        Thread t = new Thread(r, "db-loader-" + THREAD_COUNTER.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final String metricName;
+    private Future<?> current;
+    private int generation;
+
+    /** @param name Name der Ladeaktion für die Metriken, z.B. "dashboard.reservations" */
+    public BackgroundLoader(String name) {
+        this.metricName = "ui." + name;
+    }
+
+    /**
+     * Startet eine Ladeaktion und bricht eine eventuell noch laufende ab.
+     * @param task Zugriff, der im Hintergrund läuft
+     * @param onSuccess erhält das Ergebnis auf dem EDT
+     * @param onError erhält einen Fehler auf dem EDT
+     */
+    public void load(Callable<T> task, Consumer<T> onSuccess, Consumer<Exception> onError) {
+        cancel();
+        int myGeneration = generation;
+        long start = System.nanoTime();
+        current = EXECUTOR.submit(() -> {
+            try {
+                T result = task.call();
+                SwingUtilities.invokeLater(() -> {
+                    if (myGeneration == generation) {
+                        current = null;
+                        ReservationMetrics.record(metricName, start);
+                        onSuccess.accept(result);
+                    }
+                });
+            } catch (Exception e) {
+                SwingUtilities.invokeLater(() -> {
+                    if (myGeneration == generation) {
+                        current = null;
+                        ReservationMetrics.recordError(metricName, start);
+                        onError.accept(e);
+                    }
+                });
+            }
+        });
+    }
+
+    /** Bricht die laufende Ladeaktion ab; ihr Ergebnis wird nicht mehr zugestellt. */
+    public void cancel() {
+        generation++;
+        if (current != null) {
+            current.cancel(true);
+            current = null;
+        }
+    }
+
+    /** Liefert true, solange eine Ladeaktion läuft. */
+    public boolean isLoading() {
+        return current != null;
+    }
+
+    /**
+     * Führt eine Änderung im gemeinsamen Pool aus. Anders als bei {@link #load}
+     * wird sie weder von einer späteren Aktion noch beim Schließen des Fensters
+     * abgebrochen: Ergebnis oder Fehler werden immer auf dem EDT zugestellt und
+     * als "ui.&lt;name&gt;" verbucht.
+     * @param name Name der Aktion für die Metriken, z.B. "reservationList.action"
+     */
+    static <T> void write(String name, Callable<T> task, Consumer<T> onSuccess, Consumer<Exception> onError) {
+        String metricName = "ui." + name;
+        long start = System.nanoTime();
+        EXECUTOR.submit(() -> {
+            try {
+                T result = task.call();
+                SwingUtilities.invokeLater(() -> {
+                    ReservationMetrics.record(metricName, start);
+                    onSuccess.accept(result);
+                });
+            } catch (Exception e) {
+                SwingUtilities.invokeLater(() -> {
+                    ReservationMetrics.recordError(metricName, start);
+                    onError.accept(e);
+                });
+            }
+        });
+    }
+
+    /**
+     * Führt eine Aufgabe ohne Ergebnis und ohne Abbruchlogik im gemeinsamen
+     * Pool aus, z.B. das Nachladen einer Tabellenseite.
+     */
+    static void submit(Runnable task) {
+        EXECUTOR.submit(task);
+    }
+}
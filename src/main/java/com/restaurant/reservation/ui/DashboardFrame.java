@@ -1,7 +1,10 @@
 package com.restaurant.reservation.ui;
 
 import com.restaurant.reservation.model.Reservation;
+import com.restaurant.reservation.service.ReservationEvent;
+import com.restaurant.reservation.service.ReservationEventBus;
 import com.restaurant.reservation.service.ReservationService;
+import com.restaurant.reservation.service.TableAssignmentOptimizer;
 import com.restaurant.reservation.service.TableService;
 import com.restaurant.reservation.model.Table;
 import com.restaurant.reservation.ui.FloorPlanFrame;
@@ -12,17 +15,34 @@ import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 
 /**
  * Hauptfenster (Dashboard) mit Tischplan und 
- * einer kleinen Liste der kommenden Reservierungen.
+ * einer kleinen Liste der kommenden Reservierungen. Neue und stornierte
+ * Reservierungen werden über den Ereignisbus direkt in die Liste übernommen.
  */
 public class DashboardFrame extends JFrame {
+    /** Sortierung der Liste: Termin, dann ID. */
+    private static final Comparator<Reservation> ORDER = Comparator.comparing(Reservation::getDate)
+            .thenComparing(Reservation::getTime)
+            .thenComparing(Reservation::getId);
+
     private final ReservationService reservationService;
     private JTable reservationTable;
     private DefaultTableModel tableModel;
     private List<Reservation> reservations = new ArrayList<>();
+    /** Angezeigter Zeitraum (YYYY-MM-DD, jeweils inklusive). */
+    private String shownFrom = "";
+    private String shownTo = "";
+    private final BackgroundLoader<List<Reservation>> reservationLoader = new BackgroundLoader<>("dashboard.reservations");
+    private final BackgroundLoader<List<Table>> floorPlanLoader = new BackgroundLoader<>("dashboard.floorPlan");
+    private final BackgroundLoader<List<Reservation>> tableInfoLoader = new BackgroundLoader<>("dashboard.tableInfo");
+    private final BackgroundLoader<TableAssignmentOptimizer.Plan> assignmentLoader =
+            new BackgroundLoader<>("dashboard.tableAssignment");
+    private final BackgroundLoader<Boolean> applyLoader = new BackgroundLoader<>("dashboard.applyAssignment");
 
     public DashboardFrame(ReservationService service) {
         this.reservationService = service;
@@ -56,10 +76,12 @@ public class DashboardFrame extends JFrame {
         JButton allResButton = new JButton("Alle Reservierungen");
         JButton planButton = new JButton("Tischplan");
         JButton statsButton = new JButton("Statistiken");
+        JButton assignButton = new JButton("Tische verteilen");
         newResButton.setFont(newResButton.getFont().deriveFont(Font.BOLD, 14f));
         allResButton.setFont(allResButton.getFont().deriveFont(Font.BOLD, 14f));
         planButton.setFont(planButton.getFont().deriveFont(Font.BOLD, 14f));
         statsButton.setFont(statsButton.getFont().deriveFont(Font.BOLD, 14f));
+        assignButton.setFont(assignButton.getFont().deriveFont(Font.BOLD, 14f));
 
         JPanel buttonPanel = new JPanel();
         buttonPanel.setBackground(new Color(255,250,240));
@@ -67,12 +89,12 @@ public class DashboardFrame extends JFrame {
         buttonPanel.add(allResButton);
         buttonPanel.add(planButton);
         buttonPanel.add(statsButton);
+        buttonPanel.add(assignButton);
         add(buttonPanel, BorderLayout.SOUTH);
 
         newResButton.addActionListener(e -> {
             ReservationFormFrame form = new ReservationFormFrame(this, reservationService);
             form.setVisible(true);
-            refreshTable();
         });
 
         allResButton.addActionListener(e -> {
@@ -90,51 +112,147 @@ public class DashboardFrame extends JFrame {
             stats.setVisible(true);
         });
 
-        setSize(700,400);
+        assignButton.addActionListener(e -> onAssignTables());
+
+        setSize(800,400);
         setLocationRelativeTo(null);
+        ReservationEventBus.shared().subscribe(event -> SwingUtilities.invokeLater(() -> apply(event)));
         refreshTable();
     }
 
     /**
      * Lädt die kommenden Reservierungen (heute bis 7 Tage im Voraus)
-     * und aktualisiert die Tabelle im Dashboard.
+     * im Hintergrund und aktualisiert anschließend die Tabelle im Dashboard.
      */
     public void refreshTable() {
+        tableModel.setRowCount(0);
+        tableModel.addRow(new Object[]{"Lade…", "", "", ""});
+        LocalDate today = LocalDate.now();
+        reservationLoader.load(
+                () -> reservationService.getReservationsBetween(today, today.plusDays(7)),
+                upcoming -> {
+                    shownFrom = today.toString();
+                    shownTo = today.plusDays(7).toString();
+                    reservations.clear();
+                    tableModel.setRowCount(0);
+                    for (Reservation r : upcoming) {
+                        reservations.add(r);
+                        tableModel.addRow(row(r));
+                    }
+                },
+                ex -> {
+                    tableModel.setRowCount(0);
+                    JOptionPane.showMessageDialog(this, "Reservierungen konnten nicht geladen werden.", "Fehler", JOptionPane.ERROR_MESSAGE);
+                });
+    }
+
+    /**
+     * Fügt eine neue Reservierung an ihrer Position ein, entfernt eine
+     * stornierte bzw. zeigt den neuen Tisch einer umgesetzten. Läuft gerade ein Neuladen, wird es neu gestartet, da offen
+     * ist, ob sein Ergebnis die Änderung schon enthält.
+     */
+    private void apply(ReservationEvent event) {
+        if (reservationLoader.isLoading()) {
+            refreshTable();
+            return;
+        }
+        Reservation r = event.getReservation();
+        int index = Collections.binarySearch(reservations, r, ORDER);
+        if (event.getType() == ReservationEvent.Type.CREATED && index < 0
+                && r.getDate().compareTo(shownFrom) >= 0 && r.getDate().compareTo(shownTo) <= 0) {
+            index = -index - 1;
+            reservations.add(index, r);
+            tableModel.insertRow(index, row(r));
+        } else if (event.getType() == ReservationEvent.Type.CANCELLED && index >= 0) {
+            reservations.remove(index);
+            tableModel.removeRow(index);
+        } else if (event.getType() == ReservationEvent.Type.TABLE_CHANGED && index >= 0) {
+            reservations.set(index, r);
+            tableModel.setValueAt(r.getTableNumber(), index, 2);
+        }
+    }
+
+    /**
+     * Berechnet für einen Tag eine neue Verteilung der offenen Reservierungen
+     * auf die Tische und übernimmt sie nach Rückfrage.
+     */
+    private void onAssignTables() {
+        String input = JOptionPane.showInputDialog(this, "Tag (YYYY-MM-DD):", LocalDate.now().toString());
+        if (input == null) {
+            return;
+        }
+        LocalDate day;
         try {
-            List<Reservation> all = reservationService.getAllReservations();
-            reservations.clear();
-            tableModel.setRowCount(0);
-            LocalDate today = LocalDate.now();
-            LocalDate limit = today.plusDays(7);
-            for (Reservation r : all) {
-                LocalDate date = LocalDate.parse(r.getDate());
-                if (!date.isBefore(today) && !date.isAfter(limit)) {
-                    reservations.add(r);
-                    tableModel.addRow(new Object[]{r.getDate(), r.getTime(), r.getTableNumber(), r.getName()});
-                }
-            }
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, "Reservierungen konnten nicht geladen werden.", "Fehler", JOptionPane.ERROR_MESSAGE);
+            day = LocalDate.parse(input.trim());
+        } catch (java.time.format.DateTimeParseException ex) {
+            JOptionPane.showMessageDialog(this, "Ungültiges Datum");
+            return;
         }
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        assignmentLoader.load(
+                () -> reservationService.planTableAssignment(day),
+                plan -> {
+                    setCursor(Cursor.getDefaultCursor());
+                    if (plan.getMoves().isEmpty()) {
+                        JOptionPane.showMessageDialog(this, "Die Tische sind bereits bestmöglich verteilt.\n" + plan);
+                        return;
+                    }
+                    StringBuilder sb = new StringBuilder(plan.toString()).append("\n\n");
+                    plan.getMoves().stream().limit(20).forEach(m -> sb.append(m).append("\n"));
+                    if (plan.getMoves().size() > 20) {
+                        sb.append("…\n");
+                    }
+                    sb.append("\nUmsetzungen übernehmen?");
+                    if (JOptionPane.showConfirmDialog(this, sb.toString(), "Tische verteilen",
+                            JOptionPane.YES_NO_OPTION) == JOptionPane.YES_OPTION) {
+                        applyAssignment(plan);
+                    }
+                },
+                ex -> {
+                    setCursor(Cursor.getDefaultCursor());
+                    JOptionPane.showMessageDialog(this, ex.getMessage(), "Fehler", JOptionPane.ERROR_MESSAGE);
+                });
+    }
+
+    private void applyAssignment(TableAssignmentOptimizer.Plan plan) {
+        applyLoader.load(
+                () -> reservationService.applyTableAssignment(plan),
+                saved -> {
+                    if (!saved) {
+                        JOptionPane.showMessageDialog(this,
+                                "Die Reservierungen haben sich inzwischen geändert. Bitte erneut verteilen.");
+                    }
+                },
+                ex -> JOptionPane.showMessageDialog(this, ex.getMessage(), "Fehler", JOptionPane.ERROR_MESSAGE));
+    }
+
+    private static Object[] row(Reservation r) {
+        return new Object[]{r.getDate(), r.getTime(), r.getTableNumber(), r.getName()};
     }
 
-    /** Erstellt das Panel mit dem Tischplan. */
+    /** Erstellt das Panel mit dem Tischplan; die Tische werden im Hintergrund geladen. */
     private JPanel createFloorPlanPane() {
         JPanel panel = new JPanel(new GridLayout(0, 5, 10, 10));
+        panel.add(new JLabel("Lade Tischplan…"));
 
         TableService tableService = new TableService();
-        java.util.List<Table> tables;
-        try {
-            tables = tableService.getAllTables();
-        } catch (java.sql.SQLException e) {
-            tables = java.util.Collections.emptyList();
-        }
-
-        for (Table t : tables) {
-            JButton btn = new JButton("T" + t.getId());
-            btn.addActionListener(e -> showTableInfo(t));
-            panel.add(btn);
-        }
+        floorPlanLoader.load(
+                tableService::getAllTables,
+                tables -> {
+                    panel.removeAll();
+                    for (Table t : tables) {
+                        JButton btn = new JButton("T" + t.getId());
+                        btn.addActionListener(e -> showTableInfo(t));
+                        panel.add(btn);
+                    }
+                    panel.revalidate();
+                    panel.repaint();
+                },
+                ex -> {
+                    panel.removeAll();
+                    panel.revalidate();
+                    panel.repaint();
+                });
 
         return panel;
     }
@@ -144,21 +262,28 @@ public class DashboardFrame extends JFrame {
         StringBuilder sb = new StringBuilder();
         sb.append("Tisch ").append(table.getId()).append("\n");
         sb.append("Sitzplätze: ").append(table.getSeats()).append("\n\n");
-        try {
-            java.util.List<Reservation> list = reservationService.getReservationsForTable(table.getId());
-            if (list.isEmpty()) {
-                sb.append("Keine Reservierungen vorhanden");
-            } else {
-                sb.append("Reservierungen:\n");
-                for (Reservation r : list) {
-                    sb.append(r.getDate()).append(" ").append(r.getTime())
-                      .append(" - ").append(r.getName()).append("\n");
-                }
-            }
-        } catch (Exception ex) {
-            sb.append("Reservierungen konnten nicht geladen werden.");
-        }
-        JOptionPane.showMessageDialog(this, sb.toString(),
-                "Tisch " + table.getId(), JOptionPane.INFORMATION_MESSAGE);
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        tableInfoLoader.load(
+                () -> reservationService.getReservationsForTable(table.getId()),
+                list -> {
+                    setCursor(Cursor.getDefaultCursor());
+                    if (list.isEmpty()) {
+                        sb.append("Keine Reservierungen vorhanden");
+                    } else {
+                        sb.append("Reservierungen:\n");
+                        for (Reservation r : list) {
+                            sb.append(r.getDate()).append(" ").append(r.getTime())
+                              .append(" - ").append(r.getName()).append("\n");
+                        }
+                    }
+                    JOptionPane.showMessageDialog(this, sb.toString(),
+                            "Tisch " + table.getId(), JOptionPane.INFORMATION_MESSAGE);
+                },
+                ex -> {
+                    setCursor(Cursor.getDefaultCursor());
+                    sb.append("Reservierungen konnten nicht geladen werden.");
+                    JOptionPane.showMessageDialog(this, sb.toString(),
+                            "Tisch " + table.getId(), JOptionPane.INFORMATION_MESSAGE);
+                });
     }
 }
@@ -7,7 +7,6 @@ import com.restaurant.reservation.model.Reservation;
 
 import javax.swing.*;
 import java.awt.*;
-import java.sql.SQLException;
 import java.util.List;
 
 /**
@@ -17,6 +16,8 @@ public class FloorPlanFrame extends JFrame {
 
     private final TableService tableService = new TableService();
     private final ReservationService reservationService = new ReservationService();
+    private final BackgroundLoader<List<Table>> tableLoader = new BackgroundLoader<>("floorPlan.tables");
+    private final BackgroundLoader<List<Reservation>> infoLoader = new BackgroundLoader<>("floorPlan.tableInfo");
 
     public FloorPlanFrame() {
         setTitle("Tischplan");
@@ -25,21 +26,34 @@ public class FloorPlanFrame extends JFrame {
         setLocationRelativeTo(null);
 
         JPanel panel = new JPanel(new GridLayout(0, 5, 10, 10));
-
-        List<Table> tables;
-        try {
-            tables = tableService.getAllTables();
-        } catch (SQLException e) {
-            tables = java.util.Collections.emptyList();
-        }
-
-        for (Table t : tables) {
-            JButton btn = new JButton("T" + t.getId());
-            btn.addActionListener(e -> showTableInfo(t));
-            panel.add(btn);
-        }
-
+        panel.add(new JLabel("Lade Tischplan…"));
         add(new JScrollPane(panel), BorderLayout.CENTER);
+
+        tableLoader.load(
+                tableService::getAllTables,
+                tables -> {
+                    panel.removeAll();
+                    for (Table t : tables) {
+                        JButton btn = new JButton("T" + t.getId());
+                        btn.addActionListener(e -> showTableInfo(t));
+                        panel.add(btn);
+                    }
+                    panel.revalidate();
+                    panel.repaint();
+                },
+                ex -> {
+                    panel.removeAll();
+                    panel.add(new JLabel("Tische konnten nicht geladen werden."));
+                    panel.revalidate();
+                    panel.repaint();
+                });
+        addWindowListener(new java.awt.event.WindowAdapter() {
+            @Override
+            public void windowClosed(java.awt.event.WindowEvent e) {
+                tableLoader.cancel();
+                infoLoader.cancel();
+            }
+        });
     }
 
     /** Zeigt ein Dialogfenster mit Informationen zum Tisch an. */
@@ -47,20 +61,26 @@ public class FloorPlanFrame extends JFrame {
         StringBuilder sb = new StringBuilder();
         sb.append("Tisch ").append(table.getId()).append("\n");
         sb.append("Sitzplätze: ").append(table.getSeats()).append("\n\n");
-        try {
-            List<Reservation> list = reservationService.getReservationsForTable(table.getId());
-            if (list.isEmpty()) {
-                sb.append("Keine Reservierungen vorhanden");
-            } else {
-                sb.append("Reservierungen:\n");
-                for (Reservation r : list) {
-                    sb.append(r.getDate()).append(" ").append(r.getTime())
-                      .append(" - ").append(r.getName()).append("\n");
-                }
-            }
-        } catch (Exception ex) {
-            sb.append("Reservierungen konnten nicht geladen werden.");
-        }
-        JOptionPane.showMessageDialog(this, sb.toString(), "Tisch " + table.getId(), JOptionPane.INFORMATION_MESSAGE);
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        infoLoader.load(
+                () -> reservationService.getReservationsForTable(table.getId()),
+                list -> {
+                    setCursor(Cursor.getDefaultCursor());
+                    if (list.isEmpty()) {
+                        sb.append("Keine Reservierungen vorhanden");
+                    } else {
+                        sb.append("Reservierungen:\n");
+                        for (Reservation r : list) {
+                            sb.append(r.getDate()).append(" ").append(r.getTime())
+                              .append(" - ").append(r.getName()).append("\n");
+                        }
+                    }
+                    JOptionPane.showMessageDialog(this, sb.toString(), "Tisch " + table.getId(), JOptionPane.INFORMATION_MESSAGE);
+                },
+                ex -> {
+                    setCursor(Cursor.getDefaultCursor());
+                    sb.append("Reservierungen konnten nicht geladen werden.");
+                    JOptionPane.showMessageDialog(this, sb.toString(), "Tisch " + table.getId(), JOptionPane.INFORMATION_MESSAGE);
+                });
     }
 }
@@ -1,33 +1,255 @@
 package com.restaurant.reservation.ui;
 
+import com.restaurant.reservation.api.BookingServer;
+import com.restaurant.reservation.dao.Database;
 import com.restaurant.reservation.dao.ReservationDAO;
+import com.restaurant.reservation.dao.ReservationExporter;
+import com.restaurant.reservation.dao.ReservationGenerator;
+import com.restaurant.reservation.dao.SlowQueryLog;
 import com.restaurant.reservation.dao.TableDAO;
+import com.restaurant.reservation.metrics.ReservationMetrics;
 import com.restaurant.reservation.service.ReservationService;
 import javax.swing.SwingUtilities;
 import javax.swing.UIManager;
 import javax.swing.plaf.FontUIResource;
 import com.formdev.flatlaf.FlatLightLaf;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 
 public class MainApp {
+    /** Übersicht der Aufrufoptionen für {@code --help} und ungültige Aufrufe. */
+    private static final String USAGE = String.join(System.lineSeparator(),
+            "Aufruf: MainApp [Optionen]",
+            "  --db <Datei>                   andere Datenbankdatei verwenden",
+            "  --metrics <Datei>              Laufzeitmetriken jede Minute in die Datei schreiben",
+            "  --slow-query-ms <ms>           Anweisungen ab <ms> protokollieren (Standard: aus)",
+            "  --generate <Tische> <Tage>     synthetischen Bestand erzeugen und beenden",
+            "  --rebuild-statistics           Kennzahlentabellen neu berechnen und beenden",
+            "  --import <Datei>               Reservierungen importieren und beenden",
+            "  --export <Datei>               Reservierungen exportieren und beenden, dazu optional",
+            "      [--cancellations] [--from <YYYY-MM-DD>] [--to <YYYY-MM-DD>]",
+            "  --serve [Port]                 Buchungsschnittstelle statt der Oberfläche starten");
+
     public static void main(String[] args) {
-        // FlatLaf-Look-and-Feel
-        java.util.Map<String, String> uiDefaults =
-                java.util.Collections.singletonMap("@accentColor", "#ff5722");
-        com.formdev.flatlaf.FlatLaf.setGlobalExtraDefaults(uiDefaults);
-        FlatLightLaf.setup();
-        UIManager.put("defaultFont", new FontUIResource("SansSerif", java.awt.Font.PLAIN, 14));
+        if (args.length == 1 && (args[0].equals("--help") || args[0].equals("-h"))) {
+            System.out.println(USAGE);
+            return;
+        }
+        Options options;
+        try {
+            options = Options.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+
+        if (!options.serve) {
+            // FlatLaf-Look-and-Feel
+            java.util.Map<String, String> uiDefaults =
+                    java.util.Collections.singletonMap("@accentColor", "#ff5722");
+            com.formdev.flatlaf.FlatLaf.setGlobalExtraDefaults(uiDefaults);
+            FlatLightLaf.setup();
+            UIManager.put("defaultFont", new FontUIResource("SansSerif", java.awt.Font.PLAIN, 14));
+        }
 
         // Datenbank vorbereiten
+        Runtime.getRuntime().addShutdownHook(new Thread(Database::shutdown));
+        if (options.db != null) {
+            // andere Datenbankdatei verwenden, z.B. für Lasttests
+            Database.configure("jdbc:sqlite:" + options.db);
+        }
+        if (options.metrics != null) {
+            // Laufzeitmetriken jede Minute und beim Beenden in eine Datei schreiben
+            ReservationMetrics metrics = ReservationMetrics.get();
+            metrics.startPeriodicDump(options.metrics, 60);
+            Runtime.getRuntime().addShutdownHook(new Thread(metrics::dump));
+        }
+        if (options.slowQueryMs >= 0) {
+            // Slow-Query-Log nur auf Wunsch einschalten, 0 lässt es abgeschaltet
+            SlowQueryLog.setThreshold(Duration.ofMillis(options.slowQueryMs));
+        }
         ReservationDAO.createTable();
         TableDAO.createTable();
+        if (options.generateTables > 0) {
+            // Synthetischen Bestand für Last- und Benchmarktests erzeugen:
+            // --generate <Tische> <Tage>; 90 % der Tage liegen in der Vergangenheit
+            try {
+                int days = options.generateDays;
+                LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+                LocalDate first = now.toLocalDate().minusDays(days * 9L / 10);
+                ReservationGenerator.Result result =
+                        new ReservationGenerator(options.generateTables, first, days, 42, now)
+                                .generate(rows -> System.out.println("... " + rows + " Zeilen"));
+                System.out.println(result);
+            } catch (Exception e) {
+                System.err.println("Erzeugen fehlgeschlagen: " + e.getMessage());
+                Database.shutdown();
+                System.exit(1);
+            }
+            Database.shutdown();
+            return;
+        }
+        if (options.rebuildStatistics) {
+            // Kennzahlentabellen einmalig aus dem Bestand neu berechnen
+            ReservationDAO.rebuildStatistics();
+            Database.shutdown();
+            return;
+        }
+        if (options.importFile != null) {
+            // Reservierungsdatei ohne Oberfläche importieren
+            try {
+                ReservationService importService = new ReservationService();
+                System.out.println(importService.importReservations(options.importFile,
+                        progress -> System.out.println("... " + progress)));
+            } catch (Exception e) {
+                System.err.println("Import fehlgeschlagen: " + e.getMessage());
+                Database.shutdown();
+                System.exit(1);
+            }
+            Database.shutdown();
+            return;
+        }
+
+        if (options.exportFile != null) {
+            // Reservierungen bzw. mit --cancellations die Stornierungen exportieren,
+            // optional eingegrenzt mit --from/--to (YYYY-MM-DD)
+            ReservationExporter.Source source = options.cancellations
+                    ? ReservationExporter.Source.CANCELLATIONS : ReservationExporter.Source.RESERVATIONS;
+            try {
+                long rows = new ReservationService().exportData(source, options.exportFile, options.from, options.to);
+                System.out.println(rows + " Zeilen exportiert");
+            } catch (Exception e) {
+                System.err.println("Export fehlgeschlagen: " + e.getMessage());
+                Database.shutdown();
+                System.exit(1);
+            }
+            Database.shutdown();
+            return;
+        }
+
+        if (options.serve) {
+            // Buchungsschnittstelle ohne Oberfläche starten: --serve [Port]
+            try {
+                BookingServer server = new BookingServer(new ReservationService(),
+                        new InetSocketAddress(options.port));
+                Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+                server.start();
+                System.out.println("Buchungsschnittstelle läuft auf Port " + server.getPort());
+            } catch (IOException e) {
+                System.err.println("Server konnte nicht gestartet werden: " + e.getMessage());
+                Database.shutdown();
+                System.exit(1);
+            }
+            return;
+        }
+
+        // Anwendung starten; Beispieldaten nur für die Oberfläche, nicht für Import, Export oder Schnittstelle
         ReservationDAO.mergeSampleDataFromFile("sql/sample_reservations.sql");
         ReservationDAO.importSampleDataIfEmpty();
-
-        // Anwendung starten
         ReservationService service = new ReservationService();
         SwingUtilities.invokeLater(() -> {
             DashboardFrame frame = new DashboardFrame(service);
             frame.setVisible(true);
         });
     }
+
+    /**
+     * Aufrufoptionen, einmal vollständig geprüft, bevor etwas gestartet wird.
+     * Unbekannte Optionen, fehlende Werte und ungültige Zahlen führen zu einer
+     * {@link IllegalArgumentException} mit einer Meldung für den Benutzer.
+     */
+    private static final class Options {
+        String db;
+        Path metrics;
+        long slowQueryMs = -1;
+        int generateTables;
+        int generateDays;
+        boolean rebuildStatistics;
+        Path importFile;
+        Path exportFile;
+        boolean cancellations;
+        String from;
+        String to;
+        boolean serve;
+        int port = BookingServer.DEFAULT_PORT;
+
+        static Options parse(String[] args) {
+            Options options = new Options();
+            for (int i = 0; i < args.length; i++) {
+                String option = args[i];
+                switch (option) {
+                    case "--db":
+                        options.db = value(args, ++i, option);
+                        break;
+                    case "--metrics":
+                        options.metrics = Paths.get(value(args, ++i, option));
+                        break;
+                    case "--slow-query-ms":
+                        options.slowQueryMs = number(args, ++i, option, 0, Long.MAX_VALUE);
+                        break;
+                    case "--generate":
+                        options.generateTables = (int) number(args, ++i, option, 1, Integer.MAX_VALUE);
+                        options.generateDays = (int) number(args, ++i, option, 1, Integer.MAX_VALUE);
+                        break;
+                    case "--rebuild-statistics":
+                        options.rebuildStatistics = true;
+                        break;
+                    case "--import":
+                        options.importFile = Paths.get(value(args, ++i, option));
+                        break;
+                    case "--export":
+                        options.exportFile = Paths.get(value(args, ++i, option));
+                        break;
+                    case "--cancellations":
+                        options.cancellations = true;
+                        break;
+                    case "--from":
+                        options.from = value(args, ++i, option);
+                        break;
+                    case "--to":
+                        options.to = value(args, ++i, option);
+                        break;
+                    case "--serve":
+                        options.serve = true;
+                        if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                            options.port = (int) number(args, ++i, option, 0, 65535);
+                        }
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unbekannte Option: " + option);
+                }
+            }
+            return options;
+        }
+
+        /** Wert an Position {@code index}, der zur Option {@code option} gehört. */
+        private static String value(String[] args, int index, String option) {
+            if (index >= args.length || args[index].startsWith("--")) {
+                throw new IllegalArgumentException(option + ": Wert fehlt");
+            }
+            return args[index];
+        }
+
+        /** Ganzzahliger Wert der Option im Bereich {@code min} bis {@code max}. */
+        private static long number(String[] args, int index, String option, long min, long max) {
+            String text = value(args, index, option);
+            try {
+                long number = Long.parseLong(text);
+                if (number >= min && number <= max) {
+                    return number;
+                }
+            } catch (NumberFormatException e) {
+                // unten gemeldet
+            }
+            throw new IllegalArgumentException(option + ": ungültige Zahl \"" + text + "\"");
+        }
+    }
 }
@@ -1,5 +1,6 @@
 package com.restaurant.reservation.ui;
 
+import com.restaurant.reservation.model.Reservation;
 import com.restaurant.reservation.service.ReservationService;
 import com.restaurant.reservation.service.TableService;
 
@@ -23,6 +24,12 @@ public class ReservationFormFrame extends JFrame {
     private JTextField nameField;
     private JLabel tableLabel;
     private Integer selectedTable;
+    private JButton reserveButton;
+    private final BackgroundLoader<String> saveLoader = new BackgroundLoader<>("reservationForm.save");
+    private final BackgroundLoader<com.restaurant.reservation.model.Table> suggestLoader =
+            new BackgroundLoader<>("reservationForm.suggest");
+    private final BackgroundLoader<com.restaurant.reservation.model.WaitlistEntry> waitlistLoader =
+            new BackgroundLoader<>("reservationForm.waitlist");
     private final TableService tableService = new TableService();
 
     public ReservationFormFrame(DashboardFrame dashboard, ReservationService service) {
@@ -50,10 +57,8 @@ public class ReservationFormFrame extends JFrame {
 
         formPanel.add(new JLabel("Uhrzeit:"));
         timeCombo = new JComboBox<>();
-        LocalTime start = LocalTime.of(10,0);
-        for (int i=0;i<=24;i++) {
-            LocalTime t = start.plusMinutes(i*30L);
-            if (t.isAfter(LocalTime.of(22,0))) break;
+        for (int i=0;i<Reservation.SLOTS_PER_DAY;i++) {
+            LocalTime t = LocalTime.ofSecondOfDay((Reservation.FIRST_SLOT_MINUTE + i*Reservation.SLOT_MINUTES) * 60L);
             timeCombo.addItem(t.format(DateTimeFormatter.ofPattern("HH:mm")));
         }
         formPanel.add(timeCombo);
@@ -69,7 +74,10 @@ public class ReservationFormFrame extends JFrame {
         tableLabel = new JLabel("-");
         formPanel.add(tableLabel);
 
-        JButton reserveButton = new JButton("Reservieren");
+        JButton suggestTableBtn = new JButton("Tisch vorschlagen");
+        formPanel.add(suggestTableBtn);
+
+        reserveButton = new JButton("Reservieren");
         JButton backButton = new JButton("Zurück");
         JPanel buttonPanel = new JPanel();
         buttonPanel.add(reserveButton);
@@ -79,6 +87,7 @@ public class ReservationFormFrame extends JFrame {
         add(buttonPanel, BorderLayout.SOUTH);
 
         selectTableBtn.addActionListener(e -> onSelectTable());
+        suggestTableBtn.addActionListener(e -> onSuggestTable());
         backButton.addActionListener(e -> dispose());
         reserveButton.addActionListener(e -> onReserve());
 
@@ -99,6 +108,58 @@ public class ReservationFormFrame extends JFrame {
         }
     }
 
+    /** Übernimmt den vorgeschlagenen Tisch (kleinster passender, wenig Lücken). */
+    private void onSuggestTable() {
+        String date = (String) dateCombo.getSelectedItem();
+        String time = (String) timeCombo.getSelectedItem();
+        int persons = (Integer) personsCombo.getSelectedItem();
+        tableLabel.setText("Suche…");
+        suggestLoader.load(
+                () -> reservationService.suggestTable(date, time, persons),
+                tbl -> {
+                    if (tbl == null) {
+                        tableLabel.setText(selectedTable == null ? "-" : "Tisch " + selectedTable);
+                        offerWaitlist(date, time, persons);
+                        return;
+                    }
+                    selectedTable = tbl.getId();
+                    tableLabel.setText("Tisch " + tbl.getId() + " (" + tbl.getSeats() + " Plätze)");
+                },
+                ex -> {
+                    tableLabel.setText(selectedTable == null ? "-" : "Tisch " + selectedTable);
+                    JOptionPane.showMessageDialog(this, ex.getMessage(), "Fehler", JOptionPane.ERROR_MESSAGE);
+                });
+    }
+
+    /**
+     * Bietet an, die Gruppe auf die Warteliste zu setzen. Sie rückt nach, wenn
+     * bis zu einer Stunde nach der gewünschten Uhrzeit ein passender Tisch
+     * storniert wird.
+     */
+    private void offerWaitlist(String date, String time, int persons) {
+        String name = nameField.getText().trim();
+        int answer = JOptionPane.showConfirmDialog(this,
+                "Zu diesem Zeitpunkt ist kein passender Tisch frei.\nGast auf die Warteliste setzen?",
+                "Warteliste", JOptionPane.YES_NO_OPTION);
+        if (answer != JOptionPane.YES_OPTION) {
+            return;
+        }
+        if (name.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "Name darf nicht leer sein");
+            return;
+        }
+        LocalTime earliest = LocalTime.parse(time);
+        LocalTime latest = earliest.isAfter(LocalTime.of(23, 0)) ? LocalTime.of(23, 59) : earliest.plusHours(1);
+        waitlistLoader.load(
+                () -> reservationService.addToWaitlist(name, date, time,
+                        latest.format(DateTimeFormatter.ofPattern("HH:mm")), persons, 0),
+                entry -> {
+                    JOptionPane.showMessageDialog(this, "Auf die Warteliste gesetzt: " + entry);
+                    dispose();
+                },
+                ex -> JOptionPane.showMessageDialog(this, ex.getMessage(), "Fehler", JOptionPane.ERROR_MESSAGE));
+    }
+
     private void onReserve() {
         String name = nameField.getText().trim();
         String date = (String) dateCombo.getSelectedItem();
@@ -116,16 +177,6 @@ public class ReservationFormFrame extends JFrame {
             JOptionPane.showMessageDialog(this, "Personenzahl ungültig");
             return;
         }
-        try {
-            com.restaurant.reservation.model.Table tbl = tableService.getTableById(selectedTable);
-            if (tbl != null && persons > tbl.getSeats()) {
-                JOptionPane.showMessageDialog(this, "Gewählter Tisch hat nicht genug Sitzplätze.");
-                return;
-            }
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, "Konnte Sitzplatzanzahl nicht prüfen.", "Fehler", JOptionPane.WARNING_MESSAGE);
-            return;
-        }
         try {
             LocalDate.parse(date);
             LocalTime.parse(time);
@@ -133,12 +184,32 @@ public class ReservationFormFrame extends JFrame {
             JOptionPane.showMessageDialog(this, "Ungültiges Datum oder Uhrzeit");
             return;
         }
-        try {
-            reservationService.addReservation(name, date, time, persons, selectedTable);
-            dashboard.refreshTable();
+        int table = selectedTable;
+        reserveButton.setEnabled(false);
+        // Sitzplatzprüfung und Speichern laufen im Hintergrund; das Ergebnis ist
+        // null bei Erfolg, sonst ein Hinweis für den Benutzer
+        saveLoader.load(() -> {
+            com.restaurant.reservation.model.Table tbl;
+            try {
+                tbl = tableService.getTableById(table);
+            } catch (Exception ex) {
+                return "Konnte Sitzplatzanzahl nicht prüfen.";
+            }
+            if (tbl != null && persons > tbl.getSeats()) {
+                return "Gewählter Tisch hat nicht genug Sitzplätze.";
+            }
+            reservationService.addReservation(name, date, time, persons, table);
+            return null;
+        }, hint -> {
+            reserveButton.setEnabled(true);
+            if (hint != null) {
+                JOptionPane.showMessageDialog(this, hint);
+                return;
+            }
             dispose();
-        } catch (Exception ex) {
+        }, ex -> {
+            reserveButton.setEnabled(true);
             JOptionPane.showMessageDialog(this, ex.getMessage(), "Fehler", JOptionPane.ERROR_MESSAGE);
-        }
+        });
     }
 }
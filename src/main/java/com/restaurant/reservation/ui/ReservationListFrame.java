@@ -1,22 +1,34 @@
 package com.restaurant.reservation.ui;
 
+import com.restaurant.reservation.dao.ReservationExporter;
+import com.restaurant.reservation.dao.WriteResult;
 import com.restaurant.reservation.model.Reservation;
+import com.restaurant.reservation.model.ReservationStatus;
 import com.restaurant.reservation.service.ReservationService;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
-import java.util.ArrayList;
-import java.util.List;
 
 /**
- * Anzeige aller Reservierungen.
+ * Anzeige aller Reservierungen. Die Zeilen werden beim Scrollen seitenweise
+ * nachgeladen (siehe {@link ReservationTableModel}); Stornierungen und
+ * Statusänderungen erreichen die Tabelle wie Änderungen aus anderen Fenstern
+ * über den Ereignisbus.
+ * <p>
+ * Stornieren und Statusänderungen beziehen sich auf die angezeigte Version
+ * der Reservierung. Hat ein anderer Arbeitsplatz sie inzwischen geändert,
+ * zeigt das Fenster den aktuellen Stand und fragt, ob die Aktion darauf
+ * angewendet werden soll. Bis eine Änderung gespeichert ist, sind die
+ * Aktionsknöpfe gesperrt; die Änderung selbst wird nie abgebrochen.
  */
 public class ReservationListFrame extends JFrame {
     private final ReservationService service;
     private JTable table;
-    private DefaultTableModel model;
-    private List<Reservation> reservations = new ArrayList<>();
+    private ReservationTableModel model;
+    private final JButton deleteBtn = new JButton("Stornieren");
+    private final JButton attendBtn = new JButton("Anwesend");
+    private final JButton noShowBtn = new JButton("No-Show");
+    private final BackgroundLoader<Long> exportLoader = new BackgroundLoader<>("reservationList.export");
 
     public ReservationListFrame(ReservationService service) {
         this.service = service;
@@ -25,40 +37,37 @@ public class ReservationListFrame extends JFrame {
         setLayout(new BorderLayout(10,10));
         ((JComponent)getContentPane()).setBorder(BorderFactory.createEmptyBorder(10,10,10,10));
 
-        model = new DefaultTableModel(new Object[]{"Datum","Uhrzeit","Tisch","Gast","Status"},0) {
-            @Override public boolean isCellEditable(int r,int c){return false;}
-        };
+        model = new ReservationTableModel(service);
         table = new JTable(model);
         add(new JScrollPane(table), BorderLayout.CENTER);
 
-        JButton deleteBtn = new JButton("Stornieren");
-        JButton attendBtn = new JButton("Anwesend");
-        JButton noShowBtn = new JButton("No-Show");
+        JButton exportBtn = new JButton("Exportieren…");
         JPanel south = new JPanel();
         south.add(deleteBtn);
         south.add(attendBtn);
         south.add(noShowBtn);
+        south.add(exportBtn);
         add(south, BorderLayout.SOUTH);
 
         deleteBtn.addActionListener(e -> onDelete());
-        attendBtn.addActionListener(e -> setStatus("ATTENDED"));
-        noShowBtn.addActionListener(e -> setStatus("NOSHOW"));
+        attendBtn.addActionListener(e -> setStatus(ReservationStatus.ATTENDED));
+        noShowBtn.addActionListener(e -> setStatus(ReservationStatus.NOSHOW));
+        exportBtn.addActionListener(e -> onExport());
 
         setSize(600,400);
         setLocationRelativeTo(null);
+        addWindowListener(new java.awt.event.WindowAdapter() {
+            @Override
+            public void windowClosed(java.awt.event.WindowEvent e) {
+                model.cancel();
+                exportLoader.cancel();
+            }
+        });
         loadData();
     }
 
     private void loadData() {
-        try {
-            reservations = service.getAllReservations();
-            model.setRowCount(0);
-            for (Reservation r : reservations) {
-                model.addRow(new Object[]{r.getDate(), r.getTime(), r.getTableNumber(), r.getName(), r.getStatus()});
-            }
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, "Reservierungen konnten nicht geladen werden.");
-        }
+        model.reload(ex -> JOptionPane.showMessageDialog(this, "Reservierungen konnten nicht geladen werden."));
     }
 
     private void onDelete() {
@@ -67,29 +76,120 @@ public class ReservationListFrame extends JFrame {
             JOptionPane.showMessageDialog(this, "Bitte eine Reservierung auswählen.");
             return;
         }
-        Reservation res = reservations.get(row);
+        Reservation res = model.getReservation(row);
+        if (res == null) return;
         int confirm = JOptionPane.showConfirmDialog(this, "Reservierung stornieren?", "Bestätigen", JOptionPane.YES_NO_OPTION);
         if (confirm != JOptionPane.YES_OPTION) return;
-        try {
-            service.deleteReservation(res.getId());
-            loadData();
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, ex.getMessage(), "Fehler", JOptionPane.ERROR_MESSAGE);
-        }
+        delete(res);
+    }
+
+    private void delete(Reservation res) {
+        write(() -> service.deleteReservation(res.getId(), res.getVersion()),
+           result -> onConflict(result, "stornieren", this::delete));
     }
 
-    private void setStatus(String status) {
+    private void setStatus(ReservationStatus status) {
         int row = table.getSelectedRow();
         if (row < 0) {
             JOptionPane.showMessageDialog(this, "Bitte eine Reservierung auswählen.");
             return;
         }
-        Reservation res = reservations.get(row);
-        try {
-            service.setStatus(res.getId(), status);
-            loadData();
-        } catch (Exception ex) {
+        Reservation res = model.getReservation(row);
+        if (res == null) return;
+        setStatus(res, status);
+    }
+
+    private void setStatus(Reservation res, ReservationStatus status) {
+        write(() -> service.setStatus(res.getId(), status, res.getVersion()),
+           result -> onConflict(result, "auf " + status + " setzen", current -> setStatus(current, status)));
+    }
+
+    /**
+     * Speichert eine Änderung im Hintergrund. Die Aktionsknöpfe bleiben bis zur
+     * Rückmeldung gesperrt, damit ein weiterer Klick sie nicht überholt.
+     */
+    private void write(java.util.concurrent.Callable<WriteResult> task,
+                       java.util.function.Consumer<WriteResult> onResult) {
+        setActionsEnabled(false);
+        BackgroundLoader.write("reservationList.action", task, result -> {
+            setActionsEnabled(true);
+            onResult.accept(result);
+        }, ex -> {
+            setActionsEnabled(true);
             JOptionPane.showMessageDialog(this, ex.getMessage(), "Fehler", JOptionPane.ERROR_MESSAGE);
+        });
+    }
+
+    private void setActionsEnabled(boolean enabled) {
+        deleteBtn.setEnabled(enabled);
+        attendBtn.setEnabled(enabled);
+        noShowBtn.setEnabled(enabled);
+    }
+
+    /**
+     * Meldet eine zwischenzeitliche Änderung durch einen anderen Arbeitsplatz.
+     * Die Tabelle zeigt dann bereits den aktuellen Stand; auf Wunsch wird die
+     * Aktion mit dessen Version wiederholt.
+     */
+    private void onConflict(WriteResult result, String action, java.util.function.Consumer<Reservation> retry) {
+        if (result.getOutcome() == WriteResult.Outcome.NOT_FOUND) {
+            JOptionPane.showMessageDialog(this, "Die Reservierung existiert nicht mehr.");
+            loadData();
+            return;
+        }
+        if (!result.isConflict()) return;
+        Reservation current = result.getReservation();
+        String message = "Die Reservierung wurde zwischenzeitlich an einem anderen Arbeitsplatz geändert:\n" +
+                current.getName() + ", " + current.getDate() + " " + current.getTime() +
+                ", Tisch " + current.getTableNumber() + ", Status " + current.getStatus() +
+                "\n\nTrotzdem " + action + "?";
+        int choice = JOptionPane.showConfirmDialog(this, message, "Konflikt", JOptionPane.YES_NO_OPTION,
+                JOptionPane.WARNING_MESSAGE);
+        if (choice == JOptionPane.YES_OPTION) {
+            retry.accept(current);
         }
     }
+
+    /**
+     * Exportiert Reservierungen oder Stornierungen, optional auf einen
+     * Datumsbereich eingegrenzt. Der Export läuft im Hintergrund.
+     */
+    private void onExport() {
+        if (exportLoader.isLoading()) {
+            JOptionPane.showMessageDialog(this, "Ein Export läuft bereits.");
+            return;
+        }
+        JComboBox<String> sourceCombo = new JComboBox<>(new String[]{"Reservierungen", "Stornierungen"});
+        JTextField fromField = new JTextField(10);
+        JTextField toField = new JTextField(10);
+        JPanel options = new JPanel(new GridLayout(3, 2, 5, 5));
+        options.add(new JLabel("Daten:"));
+        options.add(sourceCombo);
+        options.add(new JLabel("Von (YYYY-MM-DD):"));
+        options.add(fromField);
+        options.add(new JLabel("Bis (YYYY-MM-DD):"));
+        options.add(toField);
+        int choice = JOptionPane.showConfirmDialog(this, options, "Exportieren", JOptionPane.OK_CANCEL_OPTION);
+        if (choice != JOptionPane.OK_OPTION) return;
+
+        JFileChooser chooser = new JFileChooser();
+        chooser.setSelectedFile(new java.io.File(sourceCombo.getSelectedIndex() == 0
+                ? "reservierungen.csv" : "stornierungen.csv"));
+        chooser.setDialogTitle("Export (.csv oder .jsonl, optional .gz)");
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+
+        java.nio.file.Path file = chooser.getSelectedFile().toPath();
+        ReservationExporter.Source source = sourceCombo.getSelectedIndex() == 0
+                ? ReservationExporter.Source.RESERVATIONS : ReservationExporter.Source.CANCELLATIONS;
+        String from = fromField.getText().trim().isEmpty() ? null : fromField.getText().trim();
+        String to = toField.getText().trim().isEmpty() ? null : toField.getText().trim();
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        exportLoader.load(() -> service.exportData(source, file, from, to), rows -> {
+            setCursor(Cursor.getDefaultCursor());
+            JOptionPane.showMessageDialog(this, rows + " Zeilen exportiert.");
+        }, ex -> {
+            setCursor(Cursor.getDefaultCursor());
+            JOptionPane.showMessageDialog(this, ex.getMessage(), "Fehler", JOptionPane.ERROR_MESSAGE);
+        });
+    }
 }
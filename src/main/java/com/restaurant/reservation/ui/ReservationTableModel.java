@@ -0,0 +1,328 @@
+package com.restaurant.reservation.ui;
+
+import com.restaurant.reservation.metrics.ReservationMetrics;
+import com.restaurant.reservation.model.Reservation;
+import com.restaurant.reservation.service.ReservationEvent;
+import com.restaurant.reservation.service.ReservationEventBus;
+import com.restaurant.reservation.service.ReservationService;
+
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Tabellenmodell, das Reservierungen seitenweise nachlädt, während der
+ * Benutzer scrollt. Seiten werden per Keyset (Termin, ID) abgefragt und
+ * nur in begrenzter Zahl im Speicher gehalten. Änderungen kommen über den
+ * {@link ReservationEventBus} und werden als einzelne Zeile eingefügt,
+ * entfernt oder ersetzt, auch wenn sie in einem anderen Fenster vorgenommen
+ * wurden; verworfen werden höchstens die Seiten ab der geänderten Zeile.
+ * <p>
+ * Alle Abfragen laufen über {@link BackgroundLoader} außerhalb des EDT. Noch
+ * nicht geladene Zeilen zeigen einen Platzhalter, bis ihre Seite eintrifft.
+ * Schlägt eine Seite fehl, wird sie mit wachsendem Abstand erneut abgefragt;
+ * der erste Fehler einer Serie geht an den Fehlerbehandler von {@link #reload}.
+ */
+public class ReservationTableModel extends AbstractTableModel {
+    /** Anzahl Zeilen pro nachgeladener Seite. */
+    static final int PAGE_SIZE = 200;
+    /** Maximale Anzahl gleichzeitig gehaltener Seiten. */
+    private static final int MAX_PAGES = 8;
+    /** Wartezeit vor dem ersten erneuten Versuch einer fehlgeschlagenen Seite. */
+    private static final int RETRY_DELAY_MS = 1000;
+    /** Obergrenze der verdoppelten Wartezeit. */
+    private static final int MAX_RETRY_DELAY_MS = 30_000;
+
+    private static final String[] COLUMNS = {"Datum", "Uhrzeit", "Tisch", "Gast", "Status"};
+    /** Sortierung der Liste: Termin, dann ID. */
+    private static final Comparator<Reservation> ORDER = Comparator.comparing(Reservation::getDate)
+            .thenComparing(Reservation::getTime)
+            .thenComparing(Reservation::getId);
+
+    private final ReservationService service;
+    private int rowCount;
+    private final Map<Integer, List<Reservation>> pages = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<Reservation>> eldest) {
+            return size() > MAX_PAGES;
+        }
+    };
+    /** Letzte Zeile jeder bereits gelesenen Seite als Einstieg für die Folgeseite. */
+    private final Map<Integer, Reservation> lastKeys = new HashMap<>();
+    /** Seiten, deren Abfrage gerade läuft. */
+    private final Set<Integer> loadingPages = new HashSet<>();
+    /** Aufeinanderfolgende Fehlversuche je Seite. */
+    private final Map<Integer, Integer> failedPages = new HashMap<>();
+    /** Wird bei jedem Neuladen erhöht, um veraltete Seitenergebnisse zu verwerfen. */
+    private int generation;
+    private final BackgroundLoader<Integer> countLoader = new BackgroundLoader<>("reservationList.count");
+    private Consumer<Exception> reloadErrorHandler = e -> { };
+    private final Consumer<ReservationEvent> eventListener =
+            event -> SwingUtilities.invokeLater(() -> apply(event));
+
+    public ReservationTableModel(ReservationService service) {
+        this.service = service;
+        ReservationEventBus.shared().subscribe(eventListener);
+    }
+
+    /**
+     * Verwirft alle geladenen Seiten und ermittelt die Zeilenanzahl im
+     * Hintergrund neu. Ein noch laufendes Neuladen wird dabei abgebrochen.
+     * @param onError erhält einen Ladefehler auf dem EDT
+     */
+    public void reload(Consumer<Exception> onError) {
+        reloadErrorHandler = onError;
+        countLoader.load(service::getReservationCount, count -> {
+            generation++;
+            rowCount = count;
+            pages.clear();
+            lastKeys.clear();
+            loadingPages.clear();
+            failedPages.clear();
+            fireTableDataChanged();
+        }, onError);
+    }
+
+    /**
+     * Bricht alle laufenden Abfragen ab und meldet das Modell vom Ereignisbus
+     * ab; beim Schließen des Fensters aufzurufen.
+     */
+    public void cancel() {
+        ReservationEventBus.shared().unsubscribe(eventListener);
+        generation++;
+        loadingPages.clear();
+        countLoader.cancel();
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        Reservation r = getReservation(row);
+        if (r == null) {
+            if (column != 0) {
+                return null;
+            }
+            return failedPages.containsKey(row / PAGE_SIZE) ? "Ladefehler – neuer Versuch folgt" : "Lade…";
+        }
+        switch (column) {
+            case 0: return r.getDate();
+            case 1: return r.getTime();
+            case 2: return r.getTableNumber();
+            case 3: return r.getName();
+            case 4: return r.getStatus();
+            default: return null;
+        }
+    }
+
+    /**
+     * Liefert die Reservierung einer Zeile. Ist ihre Seite noch nicht geladen,
+     * wird sie im Hintergrund angefordert.
+     * @return die Reservierung oder {@code null}, solange sie noch nicht geladen ist
+     */
+    public Reservation getReservation(int row) {
+        List<Reservation> page = page(row / PAGE_SIZE);
+        int index = row % PAGE_SIZE;
+        return page != null && index < page.size() ? page.get(index) : null;
+    }
+
+    /**
+     * Entfernt eine Zeile nach einer Stornierung. Seiten vor der Zeile bleiben
+     * gültig; nur die betroffene und alle folgenden Seiten werden verworfen.
+     */
+    public void removeRow(int row) {
+        discardPagesFrom(row / PAGE_SIZE);
+        rowCount = Math.max(0, rowCount - 1);
+        fireTableRowsDeleted(row, row);
+    }
+
+    /**
+     * Überträgt eine Änderung auf die Tabelle. Während die Zeilenanzahl noch
+     * ermittelt wird, ist unklar, ob sie die Änderung schon enthält; dann wird
+     * sie neu ermittelt.
+     */
+    private void apply(ReservationEvent event) {
+        if (countLoader.isLoading()) {
+            reload(reloadErrorHandler);
+            return;
+        }
+        Reservation changed = event.getReservation();
+        switch (event.getType()) {
+            case CREATED: {
+                int row = rowOf(changed);
+                discardPagesFrom(row / PAGE_SIZE);
+                rowCount++;
+                fireTableRowsInserted(row, row);
+                break;
+            }
+            case CANCELLED:
+                if (rowCount > 0) {
+                    removeRow(Math.min(rowOf(changed), rowCount - 1));
+                }
+                break;
+            case STATUS_CHANGED:
+            case TABLE_CHANGED: {
+                int row = rowOf(changed);
+                List<Reservation> page = pages.get(row / PAGE_SIZE);
+                int index = row % PAGE_SIZE;
+                if (page != null && index < page.size() && page.get(index).getId().equals(changed.getId())) {
+                    page.set(index, changed);
+                    fireTableRowsUpdated(row, row);
+                }
+                break;
+            }
+        }
+    }
+
+    /**
+     * Zeilenposition einer Reservierung nach Termin und ID. Exakt, wenn die
+     * betroffene Seite geladen ist; sonst der Anfang der ersten bekannten
+     * Seite, die nicht vollständig davor liegt (die Zeilen dazwischen sind
+     * ohnehin noch Platzhalter).
+     */
+    private int rowOf(Reservation reservation) {
+        int pageIndex = Integer.MAX_VALUE;
+        for (Map.Entry<Integer, Reservation> last : lastKeys.entrySet()) {
+            if (last.getKey() < pageIndex && ORDER.compare(last.getValue(), reservation) >= 0) {
+                pageIndex = last.getKey();
+            }
+        }
+        if (pageIndex == Integer.MAX_VALUE) {
+            return rowCount;
+        }
+        List<Reservation> page = pages.get(pageIndex);
+        if (page == null) {
+            return pageIndex * PAGE_SIZE;
+        }
+        int index = Collections.binarySearch(page, reservation, ORDER);
+        return pageIndex * PAGE_SIZE + (index >= 0 ? index : -index - 1);
+    }
+
+    /**
+     * Verwirft alle Seiten ab der angegebenen. Laufende Abfragen für frühere
+     * Seiten werden neu gestartet, da ihr Ergebnis mit der alten Generation
+     * verworfen würde.
+     */
+    private void discardPagesFrom(int pageIndex) {
+        pages.keySet().removeIf(k -> k >= pageIndex);
+        lastKeys.keySet().removeIf(k -> k >= pageIndex);
+        failedPages.keySet().removeIf(k -> k >= pageIndex);
+        generation++;
+        List<Integer> pending = new ArrayList<>(loadingPages);
+        loadingPages.clear();
+        for (int k : pending) {
+            if (k < pageIndex && loadingPages.add(k)) {
+                requestPage(k);
+            }
+        }
+    }
+
+    private List<Reservation> page(int pageIndex) {
+        List<Reservation> page = pages.get(pageIndex);
+        if (page == null && loadingPages.add(pageIndex)) {
+            requestPage(pageIndex);
+        }
+        return page;
+    }
+
+    /** Lädt eine Seite im Hintergrund und meldet sie danach der Tabelle. */
+    private void requestPage(int pageIndex) {
+        int myGeneration = generation;
+        long start = System.nanoTime();
+        Reservation knownAfter = pageIndex > 0 ? lastKeys.get(pageIndex - 1) : null;
+        BackgroundLoader.submit(() -> {
+            List<Reservation> loaded;
+            try {
+                Reservation after = knownAfter;
+                if (pageIndex > 0 && after == null) {
+                    after = service.getReservationKeyAt(pageIndex * PAGE_SIZE - 1);
+                }
+                // ohne Einstiegspunkt ist die Liste inzwischen kürzer geworden
+                loaded = pageIndex > 0 && after == null
+                        ? new ArrayList<>()
+                        : service.getReservationPage(after, PAGE_SIZE);
+            } catch (Exception e) {
+                SwingUtilities.invokeLater(() -> {
+                    if (myGeneration == generation) {
+                        retryLater(pageIndex, e);
+                    }
+                });
+                return;
+            }
+            SwingUtilities.invokeLater(() -> {
+                if (myGeneration != generation) {
+                    return;
+                }
+                loadingPages.remove(pageIndex);
+                failedPages.remove(pageIndex);
+                ReservationMetrics.record("ui.reservationList.page", start);
+                if (!loaded.isEmpty()) {
+                    lastKeys.put(pageIndex, loaded.get(loaded.size() - 1));
+                }
+                pages.put(pageIndex, loaded);
+                int first = pageIndex * PAGE_SIZE;
+                int last = Math.min(rowCount, first + PAGE_SIZE) - 1;
+                if (first + loaded.size() <= last) {
+                    // Liste ist seit dem Zählen kürzer geworden (z.B. in einem anderen Programm storniert)
+                    reload(reloadErrorHandler);
+                } else if (first <= last) {
+                    fireTableRowsUpdated(first, last);
+                }
+            });
+        });
+    }
+
+    /**
+     * Fragt eine fehlgeschlagene Seite nach einer Wartezeit erneut ab, die sich
+     * mit jedem weiteren Fehlversuch verdoppelt. Bis dahin bleibt die Seite als
+     * ladend vermerkt, damit das Zeichnen der Tabelle keine Abfragen auslöst.
+     */
+    private void retryLater(int pageIndex, Exception error) {
+        int failures = failedPages.merge(pageIndex, 1, Integer::sum);
+        if (failures == 1) {
+            reloadErrorHandler.accept(error);
+        }
+        int delay = (int) Math.min(MAX_RETRY_DELAY_MS, (long) RETRY_DELAY_MS << Math.min(failures - 1, 16));
+        int myGeneration = generation;
+        Timer timer = new Timer(delay, event -> {
+            if (myGeneration == generation && loadingPages.contains(pageIndex)) {
+                requestPage(pageIndex);
+            }
+        });
+        timer.setRepeats(false);
+        timer.start();
+        int first = pageIndex * PAGE_SIZE;
+        int last = Math.min(rowCount, first + PAGE_SIZE) - 1;
+        if (first <= last) {
+            fireTableRowsUpdated(first, last);
+        }
+    }
+}
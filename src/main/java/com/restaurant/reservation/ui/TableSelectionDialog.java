@@ -1,18 +1,16 @@
 package com.restaurant.reservation.ui;
 
 import com.restaurant.reservation.service.ReservationService;
-import com.restaurant.reservation.service.TableService;
 import com.restaurant.reservation.model.Table;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableCellRenderer;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
-import java.util.ArrayList;
 import java.util.List;
 
 /**
- * Dialog für die Auswahl eines freien Tisches.
+ * Dialog für die Auswahl eines freien Tisches. Angezeigt werden nur Tische,
+ * die zum gewählten Zeitpunkt frei sind und genug Sitzplätze haben.
  */
 public class TableSelectionDialog extends JDialog {
     private final ReservationService reservationService;
@@ -22,6 +20,7 @@ public class TableSelectionDialog extends JDialog {
     private final String date;
     private final String time;
     private final int persons;
+    private final BackgroundLoader<List<Table>> loader = new BackgroundLoader<>("tableSelection.freeTables");
 
 
     public TableSelectionDialog(Window owner, ReservationService service, String date, String time, int persons) {
@@ -37,24 +36,11 @@ public class TableSelectionDialog extends JDialog {
     private void buildUi() {
         setLayout(new BorderLayout(5,5));
         ((JComponent)getContentPane()).setBorder(BorderFactory.createEmptyBorder(10,10,10,10));
-        model = new DefaultTableModel(new Object[]{"Tisch","Sitzplätze","Status"},0) {
+        model = new DefaultTableModel(new Object[]{"Tisch","Sitzplätze","Name"},0) {
             @Override public boolean isCellEditable(int r,int c){return false;}
         };
         table = new JTable(model);
         table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
-        table.setDefaultRenderer(Object.class, new DefaultTableCellRenderer() {
-            @Override
-            public Component getTableCellRendererComponent(JTable tbl, Object val, boolean selected, boolean focus, int row, int col) {
-                Component c = super.getTableCellRendererComponent(tbl,val,selected,focus,row,col);
-                Boolean res = (Boolean) tbl.getModel().getValueAt(row,2);
-                if (Boolean.TRUE.equals(res)) {
-                    c.setForeground(Color.GRAY);
-                } else {
-                    c.setForeground(Color.BLACK);
-                }
-                return c;
-            }
-        });
         add(new JScrollPane(table), BorderLayout.CENTER);
 
         JButton chooseBtn = new JButton("Auswählen");
@@ -66,27 +52,28 @@ public class TableSelectionDialog extends JDialog {
         setLocationRelativeTo(getOwner());
     }
 
+    /**
+     * Lädt die freien, ausreichend großen Tische (beste Passung zuerst) im
+     * Hintergrund; bis dahin zeigt die Tabelle einen Platzhalter.
+     */
     private void loadData() {
-        TableService tableService = new TableService();
-        List<Table> tables;
-        try {
-            tables = tableService.getAllTables();
-        } catch (Exception ex) {
-            tables = new ArrayList<>();
-            JOptionPane.showMessageDialog(this, "Fehler beim Laden der Tische.", "Datenbankfehler", JOptionPane.ERROR_MESSAGE);
-        }
-
         model.setRowCount(0);
-        for (Table t : tables) {
-            if (t.getSeats() < persons) continue;
-            boolean reserved = false;
-            try {
-                reserved = reservationService.isTableReserved(date, time, t.getId());
-            } catch (Exception e) {
-                reserved = false;
-            }
-            model.addRow(new Object[]{t.getId(), t.getSeats(), reserved});
-        }
+        model.addRow(new Object[]{null, null, "Lade…"});
+        loader.load(
+                () -> reservationService.findFreeTables(date, time, persons),
+                tables -> {
+                    model.setRowCount(0);
+                    for (Table t : tables) {
+                        model.addRow(new Object[]{t.getId(), t.getSeats(), t.getName()});
+                    }
+                    if (tables.isEmpty()) {
+                        JOptionPane.showMessageDialog(this, "Zu diesem Zeitpunkt ist kein passender Tisch frei.");
+                    }
+                },
+                ex -> {
+                    model.setRowCount(0);
+                    JOptionPane.showMessageDialog(this, "Fehler beim Laden der Tische.", "Datenbankfehler", JOptionPane.ERROR_MESSAGE);
+                });
     }
 
     private void onChoose() {
@@ -95,12 +82,12 @@ public class TableSelectionDialog extends JDialog {
             JOptionPane.showMessageDialog(this, "Bitte einen Tisch auswählen.");
             return;
         }
-        boolean reserved = (Boolean) model.getValueAt(row,2);
-        if (reserved) {
-            JOptionPane.showMessageDialog(this, "Dieser Tisch ist bereits reserviert.");
-            return;
+        Object id = model.getValueAt(row,0);
+        if (id == null) {
+            return; // Platzhalter während des Ladens
         }
-        selectedTable = (Integer) model.getValueAt(row,0);
+        selectedTable = (Integer) id;
+        loader.cancel();
         dispose();
     }
 
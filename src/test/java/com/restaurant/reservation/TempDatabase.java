@@ -0,0 +1,30 @@
+import com.restaurant.reservation.dao.Database;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Leitet alle Datenbankzugriffe für die Dauer eines Tests auf eine leere
+ * SQLite-Datei um. {@link #close()} stellt die vorherige Datenbank wieder
+ * her und löscht die Datei samt WAL- und SHM-Datei.
+ */
+class TempDatabase implements AutoCloseable {
+    private final String previous;
+    private final Path file;
+
+    TempDatabase(String prefix) throws IOException {
+        previous = Database.getUrl();
+        file = Files.createTempFile(prefix, ".db");
+        Database.configure("jdbc:sqlite:" + file);
+    }
+
+    @Override
+    public void close() throws IOException {
+        Database.configure(previous);
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(Paths.get(file + "-wal"));
+        Files.deleteIfExists(Paths.get(file + "-shm"));
+    }
+}
@@ -1,19 +1,47 @@
+import com.restaurant.reservation.dao.Database;
 import com.restaurant.reservation.dao.ReservationDAO;
+import com.restaurant.reservation.dao.ReservationExporter;
+import com.restaurant.reservation.dao.ReservationGenerator;
+import com.restaurant.reservation.dao.ReservationImporter;
+import com.restaurant.reservation.dao.SlowQueryLog;
+import com.restaurant.reservation.dao.TableDAO;
+import com.restaurant.reservation.dao.WriteResult;
 import com.restaurant.reservation.model.Reservation;
+import com.restaurant.reservation.model.ReservationStatus;
+import com.restaurant.reservation.model.StatisticsSnapshot;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 public class ReservationDAOTest {
+    /** Bezugszeitpunkt des Generators, damit die erzeugten Daten nicht vom Testdatum abhängen. */
+    private static final LocalDateTime GENERATOR_NOW = LocalDateTime.of(2024, 2, 1, 0, 0);
+
     private ReservationDAO dao;
 
     @BeforeEach
     public void setup() {
         ReservationDAO.createTable();
+        TableDAO.createTable();
         dao = new ReservationDAO();
     }
 
@@ -23,8 +51,8 @@ public class ReservationDAOTest {
         for (Reservation r : all) {
             dao.deleteReservation(r.getId());
         }
-        try (java.sql.Connection conn = com.restaurant.reservation.dao.Database.getConnection();
-             java.sql.Statement stmt = conn.createStatement()) {
+        try (Connection conn = Database.getConnection();
+             Statement stmt = conn.createStatement()) {
             stmt.executeUpdate("DELETE FROM cancellations");
         }
     }
@@ -40,7 +68,217 @@ public class ReservationDAOTest {
                 .filter(x -> x.getName().equals("Test") && x.getDate().equals("2025-01-01"))
                 .findFirst()
                 .orElseThrow();
+        int cancellations = dao.countCancellations();
         dao.deleteReservation(added.getId());
         assertEquals(before, dao.getAllReservations().size());
+        assertEquals(cancellations + 1, dao.countCancellations());
+
+        // eine nicht (mehr) vorhandene Reservierung wird nicht als storniert protokolliert
+        WriteResult missing = dao.cancelReservation(added.getId(), null).getResult();
+        assertFalse(missing.isApplied());
+        assertFalse(missing.isConflict());
+        assertEquals(cancellations + 1, dao.countCancellations());
+    }
+
+    @Test
+    public void testDuplicateSlotIsRejected() throws Exception {
+        assertTrue(dao.addReservation(new Reservation("Erster", "2025-01-02", "19:00", 2, 3)));
+        assertFalse(dao.addReservation(new Reservation("Zweiter", "2025-01-02", "19:00", 4, 3)));
+        assertTrue(dao.existsReservation("2025-01-02", "19:00", 3));
+    }
+
+    @Test
+    public void testIncrementalStatisticsMatchRebuild() throws Exception {
+        dao.addReservation(new Reservation("Frida", "2025-02-01", "18:00", 2, 1));
+        dao.addReservation(new Reservation("Gustav", "2025-02-01", "18:00", 3, 2));
+        dao.addReservation(new Reservation("Hanna", "2025-02-02", "19:30", 4, 1));
+        List<Reservation> list = dao.getReservationsForDate("2025-02-01");
+        dao.updateStatus(list.get(0).getId(), ReservationStatus.ATTENDED);
+        dao.updateStatus(list.get(1).getId(), ReservationStatus.NOSHOW);
+        dao.deleteReservation(dao.getReservationsForDate("2025-02-02").get(0).getId());
+
+        StatisticsSnapshot incremental = dao.loadStatistics(3);
+        ReservationDAO.rebuildStatistics();
+        StatisticsSnapshot rebuilt = dao.loadStatistics(3);
+
+        assertEquals(rebuilt.getReservationCount(), incremental.getReservationCount());
+        assertEquals(rebuilt.getCancellationCount(), incremental.getCancellationCount());
+        assertEquals(rebuilt.getNoShowCount(), incremental.getNoShowCount());
+        assertEquals(rebuilt.getAttendedCount(), incremental.getAttendedCount());
+        assertEquals(rebuilt.getAverageReservationsPerDay(), incremental.getAverageReservationsPerDay(), 1e-9);
+        assertEquals(rebuilt.getAverageOccupancy(), incremental.getAverageOccupancy(), 1e-9);
+        assertEquals(rebuilt.getAverageLeadTimeHours(), incremental.getAverageLeadTimeHours(), 1e-9);
+        assertEquals(rebuilt.getAverageProcessingTimeHours(), incremental.getAverageProcessingTimeHours(), 1e-9);
+        assertEquals(rebuilt.getPopularTimes(), incremental.getPopularTimes());
+    }
+
+    @Test
+    public void testKeysetPagesCoverAllRowsInOrder() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            dao.addReservation(new Reservation("Gast " + i, "2025-03-0" + (1 + i % 2), "18:00", 2, i + 1));
+        }
+        List<Reservation> all = dao.getAllReservations();
+        List<Reservation> paged = new ArrayList<>();
+        Reservation after = null;
+        List<Reservation> page;
+        while (!(page = dao.getReservationPage(after, 2)).isEmpty()) {
+            paged.addAll(page);
+            after = page.get(page.size() - 1);
+        }
+        assertEquals(all.size(), paged.size());
+        assertEquals(paged.get(2).getId(), dao.findKeyAt(2).getId());
+        for (int i = 1; i < paged.size(); i++) {
+            Reservation a = paged.get(i - 1);
+            Reservation b = paged.get(i);
+            String ka = a.getDate() + " " + a.getTime();
+            String kb = b.getDate() + " " + b.getTime();
+            assertTrue(ka.compareTo(kb) < 0 || (ka.equals(kb) && a.getId() < b.getId()));
+        }
+    }
+
+    @Test
+    public void testImporterStreamsSqlAndCsvAndSkipsConflicts() throws Exception {
+        dao.addReservation(new Reservation("Bestand", "2025-04-01", "18:00", 2, 1));
+        String sql = "-- Altsystem\n" +
+                "INSERT INTO reservations (name, date, time, persons, table_number, status, created_at, confirmed_at) VALUES\n" +
+                "  ('O''Brien, Kate', '2025-04-01', '19:30', 2, 1, 'ATTENDED', '2025-03-01 12:00', '2025-03-02 08:00'),\n" +
+                "  ('Doppelt', '2025-04-01', '18:30', 2, 1, 'PENDING', '2025-03-01 12:00', NULL),\n" +
+                "  ('Minus', '2025-04-01', '21:00', -2, 1, 'PENDING', '2025-03-01 12:00', NULL),\n" +
+                "  ('Zu viele', '2025-04-01', '21:00', 6, 1, 'PENDING', '2025-03-01 12:00', NULL),\n" +
+                "  ('Ohne Tisch', '2025-04-01', '21:00', 2, 99, 'PENDING', '2025-03-01 12:00', NULL);\n";
+        ReservationImporter.ImportResult fromSql =
+                new ReservationImporter().importStream(
+                        new ByteArrayInputStream(sql.getBytes(StandardCharsets.UTF_8)),
+                        ReservationImporter.Format.SQL);
+        assertEquals(5, fromSql.getRead());
+        assertEquals(1, fromSql.getImported());
+        assertEquals(1, fromSql.getConflicts());
+        assertEquals(3, fromSql.getInvalid());
+        assertTrue(fromSql.getMessages().contains("Zeile 3: ungültige Personenzahl (-2)"));
+
+        String csv = "name,date,time,persons,table_number,duration_min\n" +
+                "\"Meier, Jan\",2025-04-02,18:00,4,2,60\n" +
+                "Kaputt,2025-04-02,abc,4,3,\n";
+        ReservationImporter.ImportResult fromCsv =
+                new ReservationImporter().importStream(
+                        new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)),
+                        ReservationImporter.Format.CSV);
+        assertEquals(1, fromCsv.getImported());
+        assertEquals(1, fromCsv.getInvalid());
+
+        List<Reservation> imported = dao.getReservationsForDate("2025-04-01");
+        assertEquals(2, imported.size());
+        assertEquals("O'Brien, Kate", imported.get(1).getName());
+        assertEquals("Meier, Jan", dao.getReservationsForDate("2025-04-02").get(0).getName());
+        assertEquals(60, dao.getReservationsForDate("2025-04-02").get(0).getDurationMinutes());
+        assertEquals(3, dao.countReservations());
+    }
+
+    @Test
+    public void testExporterWritesRangeAsJsonLinesAndGzipCsv() throws Exception {
+        dao.addReservation(new Reservation("Ida \"Eins\"", "2025-05-01", "18:00", 2, 1));
+        dao.addReservation(new Reservation("Jonas", "2025-05-02", "18:00", 2, 1));
+        dao.addReservation(new Reservation("Karl", "2025-05-03", "18:00", 2, 1));
+        ReservationExporter exporter = new ReservationExporter();
+
+        StringWriter json = new StringWriter();
+        long rows = exporter.export(ReservationExporter.Source.RESERVATIONS,
+                ReservationExporter.Format.JSONL, json, "2025-05-01", "2025-05-02");
+        assertEquals(2, rows);
+        String[] lines = json.toString().split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"name\":\"Ida \\\"Eins\\\"\""));
+        assertTrue(lines[1].contains("\"persons\":2"));
+
+        Path file = Files.createTempFile("export", ".csv.gz");
+        try {
+            assertEquals(3, exporter.exportFile(ReservationExporter.Source.RESERVATIONS,
+                    file, null, null));
+            try (BufferedReader in = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(Files.newInputStream(file)),
+                    StandardCharsets.UTF_8))) {
+                assertTrue(in.readLine().startsWith("id,name,date,time"));
+                assertTrue(in.readLine().contains(",\"Ida \"\"Eins\"\"\",2025-05-01,18:00,"));
+                assertEquals(2, in.lines().count());
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testGeneratorFillsSeparateDatabaseConsistently() throws Exception {
+        try (TempDatabase ignored = new TempDatabase("generator")) {
+            ReservationGenerator.Result result =
+                    new ReservationGenerator(40, LocalDate.of(2024, 1, 1), 14, 7, GENERATOR_NOW)
+                            .generate(null);
+            assertEquals(40, new TableDAO().findAllTables().size());
+            assertTrue(result.getReservations() > 0);
+            assertEquals(result.getReservations(), dao.countReservations());
+            assertEquals(result.getCancellations(), dao.countCancellations());
+            assertTrue(dao.countAttended() > dao.countNoShows());
+            assertThrows(SQLException.class, () ->
+                    new ReservationGenerator(40, LocalDate.of(2024, 1, 1), 1, 7, GENERATOR_NOW)
+                            .generate(null));
+        }
+    }
+
+    @Test
+    public void testTextStatusIsMigratedToCodes() throws Exception {
+        try (TempDatabase ignored = new TempDatabase("status")) {
+            try (Connection conn = Database.getConnection();
+                 Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("CREATE TABLE reservations (id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                        "name TEXT NOT NULL, date TEXT NOT NULL, time TEXT NOT NULL, persons INTEGER NOT NULL, " +
+                        "table_number INTEGER NOT NULL, status TEXT DEFAULT 'PENDING')");
+                stmt.executeUpdate("INSERT INTO reservations(name, date, time, persons, table_number, status) VALUES " +
+                        "('Lea', '2025-06-01', '18:00', 2, 1, 'ATTENDED'), " +
+                        "('Max', '2025-06-01', '19:00', 2, 1, 'noshow'), " +
+                        "('Nora', '2025-06-02', '18:00', 2, 1, 'PENDING'), " +
+                        "('Olaf', '2025-06-03', '18:00', 2, 1, NULL)");
+            }
+            ReservationDAO.createTable();
+            assertEquals(1, dao.countAttended());
+            assertEquals(1, dao.countNoShows());
+            assertEquals(ReservationStatus.NOSHOW,
+                    dao.getReservationsForDate("2025-06-01").get(1).getStatus());
+            List<Reservation> open = dao.getOpenReservations("2025-06-02");
+            assertEquals(1, open.size());
+            assertEquals("Nora", open.get(0).getName());
+            assertEquals(2, dao.getOpenReservations("2025-06-03").size());
+            assertThrows(SQLException.class, () -> {
+                try (Connection conn = Database.getConnection();
+                     Statement stmt = conn.createStatement()) {
+                    stmt.executeUpdate("UPDATE reservations SET status = 7");
+                }
+            });
+            assertThrows(IllegalArgumentException.class,
+                    () -> ReservationStatus.parse("FOO"));
+        }
+    }
+
+    @Test
+    public void testSlowQueryLogWritesParametersAndPlan() throws Exception {
+        Path log = Files.createTempFile("slow-queries", ".log");
+        Duration previous = SlowQueryLog.getThreshold();
+        try {
+            SlowQueryLog.setFile(log);
+            SlowQueryLog.setThreshold(Duration.ofNanos(1));
+            assertFalse(dao.existsReservation("2099-01-01", "12:00", 3));
+            SlowQueryLog.setThreshold(Duration.ZERO);
+            dao.existsReservation("2099-01-02", "12:00", 3);
+
+            String content = Files.readString(log);
+            assertTrue(content.contains("dao.existsReservation"));
+            long first = LocalDate.of(2099, 1, 1).toEpochDay() * 1440 + 12 * 60;
+            assertTrue(content.contains("SQL: SELECT id FROM reservations WHERE table_number = ? AND start_min = ?"));
+            assertTrue(content.contains("Parameter: {1=3, 2=" + first + "}"));
+            assertTrue(content.contains("idx_reservations_table_start"));
+            assertFalse(content.contains(String.valueOf(first + 1440)));
+        } finally {
+            SlowQueryLog.setThreshold(previous);
+            SlowQueryLog.setFile(null);
+            Files.deleteIfExists(log);
+        }
     }
 }
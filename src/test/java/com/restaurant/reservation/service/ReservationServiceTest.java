@@ -1,9 +1,44 @@
-import com.restaurant.reservation.service.ReservationService;
+import com.restaurant.reservation.api.BookingServer;
+import com.restaurant.reservation.dao.Database;
+import com.restaurant.reservation.dao.ReservationDAO;
+import com.restaurant.reservation.dao.ReservationGenerator;
+import com.restaurant.reservation.dao.TableDAO;
+import com.restaurant.reservation.dao.WriteResult;
+import com.restaurant.reservation.metrics.LatencyHistogram;
+import com.restaurant.reservation.metrics.ReservationMetrics;
 import com.restaurant.reservation.model.Reservation;
+import com.restaurant.reservation.model.ReservationStatus;
+import com.restaurant.reservation.model.StatisticsSnapshot;
+import com.restaurant.reservation.model.Table;
+import com.restaurant.reservation.model.WaitlistEntry;
+import com.restaurant.reservation.service.AvailabilityIndex;
+import com.restaurant.reservation.service.IntervalTree;
+import com.restaurant.reservation.service.ReservationEvent;
+import com.restaurant.reservation.service.ReservationEventBus;
+import com.restaurant.reservation.service.ReservationService;
+import com.restaurant.reservation.service.ReservationStore;
+import com.restaurant.reservation.service.SlotTakenException;
+import com.restaurant.reservation.service.TableAssignmentOptimizer;
+import com.restaurant.reservation.service.TableService;
+import com.restaurant.reservation.service.WaitlistIndex;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -15,10 +50,27 @@ public class ReservationServiceTest {
 
     @BeforeEach
     public void setUp() {
-        com.restaurant.reservation.dao.ReservationDAO.createTable();
+        ReservationDAO.createTable();
+        TableDAO.createTable();
         service = new ReservationService();
     }
 
+    /** Jeder Test bucht an eigenen Tagen im Jahr 2099; diese werden danach geleert. */
+    @AfterEach
+    public void cleanup() throws Exception {
+        ReservationDAO dao = new ReservationDAO();
+        for (Reservation r : dao.getReservationsBetween("2099-01-01", "2099-12-31")) {
+            dao.deleteReservation(r.getId());
+        }
+        try (Connection conn = Database.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM waitlist WHERE date LIKE '2099-%'");
+        }
+        AvailabilityIndex.shared().invalidate();
+        ReservationStore.shared().invalidate();
+        WaitlistIndex.shared().invalidate();
+    }
+
     @Test
     public void testAddAndDeleteReservationThroughService() throws Exception {
         int before = service.getAllReservations().size();
@@ -41,4 +93,362 @@ public class ReservationServiceTest {
                 service.addReservation("Carl", "2099-01-01", "12:00", 4, 1));
         assertTrue(ex.getMessage().toLowerCase().contains("bereit"));
     }
+
+    @Test
+    public void testAvailabilityFollowsBookingAndCancellation() throws Exception {
+        assertFalse(service.isTableReserved("2099-03-03", "19:30", 2));
+        service.addReservation("Dora", "2099-03-03", "19:30", 2, 2);
+        assertTrue(service.isTableReserved("2099-03-03", "19:30", 2));
+
+        Reservation added = service.getAllReservations().stream()
+                .filter(r -> r.getName().equals("Dora") && r.getDate().equals("2099-03-03"))
+                .findFirst()
+                .orElseThrow();
+        service.deleteReservation(added.getId());
+        assertFalse(service.isTableReserved("2099-03-03", "19:30", 2));
+    }
+
+    @Test
+    public void testFindFreeTablesExcludesBookedAndTooSmall() throws Exception {
+        service.addReservation("Emil", "2099-04-04", "20:00", 2, 3);
+        List<Table> free = service.findFreeTables("2099-04-04", "20:00", 4);
+        assertFalse(free.isEmpty());
+        assertTrue(free.stream().noneMatch(t -> t.getId() == 3));
+        assertTrue(free.stream().allMatch(t -> t.getSeats() >= 4));
+        for (int i = 1; i < free.size(); i++) {
+            assertTrue(free.get(i - 1).getSeats() <= free.get(i).getSeats());
+        }
+    }
+
+    @Test
+    public void testOverlappingBookingsAreRejected() throws Exception {
+        service.addReservation("Ilse", "2099-05-05", "18:00", 2, 4); // 90 Minuten
+        assertTrue(service.isTableReserved("2099-05-05", "19:00", 4));
+        assertFalse(service.isTableReserved("2099-05-05", "19:30", 4));
+
+        Exception e = assertThrows(SlotTakenException.class,
+                () -> service.addReservation("Jan", "2099-05-05", "18:30", 2, 4));
+        assertTrue(e.getMessage().startsWith("Tisch bereits belegt"));
+        assertTrue(e.getMessage().contains("19:30"));
+        assertThrows(Exception.class, () -> service.addReservation("Jan", "2099-05-05", "17:00", 2, 4, 61));
+        assertEquals(LocalTime.of(19, 30), service.getNextFreeTime("2099-05-05", "18:30", 4, 120));
+        assertEquals(LocalTime.of(16, 30), service.getNextFreeTime("2099-05-05", "16:30", 4, 90));
+
+        service.addReservation("Jan", "2099-05-05", "19:30", 2, 4);
+        service.addReservation("Kai", "2099-05-05", "16:30", 2, 4, 90);
+        assertEquals(LocalTime.of(21, 0), service.getNextFreeTime("2099-05-05", "17:00", 4, 60));
+        assertTrue(service.findFreeTables("2099-05-05", "18:30", 2).stream().noneMatch(t -> t.getId() == 4));
+
+        // Sitzzeit über Mitternacht blockiert den Folgetag
+        service.addReservation("Lea", "2099-05-05", "23:00", 2, 4);
+        assertTrue(service.isTableReserved("2099-05-06", "00:15", 4));
+        assertFalse(service.isTableReserved("2099-05-06", "00:30", 4));
+        assertNull(service.getNextFreeTime("2099-05-05", "23:30", 4, 60));
+        assertThrows(Exception.class, () -> service.addReservation("Max", "2099-05-06", "00:00", 2, 4));
+    }
+
+    @Test
+    public void testMarkingALoadedBookingAgainKeepsOneEntry() throws Exception {
+        ReservationDAO dao = new ReservationDAO();
+        AvailabilityIndex index = new AvailabilityIndex(dao);
+        Reservation booked = new Reservation("Olga", "2099-05-20", "19:00", 2, 6);
+        assertTrue(dao.addReservation(booked));
+        try {
+            assertTrue(index.isReserved("2099-05-20", "19:00", 6)); // lädt den Tag samt Buchung
+            index.markReserved(booked);
+            index.markFree(booked);
+            assertFalse(index.isReserved("2099-05-20", "19:00", 6));
+        } finally {
+            dao.deleteReservation(booked.getId());
+        }
+
+        IntervalTree tree = new IntervalTree();
+        tree.add(60, 120, 7);
+        tree.add(90, 150, 7);
+        assertEquals(1, tree.size());
+        assertEquals(150, tree.maxEndOverlapping(100, 101));
+        assertTrue(tree.remove(7));
+        assertFalse(tree.overlaps(0, 200));
+    }
+
+    @Test
+    public void testTableAssignmentMovesSmallPartiesOffLargeTables() throws Exception {
+        LocalDate day = LocalDate.of(2099, 6, 6);
+        service.addReservation("Nina", day.toString(), "19:00", 2, 6);  // 8 Plätze
+        service.addReservation("Olaf", day.toString(), "19:30", 2, 13); // 8 Plätze
+
+        TableAssignmentOptimizer.Plan plan = service.planTableAssignment(day);
+        assertTrue(plan.isComplete());
+        assertEquals(2, plan.getMoves().size());
+        assertTrue(plan.getUnseated().isEmpty());
+        assertEquals(plan.getCoversBefore(), plan.getCoversAfter());
+        assertTrue(plan.getWastedSeatMinutesAfter() < plan.getWastedSeatMinutesBefore());
+        assertTrue(plan.getCapacityGain() > 0);
+        for (TableAssignmentOptimizer.Move move : plan.getMoves()) {
+            assertTrue(move.getToTable() == 7 || move.getToTable() == 14); // 2 Plätze
+        }
+
+        assertTrue(service.applyTableAssignment(plan));
+        assertFalse(service.applyTableAssignment(plan)); // veraltet
+        assertFalse(service.isTableReserved(day.toString(), "19:30", 6));
+        assertTrue(service.isTableReserved(day.toString(), "19:30", 7));
+        assertTrue(service.planTableAssignment(day).getMoves().isEmpty());
+        assertEquals(3, service.suggestTable(day.toString(), "19:00", 2).getSeats());
+    }
+
+    @Test
+    public void testCancellationPromotesBestWaitlistEntry() throws Exception {
+        LocalDate day = LocalDate.of(2099, 7, 7);
+        service.addReservation("Paul", day.toString(), "19:00", 2, 3);  // 5 Plätze
+        service.addReservation("Quinn", day.toString(), "20:30", 2, 3); // 90 Minuten Lücke
+        service.addToWaitlist("Rita", day.toString(), "18:30", "19:30", 4, 0); // 120 Minuten zu lang
+        service.addToWaitlist("Sven", day.toString(), "19:00", "19:00", 6, 5); // zu groß
+        service.addToWaitlist("Tom", day.toString(), "18:00", "19:00", 2, 0);
+        WaitlistEntry uwe = service.addToWaitlist("Uwe", day.toString(), "19:00", "20:00", 2, 1);
+        service.addToWaitlist("Vera", day.toString(), "19:30", "20:00", 2, 9); // Fenster passt nicht
+        assertEquals("Vera", service.getWaitlist(day).get(0).getName());
+
+        Reservation paul = service.getAllReservations().stream()
+                .filter(r -> r.getName().equals("Paul") && r.getDate().equals(day.toString()))
+                .findFirst()
+                .orElseThrow();
+        service.deleteReservation(paul.getId());
+
+        Reservation promoted = service.getAllReservations().stream()
+                .filter(r -> r.getDate().equals(day.toString()) && r.getTime().equals("19:00"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals("Uwe", promoted.getName());
+        assertEquals(3, promoted.getTableNumber());
+        assertTrue(service.isTableReserved(day.toString(), "19:00", 3));
+        List<WaitlistEntry> waiting = service.getWaitlist(day);
+        assertEquals(4, waiting.size());
+        assertTrue(waiting.stream().noneMatch(e -> e.getId().equals(uwe.getId())));
+
+        service.deleteReservation(promoted.getId());
+        Reservation tom = service.getAllReservations().stream()
+                .filter(r -> r.getDate().equals(day.toString()) && r.getTime().equals("19:00"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals("Tom", tom.getName());
+        // Ohne passenden Nachrücker bleibt der Tisch frei
+        service.deleteReservation(tom.getId());
+        assertFalse(service.isTableReserved(day.toString(), "19:00", 3));
+        for (WaitlistEntry entry : service.getWaitlist(day)) {
+            service.removeFromWaitlist(entry.getId());
+        }
+        assertTrue(service.getWaitlist(day).isEmpty());
+    }
+
+    @Test
+    public void testHttpApiBooksEachTableOnlyOnce() throws Exception {
+        BookingServer server = new BookingServer(
+                service, new InetSocketAddress("127.0.0.1", 0));
+        server.start();
+        try {
+            HttpClient client = HttpClient.newHttpClient();
+            String base = "http://127.0.0.1:" + server.getPort() + "/api/";
+            HttpRequest post = HttpRequest.newBuilder(
+                            URI.create(base + "reservations"))
+                    .header("Content-Type", "application/x-www-form-urlencoded")
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "name=J%C3%BCrgen&date=2099-08-08&time=19:00&persons=2&table=9"))
+                    .build();
+            List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                responses.add(client.sendAsync(post, HttpResponse.BodyHandlers.ofString()));
+            }
+            int created = 0;
+            String body = null;
+            for (CompletableFuture<HttpResponse<String>> f : responses) {
+                HttpResponse<String> response = f.join();
+                if (response.statusCode() == 201) {
+                    created++;
+                    body = response.body();
+                } else {
+                    assertEquals(409, response.statusCode());
+                }
+            }
+            assertEquals(1, created);
+            assertTrue(body.contains("\"name\":\"Jürgen\""));
+            assertTrue(body.contains("\"table\":9"));
+
+            HttpResponse<String> free = client.send(HttpRequest.newBuilder(
+                            URI.create(base + "availability?date=2099-08-08&time=19:30&persons=2")).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, free.statusCode());
+            assertFalse(free.body().contains("{\"id\":9,"));
+
+            int id = Integer.parseInt(body.replaceAll("^\\{\"id\":(\\d+),.*$", "$1"));
+            HttpResponse<String> status = client.send(HttpRequest.newBuilder(
+                            URI.create(base + "reservations/" + id + "/status?status=ATTENDED"))
+                    .PUT(HttpRequest.BodyPublishers.noBody()).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertTrue(status.body().contains("\"status\":\"ATTENDED\""));
+            HttpResponse<String> stale = client.send(HttpRequest.newBuilder(
+                            URI.create(base + "reservations/" + id + "?version=0")).DELETE().build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertEquals(409, stale.statusCode());
+            assertTrue(stale.body().contains("\"version\":1"));
+            HttpRequest delete = HttpRequest.newBuilder(
+                    URI.create(base + "reservations/" + id)).DELETE().build();
+            assertEquals(204, client.send(delete, HttpResponse.BodyHandlers.discarding()).statusCode());
+            assertEquals(404, client.send(delete, HttpResponse.BodyHandlers.discarding()).statusCode());
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    public void testTableSnapshotIsReusedUntilTablesChange() throws Exception {
+        TableService tables = new TableService();
+        List<Table> all = tables.getAllTables();
+        assertSame(all, new TableService().getAllTables());
+        Table first = all.get(0);
+        assertSame(first, tables.getTableById(first.getId()));
+        assertNull(tables.getTableById(-1));
+        assertNull(tables.getTableById(Integer.MAX_VALUE));
+
+        List<Table> large = tables.getTablesWithSeats(5);
+        assertEquals(all.stream().filter(t -> t.getSeats() >= 5).count(), large.size());
+        for (int i = 1; i < large.size(); i++) {
+            assertTrue(large.get(i - 1).getSeats() <= large.get(i).getSeats());
+        }
+        assertTrue(tables.getTablesWithSeats(1000).isEmpty());
+
+        try (TempDatabase ignored = new TempDatabase("tables")) {
+            ReservationDAO.createTable();
+            TableDAO.createTable();
+            assertEquals(15, tables.getAllTables().size());
+            new ReservationGenerator(40, LocalDate.of(2024, 1, 1), 1, 7, LocalDateTime.of(2024, 2, 1, 0, 0))
+                    .generate(null);
+            assertEquals(40, tables.getAllTables().size());
+        }
+        assertEquals(all.size(), tables.getAllTables().size());
+    }
+
+    @Test
+    public void testChangesArePublishedAsEvents() throws Exception {
+        List<ReservationEvent> received = new ArrayList<>();
+        Consumer<ReservationEvent> listener = received::add;
+        ReservationEventBus.shared().subscribe(listener);
+        try {
+            service.addReservation("Greta", "2099-09-09", "18:30", 2, 4);
+            assertEquals(1, received.size());
+            Reservation created = received.get(0).getReservation();
+            assertEquals(ReservationEvent.Type.CREATED, received.get(0).getType());
+            assertNotNull(created.getId());
+            assertEquals("Greta", created.getName());
+
+            service.setStatus(created.getId(), ReservationStatus.ATTENDED);
+            assertEquals(ReservationEvent.Type.STATUS_CHANGED, received.get(1).getType());
+            assertEquals(ReservationStatus.ATTENDED, received.get(1).getReservation().getStatus());
+
+            service.deleteReservation(created.getId());
+            service.deleteReservation(created.getId());
+            assertEquals(3, received.size());
+            assertEquals(ReservationEvent.Type.CANCELLED, received.get(2).getType());
+            assertEquals(created.getId(), received.get(2).getReservation().getId());
+        } finally {
+            ReservationEventBus.shared().unsubscribe(listener);
+        }
+    }
+
+    @Test
+    public void testStatisticsSnapshotMatchesSingleQueries() throws Exception {
+        StatisticsSnapshot stats = service.getStatistics(3);
+        assertEquals(service.getReservationCount(), stats.getReservationCount());
+        assertEquals(service.getCancellationCount(), stats.getCancellationCount());
+        assertEquals(service.getNoShowCount(), stats.getNoShowCount());
+        assertEquals(service.getAttendedCount(), stats.getAttendedCount());
+        assertEquals(service.getAverageReservationsPerDay(), stats.getAverageReservationsPerDay(), 1e-9);
+        assertEquals(service.getAverageOccupancy(), stats.getAverageOccupancy(), 1e-9);
+        assertEquals(service.getAverageLeadTimeHours(), stats.getAverageLeadTimeHours(), 1e-9);
+        assertEquals(service.getAverageProcessingTimeHours(), stats.getAverageProcessingTimeHours(), 1e-9);
+        assertEquals(service.getPopularTimes(3), stats.getPopularTimes());
+    }
+
+    @Test
+    public void testLatenciesAreRecordedPerOperation() throws Exception {
+        ReservationMetrics metrics = ReservationMetrics.get();
+        long before = metrics.histogram("service.addReservation").getCount();
+        service.addReservation("Metrik", "2099-12-14", "19:00", 2, 4);
+        Reservation added = service.getAllReservations().stream()
+                .filter(r -> r.getName().equals("Metrik") && r.getDate().equals("2099-12-14"))
+                .findFirst().orElseThrow();
+        service.deleteReservation(added.getId());
+
+        assertEquals(before + 1, metrics.histogram("service.addReservation").getCount());
+        assertTrue(metrics.getOperations().stream()
+                .anyMatch(s -> s.getName().equals("dao.addReservation") && s.getCount() > 0));
+
+        LatencyHistogram h = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            h.record(i * 1000L); // 1..1000 µs
+        }
+        assertEquals(1000, h.getCount());
+        assertEquals(500, h.getPercentileMicros(50), 500 * 0.07);
+        assertEquals(990, h.getPercentileMicros(99), 990 * 0.07);
+        assertEquals(1000, h.getMaxMicros());
+    }
+
+    @Test
+    public void testColumnStoreFollowsDatabase() throws Exception {
+        ReservationDAO dao = new ReservationDAO();
+        service.getReservationCount(); // Bestand vor den Änderungen laden
+        service.addReservation("Spalte A", "2099-11-02", "19:00", 2, 1);
+        service.addReservation("Spalte B", "2099-11-01", "20:00", 4, 2);
+        service.addReservation("Spalte C", "2099-11-01", "18:00", 3, 1);
+        List<Reservation> added = dao.getReservationsBetween("2099-11-01", "2099-11-02");
+        assertEquals(3, added.size());
+        service.setStatus(added.get(0).getId(), ReservationStatus.ATTENDED);
+        service.deleteReservation(added.get(1).getId());
+        // Änderung eines anderen Arbeitsplatzes an einer bereits geladenen Zeile, nur in der Datenbank
+        service.getReservationCount();
+        dao.updateStatus(added.get(2).getId(), ReservationStatus.NOSHOW);
+
+        assertEquals(describe(dao.getAllReservations()), describe(service.getAllReservations()));
+        assertEquals(dao.getAllReservations().size(), service.getReservationCount());
+        assertEquals(describe(dao.getReservationsBetween("2099-11-01", "2099-11-02")),
+                describe(service.getReservationsBetween(LocalDate.of(2099, 11, 1),
+                        LocalDate.of(2099, 11, 2))));
+        assertEquals(describe(dao.getReservationsForTable(1)), describe(service.getReservationsForTable(1)));
+        Reservation first = service.getReservationKeyAt(0);
+        assertEquals(describe(dao.getReservationPage(first, 5)), describe(service.getReservationPage(first, 5)));
+    }
+
+    @Test
+    public void testStaleVersionIsRejected() throws Exception {
+        ReservationStatus attended = ReservationStatus.ATTENDED;
+        ReservationStatus noShow = ReservationStatus.NOSHOW;
+        Reservation added = service.addReservation("Version", "2099-10-05", "19:00", 2, 3);
+        int seen = service.getReservation(added.getId()).getVersion();
+
+        WriteResult first = service.setStatus(added.getId(), attended, seen);
+        assertTrue(first.isApplied());
+        assertEquals(seen + 1, first.getReservation().getVersion());
+
+        // zweiter Arbeitsplatz mit dem alten Stand
+        WriteResult stale = service.setStatus(added.getId(), noShow, seen);
+        assertTrue(stale.isConflict());
+        assertEquals(attended, stale.getReservation().getStatus());
+        assertEquals(seen + 1, stale.getReservation().getVersion());
+        assertTrue(service.deleteReservation(added.getId(), seen).isConflict());
+        assertEquals(attended, service.getReservation(added.getId()).getStatus());
+
+        assertTrue(service.deleteReservation(added.getId(), seen + 1).isApplied());
+        assertEquals(WriteResult.Outcome.NOT_FOUND,
+                service.deleteReservation(added.getId(), seen + 1).getOutcome());
+        assertEquals(WriteResult.Outcome.NOT_FOUND,
+                service.setStatus(added.getId(), noShow, seen + 1).getOutcome());
+    }
+
+    private static List<String> describe(List<Reservation> list) {
+        List<String> rows = new ArrayList<>();
+        for (Reservation r : list) {
+            rows.add(r.getId() + "|" + r.getName() + "|" + r.getDate() + "|" + r.getTime() + "|"
+                    + r.getPersons() + "|" + r.getTableNumber() + "|" + r.getStatus() + "|" + r.getVersion());
+        }
+        return rows;
+    }
 }